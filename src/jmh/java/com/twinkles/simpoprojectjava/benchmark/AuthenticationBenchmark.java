@@ -0,0 +1,68 @@
+package com.twinkles.simpoprojectjava.benchmark;
+
+import com.twinkles.simpoprojectjava.dtos.requests.LoginRequest;
+import com.twinkles.simpoprojectjava.dtos.responses.LoginResponse;
+import com.twinkles.simpoprojectjava.model.VoterCredentials;
+import com.twinkles.simpoprojectjava.repository.AppUserRepository;
+import com.twinkles.simpoprojectjava.service.AppUserServiceImpl;
+import com.twinkles.simpoprojectjava.service.VoteMetrics;
+import com.twinkles.simpoprojectjava.service.VoteSessionTokens;
+import com.twinkles.simpoprojectjava.service.VoterCredentialCache;
+import com.twinkles.simpoprojectjava.utils.UtilsClass;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+// Login latency against the bcrypt strength, next to the session-token check that replaces it on the vote path.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationBenchmark {
+    private static final String BVN = "12345678901";
+    private static final String PASSWORD = "benchmark-password";
+
+    @Param({"4", "8", "10", "12"})
+    public int bcryptStrength;
+
+    private AppUserServiceImpl appUserService;
+    private VoteSessionTokens voteSessionTokens;
+    private String sessionToken;
+
+    @Setup
+    public void setUp() {
+        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(bcryptStrength);
+        AppUserRepository appUserRepository = InMemoryRepositories.voters(passwordEncoder.encode(PASSWORD));
+        VoterCredentialCache voterCredentialCache = new VoterCredentialCache(appUserRepository, 1_000, 30);
+        UtilsClass utilsClass = new UtilsClass(voterCredentialCache, InMemoryRepositories.candidates(1), passwordEncoder);
+        voteSessionTokens = new VoteSessionTokens("benchmark-secret", 30);
+        appUserService = new AppUserServiceImpl(null, appUserRepository, utilsClass, null, null, null, null,
+                voterCredentialCache, null, null, voteSessionTokens, passwordEncoder, new VoteMetrics(new SimpleMeterRegistry()));
+        sessionToken = voteSessionTokens.issue(new VoterCredentials(BVN, null, 0));
+    }
+
+    @Benchmark
+    public LoginResponse login() {
+        return appUserService.login(new LoginRequest(BVN, PASSWORD));
+    }
+
+    @Benchmark
+    public VoterCredentials verifySessionToken() {
+        return voteSessionTokens.verify(sessionToken);
+    }
+}
@@ -0,0 +1,117 @@
+package com.twinkles.simpoprojectjava.benchmark;
+
+import com.twinkles.simpoprojectjava.model.Candidate;
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.model.VoterCredentials;
+import com.twinkles.simpoprojectjava.repository.AppUserRepository;
+import com.twinkles.simpoprojectjava.repository.CandidateRepository;
+import com.twinkles.simpoprojectjava.repository.RegionalTallyRepository;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Repository stand-ins that answer from memory, so the benchmarks measure the application code rather than Mongo.
+// Only the methods the benchmarked paths call are implemented; anything else fails loudly.
+final class InMemoryRepositories {
+    private static final Party[] PARTIES = Party.values();
+
+    private InMemoryRepositories() {
+    }
+
+    // Every BVN is a registered voter with the given password hash who has not voted yet.
+    static AppUserRepository voters(String passwordHash) {
+        Map<String, Function<Object[], Object>> methods = new HashMap<>();
+        methods.put("findCredentialsByBVN(String)", args -> new VoterCredentials((String) args[0], passwordHash, 0));
+        methods.put("markVoted(String,int)", args -> 0);
+        methods.put("markVoted(String,VoteCategory)", args -> true);
+        methods.put("updatePassword(String,String)", args -> null);
+        return proxy(AppUserRepository.class, methods);
+    }
+
+    // The first candidatesPerCategory parties stand in every category.
+    static CandidateRepository candidates(int candidatesPerCategory) {
+        Candidate[][] candidates = candidateTable(candidatesPerCategory);
+        Map<String, Function<Object[], Object>> methods = new HashMap<>();
+        methods.put("findCandidateByVoteCategoryAndParty(VoteCategory,Party)",
+                args -> candidates[((VoteCategory) args[0]).ordinal()][((Party) args[1]).ordinal()]);
+        methods.put("findCandidateByVoteCategory(VoteCategory)", args -> candidateList(candidates[((VoteCategory) args[0]).ordinal()]));
+        methods.put("incrementVoteCount(VoteCategory,Party,long)", args -> null);
+        methods.put("incrementVoteCount(VoteCategory,Party,long,String,long)", args -> true);
+        methods.put("flushedVoteCount(VoteCategory,Party,String)", args -> 0L);
+        methods.put("startFlushedVoteCount(VoteCategory,Party,String,long)", args -> args[3]);
+        methods.put("raiseVoteCount(VoteCategory,Party,long)", args -> null);
+        return proxy(CandidateRepository.class, methods);
+    }
+
+    // Every regional delta is applied; nothing has been counted yet.
+    static RegionalTallyRepository regionalTallies() {
+        Map<String, Function<Object[], Object>> methods = new HashMap<>();
+        methods.put("incrementVoteCounts(List)", args -> ((List<?>) args[0]).size());
+        methods.put("findByVoteCategory(VoteCategory)", args -> Collections.emptyList());
+        return proxy(RegionalTallyRepository.class, methods);
+    }
+
+    static List<Candidate> candidateList(VoteCategory voteCategory, int candidatesPerCategory) {
+        return candidateList(candidateTable(candidatesPerCategory)[voteCategory.ordinal()]);
+    }
+
+    private static Candidate[][] candidateTable(int candidatesPerCategory) {
+        Candidate[][] candidates = new Candidate[VoteCategory.values().length][PARTIES.length];
+        for (VoteCategory voteCategory : VoteCategory.values()) {
+            for (int i = 0; i < candidatesPerCategory; i++) {
+                candidates[voteCategory.ordinal()][i] = Candidate.builder()
+                        .fullName(voteCategory + " " + PARTIES[i])
+                        .voteCategory(voteCategory)
+                        .party(PARTIES[i])
+                        .voteCount(1_000L * (i + 1))
+                        .build();
+            }
+        }
+        return candidates;
+    }
+
+    private static List<Candidate> candidateList(Candidate[] row) {
+        List<Candidate> list = new ArrayList<>();
+        for (Candidate candidate : row) {
+            if (candidate != null) {
+                list.add(candidate);
+            }
+        }
+        return list;
+    }
+
+    private static <T> T proxy(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> body = methods.get(signature(method));
+            if (body != null) {
+                return body.apply(args);
+            }
+            switch (method.getName()) {
+                case "toString":
+                    return type.getSimpleName() + " stand-in";
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    throw new UnsupportedOperationException(signature(method) + " is not stubbed");
+            }
+        }));
+    }
+
+    private static String signature(Method method) {
+        StringBuilder signature = new StringBuilder(method.getName()).append('(');
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            signature.append(i == 0 ? "" : ",").append(parameterTypes[i].getSimpleName());
+        }
+        return signature.append(')').toString();
+    }
+}
@@ -0,0 +1,66 @@
+package com.twinkles.simpoprojectjava.benchmark;
+
+import com.twinkles.simpoprojectjava.dtos.requests.ViewResultResponse;
+import com.twinkles.simpoprojectjava.model.Candidate;
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.service.ResultsView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Result aggregation at varying candidate counts: rebuilding a snapshot from Candidate documents, folding a flush's
+// deltas into it, and the read the /view endpoints serve.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultsBenchmark {
+    @Param({"1", "3", "7"})
+    public int candidateCount;
+
+    private ResultsView resultsView;
+    private List<Candidate> candidates;
+    private long[] deltas;
+
+    @Setup
+    public void setUp() {
+        resultsView = new ResultsView();
+        candidates = InMemoryRepositories.candidateList(VoteCategory.PRESIDENCY, candidateCount);
+        resultsView.reload(VoteCategory.PRESIDENCY, candidates);
+        deltas = new long[Party.values().length];
+        for (int i = 0; i < candidateCount; i++) {
+            deltas[i] = i + 1;
+        }
+    }
+
+    @Benchmark
+    public ViewResultResponse reload() {
+        resultsView.reload(VoteCategory.PRESIDENCY, candidates);
+        return resultsView.get(VoteCategory.PRESIDENCY);
+    }
+
+    @Benchmark
+    public ViewResultResponse applyDeltas() {
+        resultsView.apply(VoteCategory.PRESIDENCY, deltas);
+        return resultsView.get(VoteCategory.PRESIDENCY);
+    }
+
+    @Benchmark
+    public ViewResultResponse view() {
+        return resultsView.get(VoteCategory.PRESIDENCY);
+    }
+}
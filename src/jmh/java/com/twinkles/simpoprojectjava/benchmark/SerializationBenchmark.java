@@ -0,0 +1,81 @@
+package com.twinkles.simpoprojectjava.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.twinkles.simpoprojectjava.dtos.requests.CastVoteRequest;
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.Vote;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// JSON cost of the vote request body and of the Vote payload published to Kafka.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    private ObjectReader castVoteRequestReader;
+    private ObjectWriter castVoteRequestWriter;
+    private ObjectReader voteReader;
+    private ObjectWriter voteWriter;
+    private byte[] castVoteRequestJson;
+    private byte[] voteJson;
+    private CastVoteRequest castVoteRequest;
+    private Vote vote;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+        castVoteRequestReader = objectMapper.readerFor(CastVoteRequest.class);
+        castVoteRequestWriter = objectMapper.writerFor(CastVoteRequest.class);
+        voteReader = objectMapper.readerFor(Vote.class);
+        voteWriter = objectMapper.writerFor(Vote.class);
+        castVoteRequest = new CastVoteRequest(Party.APC, VoteCategory.PRESIDENCY, "12345678901", "benchmark-password");
+        vote = Vote.builder()
+                .BVN("12345678901")
+                .voteCategory(VoteCategory.PRESIDENCY)
+                .party(Party.APC)
+                .castAt(LocalDateTime.of(2023, 2, 25, 8, 0))
+                .build();
+        castVoteRequestJson = "{\"party\":\"apc\",\"voteCategory\":\"presidency\",\"bvn\":\"12345678901\",\"password\":\"benchmark-password\"}"
+                .getBytes();
+        voteJson = voteWriter.writeValueAsBytes(vote);
+    }
+
+    @Benchmark
+    public CastVoteRequest readCastVoteRequest() throws IOException {
+        return castVoteRequestReader.readValue(castVoteRequestJson);
+    }
+
+    @Benchmark
+    public byte[] writeCastVoteRequest() throws IOException {
+        return castVoteRequestWriter.writeValueAsBytes(castVoteRequest);
+    }
+
+    @Benchmark
+    public Vote readVote() throws IOException {
+        return voteReader.readValue(voteJson);
+    }
+
+    @Benchmark
+    public byte[] writeVote() throws IOException {
+        return voteWriter.writeValueAsBytes(vote);
+    }
+}
@@ -0,0 +1,89 @@
+package com.twinkles.simpoprojectjava.benchmark;
+
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.service.RedisVoteCounter;
+import com.twinkles.simpoprojectjava.service.TallyShards;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Every thread votes for the same candidate in one category, with the tally split over 1, 4 and 16 shards.
+// Against a single embedded Redis this mostly measures the sharding overhead; pass
+// -Dbenchmark.redis.cluster=host:port,host:port to see the hot category spread across cluster slots.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShardedTallyBenchmark {
+    @Param({"1", "4", "16"})
+    public int shards;
+
+    private final AtomicLong nextBvn = new AtomicLong(10_000_000_000L);
+    private RedisServer redisServer;
+    private LettuceConnectionFactory connectionFactory;
+    private RedisVoteCounter redisVoteCounter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String clusterNodes = System.getProperty("benchmark.redis.cluster");
+        if (clusterNodes != null) {
+            connectionFactory = new LettuceConnectionFactory(
+                    new RedisClusterConfiguration(Arrays.asList(clusterNodes.split(","))));
+        } else {
+            int port;
+            try (ServerSocket socket = new ServerSocket(0)) {
+                port = socket.getLocalPort();
+            }
+            redisServer = new RedisServer(port);
+            redisServer.start();
+            connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        }
+        connectionFactory.afterPropertiesSet();
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.flushAll();
+            return null;
+        });
+        redisVoteCounter = new RedisVoteCounter(redisTemplate, TallyShards.uniform(shards));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        connectionFactory.destroy();
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean castVoteContended() {
+        return redisVoteCounter.castVote(Long.toString(nextBvn.getAndIncrement()), VoteCategory.PRESIDENCY, Party.APC);
+    }
+}
@@ -0,0 +1,64 @@
+package com.twinkles.simpoprojectjava.benchmark;
+
+import com.twinkles.simpoprojectjava.service.UsernameAllocator;
+import org.bson.Document;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+// Username allocation cost per registration, single-threaded and with contending registrations. The sequence
+// lease is answered from memory, so this is the allocator's own cost amortised over a block.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UsernameAllocatorBenchmark {
+    @Param({"100", "1000"})
+    public int blockSize;
+
+    private UsernameAllocator usernameAllocator;
+
+    @Setup
+    public void setUp() {
+        AtomicLong sequence = new AtomicLong();
+        MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+        Mockito.when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(Document.class), anyString()))
+                .thenAnswer(invocation -> new Document("value", sequence.addAndGet(blockSize)));
+        usernameAllocator = new UsernameAllocator(mongoTemplate, blockSize);
+    }
+
+    @Benchmark
+    public String allocate() {
+        return usernameAllocator.allocate("Oluwaseun");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String allocateContended() {
+        return usernameAllocator.allocate("Oluwaseun");
+    }
+}
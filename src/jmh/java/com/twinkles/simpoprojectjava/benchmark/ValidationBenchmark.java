@@ -0,0 +1,90 @@
+package com.twinkles.simpoprojectjava.benchmark;
+
+import com.twinkles.simpoprojectjava.exceptions.SimpoProjectException;
+import com.twinkles.simpoprojectjava.model.Candidate;
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.repository.CandidateRepository;
+import com.twinkles.simpoprojectjava.utils.UtilsClass;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+// Candidate validation as it is now (enum lookup, preallocated errors) against a copy of the code it replaced
+// (EnumSet stream per request, toUpperCase + valueOf, a new exception per rejection). Run with -prof gc to see
+// the allocation per operation of each.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+    private static final String CATEGORY = "Presidency";
+    private static final String PARTY = "apc";
+    private static final String UNKNOWN_PARTY = "xyz";
+
+    private UtilsClass utilsClass;
+    private CandidateRepository candidateRepository;
+
+    @Setup
+    public void setUp() {
+        candidateRepository = InMemoryRepositories.candidates(Party.values().length);
+        utilsClass = new UtilsClass(null, candidateRepository, new BCryptPasswordEncoder(4));
+    }
+
+    @Benchmark
+    public Candidate checkCandidateValidity() {
+        return utilsClass.checkCandidateValidity(VoteCategory.fromName(CATEGORY), Party.fromName(PARTY));
+    }
+
+    @Benchmark
+    public Object rejectUnknownParty() {
+        try {
+            return utilsClass.checkCandidateValidity(VoteCategory.fromName(CATEGORY), Party.fromName(UNKNOWN_PARTY));
+        } catch (SimpoProjectException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Candidate legacyCheckCandidateValidity() {
+        return legacyCheck(CATEGORY, PARTY.toUpperCase());
+    }
+
+    @Benchmark
+    public Object legacyRejectUnknownParty() {
+        try {
+            return legacyCheck(CATEGORY, UNKNOWN_PARTY);
+        } catch (SimpoProjectException ex) {
+            return ex;
+        }
+    }
+
+    // the service upper-cased the category; the party had to arrive upper case or valueOf threw
+    private Candidate legacyCheck(String voteCategory, String party) {
+        VoteCategory category = VoteCategory.valueOf(voteCategory.toUpperCase());
+        boolean partyIsValid = EnumSet.allOf(Party.class)
+                .stream()
+                .anyMatch(candidateParty -> candidateParty.getName().equals(party.toUpperCase()));
+        if (!partyIsValid) {
+            throw new SimpoProjectException("Incorrect party name", 400);
+        }
+        Candidate candidate = candidateRepository.findCandidateByVoteCategoryAndParty(category, Party.valueOf(party));
+        if (candidate == null) {
+            throw new SimpoProjectException("No candidate found!", 400);
+        }
+        return candidate;
+    }
+}
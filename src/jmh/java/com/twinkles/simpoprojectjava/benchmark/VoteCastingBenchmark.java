@@ -0,0 +1,118 @@
+package com.twinkles.simpoprojectjava.benchmark;
+
+import com.twinkles.simpoprojectjava.config.IngestionMode;
+import com.twinkles.simpoprojectjava.config.TallyMode;
+import com.twinkles.simpoprojectjava.dtos.requests.BallotRequest;
+import com.twinkles.simpoprojectjava.dtos.requests.CastVoteRequest;
+import com.twinkles.simpoprojectjava.dtos.responses.BallotResponse;
+import com.twinkles.simpoprojectjava.dtos.responses.CastVoteResponse;
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.model.VoterCredentials;
+import com.twinkles.simpoprojectjava.repository.AppUserRepository;
+import com.twinkles.simpoprojectjava.repository.CandidateRepository;
+import com.twinkles.simpoprojectjava.service.AppUserServiceImpl;
+import com.twinkles.simpoprojectjava.service.ConstituencyTally;
+import com.twinkles.simpoprojectjava.service.ResultsView;
+import com.twinkles.simpoprojectjava.service.VoteMetrics;
+import com.twinkles.simpoprojectjava.service.VoteSessionTokens;
+import com.twinkles.simpoprojectjava.service.VoteTallyEngine;
+import com.twinkles.simpoprojectjava.service.VoterCredentialCache;
+import com.twinkles.simpoprojectjava.utils.UtilsClass;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// End-to-end castVoteFor* and ballot cost in DIRECT/LOCAL mode with in-memory repositories. Every operation votes
+// as a fresh voter, so the PASSWORD variant pays a credential-cache miss plus a bcrypt check at the default cost,
+// while SESSION only verifies the HMAC token.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VoteCastingBenchmark {
+    private static final String PASSWORD = "benchmark-password";
+    private static final int SESSION_POOL = 1024;
+
+    public enum Auth {
+        SESSION, PASSWORD
+    }
+
+    @Param({"SESSION", "PASSWORD"})
+    public Auth auth;
+
+    @Param({"10"})
+    public int bcryptStrength;
+
+    private final AtomicLong nextBvn = new AtomicLong(10_000_000_000L);
+    private AppUserServiceImpl appUserService;
+    private String[] sessionTokens;
+    private Map<VoteCategory, Party> fullBallot;
+
+    @Setup
+    public void setUp() {
+        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(bcryptStrength);
+        AppUserRepository appUserRepository = InMemoryRepositories.voters(passwordEncoder.encode(PASSWORD));
+        CandidateRepository candidateRepository = InMemoryRepositories.candidates(Party.values().length);
+        VoterCredentialCache voterCredentialCache = new VoterCredentialCache(appUserRepository, 100_000, 30);
+        UtilsClass utilsClass = new UtilsClass(voterCredentialCache, candidateRepository, passwordEncoder);
+        ResultsView resultsView = new ResultsView();
+        VoteTallyEngine voteTallyEngine = new VoteTallyEngine(candidateRepository, resultsView,
+                new ConstituencyTally(InMemoryRepositories.regionalTallies()));
+        VoteSessionTokens voteSessionTokens = new VoteSessionTokens("benchmark-secret", 30);
+        appUserService = new AppUserServiceImpl(null, appUserRepository, utilsClass, voteTallyEngine, null, resultsView,
+                null, voterCredentialCache, null, null, voteSessionTokens, passwordEncoder,
+                new VoteMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(appUserService, "ingestionMode", IngestionMode.DIRECT);
+        ReflectionTestUtils.setField(appUserService, "tallyMode", TallyMode.LOCAL);
+
+        sessionTokens = new String[SESSION_POOL];
+        for (int i = 0; i < SESSION_POOL; i++) {
+            sessionTokens[i] = voteSessionTokens.issue(new VoterCredentials(Long.toString(nextBvn.getAndIncrement()), null, 0));
+        }
+        fullBallot = new EnumMap<>(VoteCategory.class);
+        for (VoteCategory voteCategory : VoteCategory.values()) {
+            fullBallot.put(voteCategory, Party.APC);
+        }
+    }
+
+    @Benchmark
+    public CastVoteResponse castVoteForPresidency() {
+        long voter = nextBvn.getAndIncrement();
+        if (auth == Auth.SESSION) {
+            CastVoteRequest castVoteRequest = new CastVoteRequest(Party.APC, VoteCategory.PRESIDENCY, null, null);
+            return appUserService.castVoteForPresidency(castVoteRequest, sessionTokens[(int) (voter % SESSION_POOL)]);
+        }
+        CastVoteRequest castVoteRequest = new CastVoteRequest(Party.APC, VoteCategory.PRESIDENCY, Long.toString(voter), PASSWORD);
+        return appUserService.castVoteForPresidency(castVoteRequest, null);
+    }
+
+    // all five categories in one request, compared with five castVoteFor* calls
+    @Benchmark
+    public BallotResponse castFullBallot() {
+        long voter = nextBvn.getAndIncrement();
+        if (auth == Auth.SESSION) {
+            return appUserService.castBallot(new BallotRequest(null, null, fullBallot), sessionTokens[(int) (voter % SESSION_POOL)]);
+        }
+        return appUserService.castBallot(new BallotRequest(Long.toString(voter), PASSWORD, fullBallot), null);
+    }
+}
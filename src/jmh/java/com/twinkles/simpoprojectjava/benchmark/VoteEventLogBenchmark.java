@@ -0,0 +1,95 @@
+package com.twinkles.simpoprojectjava.benchmark;
+
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.service.VoteEventLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Recovery time: replaying a log of `records` votes with no snapshot, i.e. the worst case after a crash.
+// Records per second is records / score; the append benchmarks show what group commit costs the vote path.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VoteEventLogBenchmark {
+    private static final VoteCategory[] CATEGORIES = VoteCategory.values();
+    private static final Party[] PARTIES = Party.values();
+
+    @Param({"1000000", "10000000"})
+    public int records;
+
+    private Path replayDirectory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        replayDirectory = Files.createTempDirectory("vote-log-replay");
+        VoteEventLog voteEventLog = new VoteEventLog(replayDirectory, 1 << 20, VoteEventLog.Durability.WRITE);
+        for (int i = 0; i < records; i++) {
+            voteEventLog.appendVote(Long.toString(10_000_000_000L + i), CATEGORIES[i % CATEGORIES.length], PARTIES[i % PARTIES.length]);
+        }
+        voteEventLog.sync();
+        // deliberately not closed: close() snapshots, and the point is to replay every record
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(replayDirectory);
+    }
+
+    @Benchmark
+    public VoteEventLog.Recovery replay() throws IOException {
+        return VoteEventLog.replay(replayDirectory);
+    }
+
+    @State(Scope.Benchmark)
+    public static class AppendState {
+        @Param({"WRITE", "SYNC"})
+        public VoteEventLog.Durability durability;
+
+        private final AtomicLong nextBvn = new AtomicLong(10_000_000_000L);
+        private Path directory;
+        private VoteEventLog voteEventLog;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("vote-log-append");
+            voteEventLog = new VoteEventLog(directory, 1 << 20, durability);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            voteEventLog.close();
+            FileSystemUtils.deleteRecursively(directory);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(8)
+    public void appendContended(AppendState state) {
+        state.voteEventLog.appendVote(Long.toString(state.nextBvn.getAndIncrement()), VoteCategory.PRESIDENCY, Party.APC);
+    }
+}
@@ -0,0 +1,77 @@
+package com.twinkles.simpoprojectjava.benchmark;
+
+import com.twinkles.simpoprojectjava.dtos.requests.ViewResultResponse;
+import com.twinkles.simpoprojectjava.model.Constituency;
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.service.ConstituencyTally;
+import com.twinkles.simpoprojectjava.service.ResultsView;
+import com.twinkles.simpoprojectjava.service.VoteTallyEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// How the striped tally counters scale when every thread votes for the same candidate, and what a regional
+// result costs once the constituency tallies have been rolled up.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VoteTallyBenchmark {
+    private static final Constituency IKEJA = Constituency.of("Lagos", "Ikeja");
+    private static final VoteCategory[] CATEGORIES = VoteCategory.values();
+    private static final Party[] PARTIES = Party.values();
+
+    private VoteTallyEngine voteTallyEngine;
+
+    @Setup
+    public void setUp() {
+        voteTallyEngine = new VoteTallyEngine(InMemoryRepositories.candidates(Party.values().length), new ResultsView(),
+                new ConstituencyTally(InMemoryRepositories.regionalTallies()));
+        voteTallyEngine.record("12345678901", IKEJA, VoteCategory.PRESIDENCY, Party.APC);
+        voteTallyEngine.flush();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void record() {
+        voteTallyEngine.record("12345678901", IKEJA, VoteCategory.PRESIDENCY, Party.APC);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void recordContended() {
+        voteTallyEngine.record("12345678901", IKEJA, VoteCategory.PRESIDENCY, Party.APC);
+    }
+
+    // one thread per core, spread over every counter as a national ballot would be
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void recordAllCores(Voter voter) {
+        int i = voter.next++ & Integer.MAX_VALUE;
+        voteTallyEngine.record("12345678901", IKEJA, CATEGORIES[i % CATEGORIES.length], PARTIES[i % PARTIES.length]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public ViewResultResponse stateResult() {
+        return voteTallyEngine.regionalResult(VoteCategory.PRESIDENCY, "Lagos", null);
+    }
+
+    @State(Scope.Thread)
+    public static class Voter {
+        int next;
+    }
+}
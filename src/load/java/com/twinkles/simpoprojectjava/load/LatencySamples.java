@@ -0,0 +1,56 @@
+package com.twinkles.simpoprojectjava.load;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Latencies of one operation type recorded by one worker thread; merged once the run is over.
+final class LatencySamples {
+    private long[] nanos = new long[1024];
+    private int count;
+    private long errors;
+
+    void record(long latencyNanos) {
+        if (count == nanos.length) {
+            nanos = Arrays.copyOf(nanos, count * 2);
+        }
+        nanos[count++] = latencyNanos;
+    }
+
+    void error() {
+        errors++;
+    }
+
+    static Map<String, Object> summarise(Iterable<LatencySamples> samples, double elapsedSeconds) {
+        int total = 0;
+        long errors = 0;
+        for (LatencySamples sample : samples) {
+            total += sample.count;
+            errors += sample.errors;
+        }
+        long[] merged = new long[total];
+        int offset = 0;
+        for (LatencySamples sample : samples) {
+            System.arraycopy(sample.nanos, 0, merged, offset, sample.count);
+            offset += sample.count;
+        }
+        Arrays.sort(merged);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", total);
+        summary.put("errors", errors);
+        summary.put("throughputPerSecond", total / elapsedSeconds);
+        summary.put("p50Micros", percentileMicros(merged, 0.50));
+        summary.put("p99Micros", percentileMicros(merged, 0.99));
+        summary.put("p999Micros", percentileMicros(merged, 0.999));
+        summary.put("maxMicros", merged.length == 0 ? 0 : merged[merged.length - 1] / 1_000);
+        return summary;
+    }
+
+    private static long percentileMicros(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000;
+    }
+}
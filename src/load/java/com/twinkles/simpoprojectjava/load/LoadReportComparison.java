@@ -0,0 +1,65 @@
+package com.twinkles.simpoprojectjava.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Puts two VoteLoadTest reports side by side (baseline first), per operation: throughput, p50/p99/p999 and errors,
+// plus the ratio candidate / baseline. Written to target/load-comparison.json and printed.
+@Tag("load")
+@EnabledIfSystemProperty(named = "load.compare", matches = ".+,.+")
+public class LoadReportComparison {
+    private static final String[] METRICS = {"throughputPerSecond", "p50Micros", "p99Micros", "p999Micros", "errors"};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void compareReports() throws IOException {
+        String[] files = System.getProperty("load.compare").split(",");
+        assertEquals(2, files.length, "-Dload.compare=<baseline.json>,<candidate.json>");
+        JsonNode baseline = objectMapper.readTree(new File(files[0].trim()));
+        JsonNode candidate = objectMapper.readTree(new File(files[1].trim()));
+
+        ObjectNode comparison = objectMapper.createObjectNode();
+        comparison.set("baseline", baseline.get("configuration"));
+        comparison.set("candidate", candidate.get("configuration"));
+        ObjectNode operations = comparison.putObject("operations");
+        StringBuilder table = new StringBuilder(String.format("%-10s %-20s %14s %14s %8s%n",
+                "operation", "metric", "baseline", "candidate", "ratio"));
+        Iterator<Map.Entry<String, JsonNode>> baselineOperations = baseline.get("operations").fields();
+        while (baselineOperations.hasNext()) {
+            Map.Entry<String, JsonNode> operation = baselineOperations.next();
+            JsonNode candidateOperation = candidate.get("operations").get(operation.getKey());
+            if (candidateOperation == null) {
+                continue;
+            }
+            ObjectNode metrics = operations.putObject(operation.getKey());
+            for (String metric : METRICS) {
+                double before = operation.getValue().path(metric).asDouble();
+                double after = candidateOperation.path(metric).asDouble();
+                double ratio = before == 0 ? 0 : after / before;
+                ObjectNode row = metrics.putObject(metric);
+                row.put("baseline", before);
+                row.put("candidate", after);
+                row.put("ratio", ratio);
+                table.append(String.format("%-10s %-20s %14.1f %14.1f %8.2f%n", operation.getKey(), metric, before, after, ratio));
+            }
+        }
+
+        System.out.print(table);
+        File output = new File(System.getProperty("load.comparison-report", "target/load-comparison.json"));
+        output.getParentFile().mkdirs();
+        objectMapper.writer().with(SerializationFeature.INDENT_OUTPUT).writeValue(output, comparison);
+    }
+}
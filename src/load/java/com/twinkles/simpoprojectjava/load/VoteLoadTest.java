@@ -0,0 +1,504 @@
+package com.twinkles.simpoprojectjava.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.twinkles.simpoprojectjava.config.IngestionMode;
+import com.twinkles.simpoprojectjava.config.ThreadMode;
+import com.twinkles.simpoprojectjava.dtos.responses.BulkImportResponse;
+import com.twinkles.simpoprojectjava.model.AppUser;
+import com.twinkles.simpoprojectjava.model.Candidate;
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.repository.CandidateRepository;
+import com.twinkles.simpoprojectjava.service.BvnProvider;
+import com.twinkles.simpoprojectjava.service.ReactiveBvnProvider;
+import com.twinkles.simpoprojectjava.service.VoteTallyEngine;
+import com.twinkles.simpoprojectjava.service.VoterImportService;
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import de.flapdoodle.embed.mongo.MongodStarter;
+import de.flapdoodle.embed.mongo.config.MongodConfig;
+import de.flapdoodle.embed.mongo.config.Net;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.process.runtime.Network;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.core.publisher.Mono;
+import redis.embedded.RedisServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Boots the whole application against an embedded mongod, an embedded Kafka broker and an embedded Redis, drives a
+// mix of register / vote / view traffic through the HTTP API and writes a JSON report with latency percentiles,
+// throughput and the correctness checks (tallies == accepted votes, no voter counted twice in a category).
+//
+// Tuned with system properties, e.g.
+//   mvn -Pload-test test -Dload.duration-seconds=60 -Dload.concurrency=64 -Dload.mix=register=5,vote=85,view=10
+//   -Dvote.ingestion.mode=LEDGER or -Dvote.tally.mode=REDIS select the pipeline under test (REDIS needs DIRECT).
+// Platform against virtual threads (Java 21) at the same offered concurrency, then compare the two reports:
+//   mvn -Pload-test,java21 test -Dvote.threads.mode=PLATFORM -Dload.concurrency=1000 -Dload.report=target/load-platform.json
+//   mvn -Pload-test,java21 test -Dvote.threads.mode=VIRTUAL -Dload.concurrency=1000 -Dload.report=target/load-virtual.json
+// MVC against WebFlux the same way, with -Dspring.main.web-application-type=servlet|reactive.
+//   mvn -Pload-test test -Dtest=LoadReportComparison -Dload.compare=target/load-platform.json,target/load-virtual.json
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.mongo.embedded.EmbeddedMongoAutoConfiguration",
+        "vote.kafka.partitions=3",
+        "vote.password.bcrypt-strength=4",
+        "vote.session.secret=load-test-secret",
+        "vote.admin.token=load-test-admin"
+})
+@EmbeddedKafka(partitions = 3, topics = {"vote-casting-topic", "vote-casting-topic.DLT"})
+public class VoteLoadTest {
+    private static final VoteCategory[] CATEGORIES = VoteCategory.values();
+    private static final Party[] PARTIES = Party.values();
+    private static final String PASSWORD = "load-test-password";
+    private static final Map<VoteCategory, String> VOTE_PATHS = new EnumMap<>(VoteCategory.class);
+    private static final Map<VoteCategory, String> VIEW_PATHS = new EnumMap<>(VoteCategory.class);
+
+    static {
+        VOTE_PATHS.put(VoteCategory.PRESIDENCY, "presidency/vote");
+        VOTE_PATHS.put(VoteCategory.GOVERNORSHIP, "governorship/vote");
+        VOTE_PATHS.put(VoteCategory.HOUSE_OF_ASSEMBLY, "house0fassembly/vote");
+        VOTE_PATHS.put(VoteCategory.HOUSE_OF_REPRESENTATIVE, "houseofrep/vote");
+        VOTE_PATHS.put(VoteCategory.SENATE, "senate/vote");
+        VIEW_PATHS.put(VoteCategory.PRESIDENCY, "presidential/view");
+        VIEW_PATHS.put(VoteCategory.GOVERNORSHIP, "governorship/view");
+        VIEW_PATHS.put(VoteCategory.HOUSE_OF_ASSEMBLY, "houseofassembly/view");
+        VIEW_PATHS.put(VoteCategory.HOUSE_OF_REPRESENTATIVE, "houseofrepresentative/view");
+        VIEW_PATHS.put(VoteCategory.SENATE, "senate/view");
+    }
+
+    private static MongodExecutable mongodExecutable;
+    private static RedisServer redisServer;
+    private static int mongoPort;
+    private static int redisPort;
+
+    private final int durationSeconds = Integer.getInteger("load.duration-seconds", 30);
+    private final int concurrency = Integer.getInteger("load.concurrency", 32);
+    private final int voters = Integer.getInteger("load.voters", 5_000);
+    private final double duplicateRatio = Double.parseDouble(System.getProperty("load.duplicate-ratio", "0.05"));
+    private final Map<String, Integer> mix = parseMix(System.getProperty("load.mix", "register=5,vote=80,view=15"));
+    private final File reportFile = new File(System.getProperty("load.report", "target/load-report.json"));
+
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final AtomicLong voteCursor = new AtomicLong();
+    private final AtomicLong registrations = new AtomicLong();
+    private final Map<Integer, String> sessionTokens = new ConcurrentHashMap<>();
+    private final Set<Long> acceptedBallots = ConcurrentHashMap.newKeySet();
+    private final LongAdder[] expectedTallies = newCounters(CATEGORIES.length * PARTIES.length);
+    private final LongAdder doubleVotesAccepted = new LongAdder();
+    private final LongAdder duplicateAttempts = new LongAdder();
+    private final LongAdder overloaded = new LongAdder();
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${vote.ingestion.mode:DIRECT}")
+    private IngestionMode ingestionMode;
+
+    @Value("${spring.main.web-application-type:servlet}")
+    private String webApplicationType;
+
+    @Value("${vote.threads.mode:PLATFORM}")
+    private ThreadMode threadMode;
+
+    @Value("${server.tomcat.threads.max:200}")
+    private int tomcatMaxThreads;
+
+    @Autowired
+    private CandidateRepository candidateRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private VoteTallyEngine voteTallyEngine;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private VoterImportService voterImportService;
+
+    @TestConfiguration
+    static class StubBvnProvider {
+        @Bean
+        @Primary
+        BvnProvider stubBvnProvider() {
+            return bvn -> "{\"status\":\"success\",\"message\":\"BVN details fetched\",\"data\":{\"bvn\":\"" + bvn
+                    + "\",\"first_name\":\"Load\",\"last_name\":\"Tester\",\"gender\":\"MALE\",\"nationality\":\"Nigerian\"}}";
+        }
+
+        @Bean
+        @Primary
+        @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+        ReactiveBvnProvider stubReactiveBvnProvider(BvnProvider stubBvnProvider) {
+            return bvn -> Mono.fromCallable(() -> stubBvnProvider.validate(bvn));
+        }
+    }
+
+    @BeforeAll
+    static void startInfrastructure() throws IOException {
+        mongoPort = freePort();
+        mongodExecutable = MongodStarter.getDefaultInstance().prepare(MongodConfig.builder()
+                .version(Version.Main.V5_0)
+                .net(new Net("localhost", mongoPort, Network.localhostIsIPv6()))
+                .build());
+        mongodExecutable.start();
+        redisPort = freePort();
+        redisServer = new RedisServer(redisPort);
+        redisServer.start();
+    }
+
+    @AfterAll
+    static void stopInfrastructure() {
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+        if (mongodExecutable != null) {
+            mongodExecutable.stop();
+        }
+    }
+
+    @DynamicPropertySource
+    static void infrastructureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> "mongodb://localhost:" + mongoPort + "/vote-right-load");
+        registry.add("spring.redis.port", () -> redisPort);
+    }
+
+    @Test
+    void peakTraffic() throws Exception {
+        seedCandidates();
+        importVoters();
+
+        Map<String, List<LatencySamples>> samples = new ConcurrentHashMap<>();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(workers.submit(() -> {
+                Map<String, LatencySamples> mine = new LinkedHashMap<>();
+                while (System.nanoTime() < deadline) {
+                    runOperation(pickOperation(), mine);
+                }
+                mine.forEach((operation, recorded) -> samples.compute(operation, (key, merged) -> {
+                    List<LatencySamples> list = merged == null ? new ArrayList<>() : merged;
+                    list.add(recorded);
+                    return list;
+                }));
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        workers.shutdown();
+
+        boolean talliesMatch = awaitTallies();
+        boolean votedFlagsMatch = votedFlagsMatch();
+        writeReport(samples, elapsedSeconds, talliesMatch, votedFlagsMatch);
+
+        assertTrue(talliesMatch, "candidate tallies differ from accepted votes, see " + reportFile);
+        assertTrue(votedFlagsMatch, "voted flags differ from accepted votes, see " + reportFile);
+        if (ingestionMode != IngestionMode.KAFKA) {
+            assertEquals(0, doubleVotesAccepted.sum(), "a voter was accepted twice in one category");
+        }
+    }
+
+    private String pickOperation() {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int pick = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return entry.getKey();
+            }
+        }
+        return "view";
+    }
+
+    private void runOperation(String operation, Map<String, LatencySamples> samples) throws Exception {
+        switch (operation) {
+            case "register":
+                register(samples);
+                break;
+            case "vote":
+                vote(samples);
+                break;
+            default:
+                view(samples);
+        }
+    }
+
+    private void register(Map<String, LatencySamples> samples) throws Exception {
+        String bvn = String.format("3%010d", registrations.incrementAndGet());
+        HttpResponse<String> response = timed(samples, "register",
+                post("register", "{\"bvn\":\"" + bvn + "\",\"password\":\"" + PASSWORD + "\"}", null));
+        if (response.statusCode() != 200) {
+            samples.get("register").error();
+        }
+    }
+
+    // Ballots are (voter, category) pairs handed out in order; a share of attempts replays an earlier pair and must
+    // be rejected. Each pair always votes for the same party, so expected tallies are known exactly.
+    private void vote(Map<String, LatencySamples> samples) throws Exception {
+        long ballot;
+        boolean duplicate = voteCursor.get() > 0 && ThreadLocalRandom.current().nextDouble() < duplicateRatio;
+        if (duplicate) {
+            ballot = ThreadLocalRandom.current().nextLong(voteCursor.get());
+            duplicateAttempts.increment();
+        } else {
+            ballot = voteCursor.getAndIncrement();
+            if (ballot >= (long) voters * CATEGORIES.length) {
+                view(samples);
+                return;
+            }
+        }
+        int voter = (int) (ballot / CATEGORIES.length);
+        VoteCategory voteCategory = CATEGORIES[(int) (ballot % CATEGORIES.length)];
+        Party party = PARTIES[(voter + voteCategory.ordinal()) % PARTIES.length];
+        String token = sessionToken(voter, samples);
+        if (token == null) {
+            return;
+        }
+        HttpResponse<String> response = timed(samples, "vote", post(VOTE_PATHS.get(voteCategory),
+                "{\"party\":\"" + party + "\",\"voteCategory\":\"" + voteCategory + "\"}", token));
+        if (response.statusCode() == 200) {
+            if (acceptedBallots.add(ballot)) {
+                expectedTallies[voteCategory.ordinal() * PARTIES.length + party.ordinal()].increment();
+            } else {
+                // with KAFKA ingestion the replay is only dropped by the listener, so the tallies still decide
+                doubleVotesAccepted.increment();
+            }
+        } else if (response.statusCode() == 400 && response.body().contains("already cast")) {
+            // the expected answer for a replayed ballot
+        } else if (response.body().contains("try again shortly")) {
+            overloaded.increment();
+        } else {
+            samples.get("vote").error();
+        }
+    }
+
+    private String sessionToken(int voter, Map<String, LatencySamples> samples) throws Exception {
+        String token = sessionTokens.get(voter);
+        if (token != null) {
+            return token;
+        }
+        HttpResponse<String> response = timed(samples, "login",
+                post("login", "{\"bvn\":\"" + voterBvn(voter) + "\",\"password\":\"" + PASSWORD + "\"}", null));
+        if (response.statusCode() != 200) {
+            samples.get("login").error();
+            return null;
+        }
+        token = objectMapper.readTree(response.body()).get("sessionToken").asText();
+        sessionTokens.put(voter, token);
+        return token;
+    }
+
+    private void view(Map<String, LatencySamples> samples) throws Exception {
+        VoteCategory voteCategory = CATEGORIES[ThreadLocalRandom.current().nextInt(CATEGORIES.length)];
+        HttpRequest request = HttpRequest.newBuilder(uri(VIEW_PATHS.get(voteCategory))).GET().build();
+        HttpResponse<String> response = timed(samples, "view", request);
+        if (response.statusCode() != 200) {
+            samples.get("view").error();
+        }
+    }
+
+    private HttpResponse<String> timed(Map<String, LatencySamples> samples, String operation, HttpRequest request) throws Exception {
+        LatencySamples recorded = samples.computeIfAbsent(operation, key -> new LatencySamples());
+        long started = System.nanoTime();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        recorded.record(System.nanoTime() - started);
+        return response;
+    }
+
+    private HttpRequest post(String path, String body, String sessionToken) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (sessionToken != null) {
+            builder.header("X-Vote-Session", sessionToken);
+        }
+        return builder.build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + "/api/v1/vote-right/" + path);
+    }
+
+    private void seedCandidates() {
+        List<Candidate> candidates = new ArrayList<>();
+        for (VoteCategory voteCategory : CATEGORIES) {
+            for (Party party : PARTIES) {
+                candidates.add(Candidate.builder().fullName(voteCategory + " " + party)
+                        .voteCategory(voteCategory).party(party).build());
+            }
+        }
+        candidateRepository.saveAll(candidates);
+    }
+
+    private void importVoters() throws Exception {
+        StringBuilder roll = new StringBuilder();
+        for (int voter = 0; voter < voters; voter++) {
+            roll.append("{\"bvn\":\"").append(voterBvn(voter)).append("\",\"password\":\"").append(PASSWORD)
+                    .append("\",\"first_name\":\"Voter\",\"gender\":\"female\"}\n");
+        }
+        if ("reactive".equalsIgnoreCase(webApplicationType)) {
+            // bulk import has no WebFlux route; seeding is not part of what is measured
+            BulkImportResponse imported = voterImportService.importVoters(
+                    new ByteArrayInputStream(roll.toString().getBytes(StandardCharsets.UTF_8)), VoterImportService.Format.NDJSON);
+            assertEquals(voters, imported.getImported());
+            return;
+        }
+        HttpRequest request = HttpRequest.newBuilder(uri("register/bulk"))
+                .header("Content-Type", "application/x-ndjson")
+                .header("X-Vote-Admin-Token", "load-test-admin")
+                .POST(HttpRequest.BodyPublishers.ofString(roll.toString()))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        assertEquals(voters, objectMapper.readTree(response.body()).get("imported").asLong(), response.body());
+    }
+
+    // Async pipelines (ledger, Kafka, Redis checkpoints) settle after the load stops, so poll for a while.
+    private boolean awaitTallies() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (true) {
+            voteTallyEngine.flush();
+            if (talliesMatch()) {
+                return true;
+            }
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(500);
+        }
+    }
+
+    private boolean talliesMatch() {
+        for (Candidate candidate : candidateRepository.findAll()) {
+            long expected = expectedTallies[candidate.getVoteCategory().ordinal() * PARTIES.length + candidate.getParty().ordinal()].sum();
+            if (candidate.getVoteCount() != expected) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean votedFlagsMatch() {
+        for (VoteCategory voteCategory : CATEGORIES) {
+            long expected = 0;
+            for (Party party : PARTIES) {
+                expected += expectedTallies[voteCategory.ordinal() * PARTIES.length + party.ordinal()].sum();
+            }
+            long flagged = mongoTemplate.count(Query.query(Criteria.where("votedCategories").bits().allSet(voteCategory.mask())), AppUser.class);
+            if (flagged != expected) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeReport(Map<String, List<LatencySamples>> samples, double elapsedSeconds,
+                             boolean talliesMatch, boolean votedFlagsMatch) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        Map<String, Object> configuration = new LinkedHashMap<>();
+        configuration.put("durationSeconds", durationSeconds);
+        configuration.put("concurrency", concurrency);
+        configuration.put("voters", voters);
+        configuration.put("mix", mix);
+        configuration.put("duplicateRatio", duplicateRatio);
+        configuration.put("ingestionMode", ingestionMode);
+        configuration.put("tallyMode", System.getProperty("vote.tally.mode", "LOCAL"));
+        configuration.put("webApplicationType", webApplicationType);
+        configuration.put("threadMode", threadMode);
+        configuration.put("tomcatMaxThreads", threadMode == ThreadMode.VIRTUAL ? null : tomcatMaxThreads);
+        configuration.put("javaVersion", Runtime.version().toString());
+        report.put("configuration", configuration);
+        report.put("elapsedSeconds", elapsedSeconds);
+        Map<String, Object> operations = new LinkedHashMap<>();
+        samples.forEach((operation, recorded) -> operations.put(operation, LatencySamples.summarise(recorded, elapsedSeconds)));
+        report.put("operations", operations);
+        Map<String, Object> correctness = new LinkedHashMap<>();
+        correctness.put("acceptedVotes", acceptedBallots.size());
+        correctness.put("duplicateAttempts", duplicateAttempts.sum());
+        correctness.put("doubleVotesAccepted", doubleVotesAccepted.sum());
+        correctness.put("overloadedRejections", overloaded.sum());
+        correctness.put("talliesMatchAcceptedVotes", talliesMatch);
+        correctness.put("votedFlagsMatchAcceptedVotes", votedFlagsMatch);
+        report.put("correctness", correctness);
+        reportFile.getParentFile().mkdirs();
+        objectMapper.writer().with(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile, report);
+    }
+
+    private static String voterBvn(int voter) {
+        return String.format("2%010d", voter);
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] weight = part.split("=");
+            weights.put(weight[0].trim(), Integer.parseInt(weight[1].trim()));
+        }
+        return weights;
+    }
+
+    private static LongAdder[] newCounters(int size) {
+        LongAdder[] counters = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
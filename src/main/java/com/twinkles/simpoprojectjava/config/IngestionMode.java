@@ -0,0 +1,5 @@
+package com.twinkles.simpoprojectjava.config;
+
+public enum IngestionMode {
+    DIRECT, LEDGER, KAFKA
+}
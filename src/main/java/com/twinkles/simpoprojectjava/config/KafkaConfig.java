@@ -1,57 +1,174 @@
 package com.twinkles.simpoprojectjava.config;
 
-import com.fasterxml.jackson.databind.JsonSerializer;
-import com.fasterxml.jackson.databind.ser.std.StringSerializer;
-import com.twinkles.simpoprojectjava.dtos.requests.CastVoteRequest;
+import com.twinkles.simpoprojectjava.model.Vote;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.util.backoff.ExponentialBackOff;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+@EnableKafka
 @Configuration
 public class KafkaConfig {
 
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${vote.kafka.topic:vote-casting-topic}")
+    private String voteTopic;
+
+    @Value("${vote.kafka.group-id:vote-right}")
+    private String groupId;
+
+    @Value("${vote.kafka.partitions:12}")
+    private int partitions;
+
+    @Value("${vote.kafka.concurrency:3}")
+    private int concurrency;
+
+    @Value("${vote.kafka.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${vote.kafka.retry-interval-ms:1000}")
+    private long retryIntervalMs;
+
+    @Value("${vote.kafka.retry-max-interval-ms:30000}")
+    private long retryMaxIntervalMs;
+
+    @Value("${vote.kafka.retry-attempts:3}")
+    private long retryAttempts;
+
+    @Value("${vote.threads.mode:PLATFORM}")
+    private ThreadMode threadMode;
+
     @Bean
-    public ProducerFactory<String, CastVoteRequest> producerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(configProps);
+    public NewTopic voteTopic() {
+        return TopicBuilder.name(voteTopic).partitions(partitions).build();
+    }
+
+    @Bean
+    public NewTopic voteDeadLetterTopic() {
+        return TopicBuilder.name(voteTopic + ".DLT").partitions(partitions).build();
     }
 
     @Bean
-    public KafkaTemplate<String, CastVoteRequest> kafkaTemplate() {
+    public ProducerFactory<String, Vote> producerFactory() {
+        DefaultKafkaProducerFactory<String, Vote> producerFactory =
+                new DefaultKafkaProducerFactory<>(producerProps(), new StringSerializer(), new JsonSerializer<>());
+        meterRegistry.ifAvailable(registry -> producerFactory.addListener(new MicrometerProducerListener<>(registry)));
+        return producerFactory;
+    }
+
+    @Bean
+    public KafkaTemplate<String, Vote> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
 
+    // Records that failed to deserialize reach the recoverer as raw bytes, the rest as Vote.
     @Bean
-    public ConsumerFactory<String, CastVoteRequest> consumerFactory() {
+    @SuppressWarnings("rawtypes")
+    public KafkaTemplate<String, Object> deadLetterKafkaTemplate() {
+        Map<Class<?>, Serializer> serializers = new LinkedHashMap<>();
+        serializers.put(byte[].class, new ByteArraySerializer());
+        serializers.put(Vote.class, new JsonSerializer<>());
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(producerProps(), new StringSerializer(),
+                new DelegatingByTypeSerializer(serializers)));
+    }
+
+    @Bean
+    public ConsumerFactory<String, Vote> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(ConsumerConfig.GROUP_ID_CONFIG, "group_id");
-        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, org.springframework.kafka.support.serializer.JsonDeserializer.class);
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
-                new JsonDeserializer<>(CastVoteRequest.class));
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        JsonDeserializer<Vote> voteDeserializer = new JsonDeserializer<>(Vote.class, false);
+        voteDeserializer.addTrustedPackages(Vote.class.getPackageName());
+        DefaultKafkaConsumerFactory<String, Vote> consumerFactory = new DefaultKafkaConsumerFactory<>(props,
+                new StringDeserializer(), new ErrorHandlingDeserializer<>(voteDeserializer));
+        // kafka.consumer.* meters, including records-lag-max per partition
+        meterRegistry.ifAvailable(registry -> consumerFactory.addListener(new MicrometerConsumerListener<>(registry)));
+        return consumerFactory;
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, CastVoteRequest> kafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, CastVoteRequest> factory = new ConcurrentKafkaListenerContainerFactory<>();
+    public ConcurrentKafkaListenerContainerFactory<String, Vote> kafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Vote> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true);
+        factory.setConcurrency(concurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        if (threadMode == ThreadMode.VIRTUAL) {
+            // one consumer thread per container; the listener blocks on Mongo, so let it do that on a virtual thread
+            factory.getContainerProperties().setConsumerTaskExecutor(
+                    new ConcurrentTaskExecutor(VirtualThreads.newThreadPerTaskExecutor("vote-listener-vt-")));
+        }
+        factory.setCommonErrorHandler(errorHandler());
         return factory;
     }
 
+    // A batch that fails as a whole (Mongo down, primary election) is retried until it goes through: its votes
+    // are valid and dead-lettering them would drop them from the count. Only the record the listener names in a
+    // BatchListenerFailedException, an unreadable one, is dead-lettered after a few attempts.
+    private DefaultErrorHandler errorHandler() {
+        ExponentialBackOff untilMongoRecovers = new ExponentialBackOff(retryIntervalMs, 2.0);
+        untilMongoRecovers.setMaxInterval(retryMaxIntervalMs);
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(
+                new DeadLetterPublishingRecoverer(deadLetterKafkaTemplate()), untilMongoRecovers);
+        FixedBackOff poisonRecord = new FixedBackOff(retryIntervalMs, retryAttempts);
+        errorHandler.setBackOffFunction((record, ex) ->
+                causedByDataAccess(ex) ? untilMongoRecovers : poisonRecord);
+        return errorHandler;
+    }
+
+    private static boolean causedByDataAccess(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataAccessException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Map<String, Object> producerProps() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+        return configProps;
+    }
+
 }
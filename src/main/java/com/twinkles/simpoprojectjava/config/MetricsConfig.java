@@ -0,0 +1,46 @@
+package com.twinkles.simpoprojectjava.config;
+
+import com.twinkles.simpoprojectjava.service.BvnValidationClient;
+import com.twinkles.simpoprojectjava.service.VoteLedger;
+import com.twinkles.simpoprojectjava.service.VoterCredentialCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Gauges over state the components already keep; Mongo command timings (mongodb.driver.commands) and the
+// connection pool come from Spring Boot's auto-configuration, Kafka client meters from KafkaConfig.
+@Configuration
+public class MetricsConfig {
+
+    // Bound once every singleton exists rather than as a MeterBinder: binders run while the registry is created,
+    // and the registry sits under the Mongo client these components depend on.
+    @Bean
+    public SmartInitializingSingleton voteCacheMetrics(MeterRegistry registry,
+                                                       ObjectProvider<VoterCredentialCache> voterCredentialCacheProvider,
+                                                       ObjectProvider<BvnValidationClient> bvnValidationClientProvider) {
+        return () -> {
+            VoterCredentialCache voterCredentialCache = voterCredentialCacheProvider.getObject();
+            BvnValidationClient bvnValidationClient = bvnValidationClientProvider.getObject();
+            CaffeineCacheMetrics.monitor(registry, voterCredentialCache.getCache(), "voterCredentials");
+            CaffeineCacheMetrics.monitor(registry, bvnValidationClient.getCache(), "bvnValidations");
+            Gauge.builder("bvn.circuit.open", bvnValidationClient, client -> client.isOpen() ? 1 : 0)
+                    .description("1 while BVN validation is failing fast")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public SmartInitializingSingleton voteLedgerMetrics(MeterRegistry registry, ObjectProvider<VoteLedger> voteLedgerProvider) {
+        return () -> {
+            VoteLedger voteLedger = voteLedgerProvider.getObject();
+            Gauge.builder("vote.ledger.queued", voteLedger, VoteLedger::getQueuedVotes).register(registry);
+            Gauge.builder("vote.ledger.batch.size.avg", voteLedger, VoteLedger::getAverageBatchSize).register(registry);
+            Gauge.builder("vote.ledger.flush.avg.ms", voteLedger, VoteLedger::getAverageFlushMillis).register(registry);
+            Gauge.builder("vote.ledger.flushed.votes", voteLedger, VoteLedger::getFlushedVotes).register(registry);
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package com.twinkles.simpoprojectjava.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+// The connection pool is the concurrency limit in front of Mongo. The driver's default two minute wait would let
+// an unbounded number of virtual threads pile up behind it, so a request that cannot get a connection quickly fails
+// with a DataAccessResourceFailureException instead (the vote path then hands the vote to Kafka).
+@Configuration
+public class MongoClientConfig {
+
+    @Value("${vote.mongo.max-connections:100}")
+    private int maxConnections;
+
+    @Value("${vote.mongo.max-connecting:4}")
+    private int maxConnecting;
+
+    @Value("${vote.mongo.max-wait-ms:2000}")
+    private long maxWaitMs;
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPoolLimits() {
+        return builder -> builder.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(maxConnections)
+                .maxConnecting(maxConnecting)
+                .maxWaitTime(maxWaitMs, TimeUnit.MILLISECONDS));
+    }
+}
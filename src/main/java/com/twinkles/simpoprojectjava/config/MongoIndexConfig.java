@@ -0,0 +1,85 @@
+package com.twinkles.simpoprojectjava.config;
+
+import com.twinkles.simpoprojectjava.model.AppUser;
+import com.twinkles.simpoprojectjava.model.Candidate;
+import com.twinkles.simpoprojectjava.model.RegionalTally;
+import com.twinkles.simpoprojectjava.model.Vote;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+
+import javax.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Creates the indexes declared on the entities before the web server starts taking traffic,
+// then refuses to start if any of them is missing.
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class MongoIndexConfig {
+    private static final List<Class<?>> INDEXED_ENTITIES = List.of(AppUser.class, Candidate.class, RegionalTally.class, Vote.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${vote.mongo.verify-indexes:true}")
+    private boolean verifyIndexes;
+
+    @PostConstruct
+    public void createIndexes() {
+        IndexResolver indexResolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        for (Class<?> entity : INDEXED_ENTITIES) {
+            IndexOperations indexOperations = mongoTemplate.indexOps(entity);
+            dropChangedIndexes(entity, indexResolver, indexOperations);
+            for (IndexDefinition indexDefinition : indexResolver.resolveIndexFor(entity)) {
+                indexOperations.ensureIndex(indexDefinition);
+            }
+            if (verifyIndexes) {
+                verify(entity, indexResolver, indexOperations);
+            }
+        }
+    }
+
+    // ensureIndex fails when an index of the same name exists with other options, e.g. the unique AppUser
+    // indexes from before they became partial, so those are dropped here and rebuilt.
+    private void dropChangedIndexes(Class<?> entity, IndexResolver indexResolver, IndexOperations indexOperations) {
+        Map<String, Document> existing = new HashMap<>();
+        for (Document index : mongoTemplate.getCollection(mongoTemplate.getCollectionName(entity)).listIndexes()) {
+            existing.put(index.getString("name"), index);
+        }
+        for (IndexDefinition indexDefinition : indexResolver.resolveIndexFor(entity)) {
+            Document options = indexDefinition.getIndexOptions();
+            String name = (String) options.get("name");
+            Document index = existing.get(name);
+            if (index != null && !Objects.equals(options.get("partialFilterExpression"), index.get("partialFilterExpression"))) {
+                log.warn("Rebuilding Mongo index {} on {} with its new partial filter", name, entity.getSimpleName());
+                indexOperations.dropIndex(name);
+            }
+        }
+    }
+
+    private void verify(Class<?> entity, IndexResolver indexResolver, IndexOperations indexOperations) {
+        Set<String> existing = indexOperations.getIndexInfo().stream()
+                .map(IndexInfo::getName)
+                .collect(Collectors.toSet());
+        for (IndexDefinition indexDefinition : indexResolver.resolveIndexFor(entity)) {
+            String name = (String) indexDefinition.getIndexOptions().get("name");
+            if (!existing.contains(name)) {
+                throw new IllegalStateException("Missing Mongo index " + name + " on " + entity.getSimpleName());
+            }
+            log.info("Verified Mongo index {} on {}", name, entity.getSimpleName());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.twinkles.simpoprojectjava.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@Configuration
+public class PasswordConfig {
+
+    // each +1 on the strength doubles the cost of a login; votes are authorised by session token instead
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${vote.password.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+}
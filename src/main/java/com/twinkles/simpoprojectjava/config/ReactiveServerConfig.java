@@ -0,0 +1,19 @@
+package com.twinkles.simpoprojectjava.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Tomcat is on the classpath for the MVC stack and Boot would pick it for a reactive application too;
+// declaring the Netty factory keeps the reactive mode on reactor-netty's fixed set of event-loop threads
+// (one per core unless -Dreactor.netty.ioWorkerCount says otherwise).
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveServerConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
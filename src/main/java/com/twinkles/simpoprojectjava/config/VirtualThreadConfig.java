@@ -0,0 +1,28 @@
+package com.twinkles.simpoprojectjava.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+
+// Runs every Tomcat request on its own virtual thread instead of the fixed server.tomcat.threads pool.
+// Backends stay bounded by the Mongo connection pool (MongoClientConfig) and the BVN client's call limit.
+// The executor is deliberately not a bean: an Executor bean would switch off Boot's applicationTaskExecutor.
+@Configuration
+@ConditionalOnProperty(name = "vote.threads.mode", havingValue = "VIRTUAL")
+public class VirtualThreadConfig {
+    private final ExecutorService requestExecutor = VirtualThreads.newThreadPerTaskExecutor("http-vt-");
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandler() {
+        return protocolHandler -> protocolHandler.setExecutor(requestExecutor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        requestExecutor.shutdown();
+    }
+}
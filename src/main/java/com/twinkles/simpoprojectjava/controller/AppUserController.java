@@ -1,53 +1,114 @@
 package com.twinkles.simpoprojectjava.controller;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.twinkles.simpoprojectjava.dtos.requests.BallotRequest;
 import com.twinkles.simpoprojectjava.dtos.requests.CastVoteRequest;
 import com.twinkles.simpoprojectjava.dtos.requests.CreateAccountRequest;
+import com.twinkles.simpoprojectjava.dtos.requests.LoginRequest;
 import com.twinkles.simpoprojectjava.dtos.requests.ViewResultResponse;
+import com.twinkles.simpoprojectjava.dtos.responses.BallotResponse;
 import com.twinkles.simpoprojectjava.dtos.responses.CastVoteResponse;
-import com.twinkles.simpoprojectjava.dtos.responses.CreateAccountResponse;
+import com.twinkles.simpoprojectjava.dtos.responses.LoginResponse;
+import com.twinkles.simpoprojectjava.exceptions.SimpoProjectException;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
 import com.twinkles.simpoprojectjava.service.AppUserService;
+import com.twinkles.simpoprojectjava.service.RecountService;
+import com.twinkles.simpoprojectjava.service.VoterImportService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("api/v1/vote-right/")
 @RequiredArgsConstructor
 public class AppUserController {
-    private AppUserService appUserService;
+    static final String SESSION_HEADER = "X-Vote-Session";
+    static final String ADMIN_HEADER = "X-Vote-Admin-Token";
+
+    private final AppUserService appUserService;
+    private final VoterImportService voterImportService;
+    private final RecountService recountService;
+
+    // Guards the admin endpoints; left blank they refuse every request.
+    @Value("${vote.admin.token:}")
+    private String adminToken;
 
     @PostMapping("register")
-    public ResponseEntity<?> CreateAccount(@RequestBody CreateAccountRequest createAccountRequest) throws JsonProcessingException {
-        CreateAccountResponse createAccountResponse = appUserService.createAccount(createAccountRequest);
-        return ResponseEntity.status(HttpStatus.OK).body(createAccountResponse);
+    public CompletableFuture<ResponseEntity<?>> CreateAccount(@RequestBody CreateAccountRequest createAccountRequest) {
+        return appUserService.createAccount(createAccountRequest)
+                .thenApply(createAccountResponse -> ResponseEntity.status(HttpStatus.OK).body(createAccountResponse));
+    }
+
+    @PostMapping("login")
+    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
+        LoginResponse loginResponse = appUserService.login(loginRequest);
+        return ResponseEntity.status(HttpStatus.OK).body(loginResponse);
+    }
+
+    @PostMapping(value = "register/bulk", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<?> importVoters(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                          @RequestHeader(value = ADMIN_HEADER, required = false) String token,
+                                          InputStream voterRoll) {
+        checkAdmin(token);
+        VoterImportService.Format format = contentType.isCompatibleWith(MediaType.valueOf("text/csv"))
+                ? VoterImportService.Format.CSV : VoterImportService.Format.NDJSON;
+        return ResponseEntity.status(HttpStatus.OK).body(voterImportService.importVoters(voterRoll, format));
+    }
+
+    @PostMapping("recount")
+    public ResponseEntity<?> recount(@RequestHeader(value = ADMIN_HEADER, required = false) String token) {
+        checkAdmin(token);
+        return ResponseEntity.status(HttpStatus.OK).body(recountService.recount());
+    }
+
+    @PostMapping("ballot")
+    public ResponseEntity<?> castBallot(@RequestBody BallotRequest ballotRequest,
+                                        @RequestHeader(value = SESSION_HEADER, required = false) String sessionToken) {
+        BallotResponse ballotResponse = appUserService.castBallot(ballotRequest, sessionToken);
+        return ResponseEntity.status(HttpStatus.OK).body(ballotResponse);
     }
 
     @PostMapping("presidency/vote")
-    public ResponseEntity<?>  castVoteForPresidency(@RequestBody CastVoteRequest castVoteRequest)  {
-        CastVoteResponse castVoteResponse = appUserService.castVoteForPresidency(castVoteRequest);
+    public ResponseEntity<?>  castVoteForPresidency(@RequestBody CastVoteRequest castVoteRequest,
+                                            @RequestHeader(value = SESSION_HEADER, required = false) String sessionToken)  {
+        CastVoteResponse castVoteResponse = appUserService.castVoteForPresidency(castVoteRequest, sessionToken);
         return ResponseEntity.status(HttpStatus.OK).body(castVoteResponse);
     }
 
     @PostMapping("governorship/vote")
-    public ResponseEntity<?>  castVoteForGovernorship(@RequestBody CastVoteRequest castVoteRequest)  {
-        CastVoteResponse castVoteResponse = appUserService.castVoteForGovernorship(castVoteRequest);
+    public ResponseEntity<?>  castVoteForGovernorship(@RequestBody CastVoteRequest castVoteRequest,
+                                            @RequestHeader(value = SESSION_HEADER, required = false) String sessionToken)  {
+        CastVoteResponse castVoteResponse = appUserService.castVoteForGovernorship(castVoteRequest, sessionToken);
         return ResponseEntity.status(HttpStatus.OK).body(castVoteResponse);
     }
     @PostMapping("house0fassembly/vote")
-    public ResponseEntity<?>  castVoteForHouseOfAssembly(@RequestBody CastVoteRequest castVoteRequest)  {
-        CastVoteResponse castVoteResponse = appUserService.castVoteForHouseOfAssembly(castVoteRequest);
+    public ResponseEntity<?>  castVoteForHouseOfAssembly(@RequestBody CastVoteRequest castVoteRequest,
+                                            @RequestHeader(value = SESSION_HEADER, required = false) String sessionToken)  {
+        CastVoteResponse castVoteResponse = appUserService.castVoteForHouseOfAssembly(castVoteRequest, sessionToken);
         return ResponseEntity.status(HttpStatus.OK).body(castVoteResponse);
     }
     @PostMapping("houseofrep/vote")
-    public ResponseEntity<?>  castVoteForHouseOfRepresentative(@RequestBody CastVoteRequest castVoteRequest)  {
-        CastVoteResponse castVoteResponse = appUserService.castVoteForHouseOfRepresentative(castVoteRequest);
+    public ResponseEntity<?>  castVoteForHouseOfRepresentative(@RequestBody CastVoteRequest castVoteRequest,
+                                            @RequestHeader(value = SESSION_HEADER, required = false) String sessionToken)  {
+        CastVoteResponse castVoteResponse = appUserService.castVoteForHouseOfRepresentative(castVoteRequest, sessionToken);
         return ResponseEntity.status(HttpStatus.OK).body(castVoteResponse);
     }
     @PostMapping("senate/vote")
-    public ResponseEntity<?>  castVoteForSenate(@RequestBody CastVoteRequest castVoteRequest)  {
-        CastVoteResponse castVoteResponse = appUserService.castVoteForSenate(castVoteRequest);
+    public ResponseEntity<?>  castVoteForSenate(@RequestBody CastVoteRequest castVoteRequest,
+                                            @RequestHeader(value = SESSION_HEADER, required = false) String sessionToken)  {
+        CastVoteResponse castVoteResponse = appUserService.castVoteForSenate(castVoteRequest, sessionToken);
         return ResponseEntity.status(HttpStatus.OK).body(castVoteResponse);
     }
 
@@ -80,4 +141,57 @@ public class AppUserController {
         ViewResultResponse viewSenateResultInPercentageResultResponse = appUserService.viewSenateResultInPercentage();
         return ResponseEntity.status(HttpStatus.OK).body(viewSenateResultInPercentageResultResponse);
     }
+
+    @GetMapping("results/{voteCategory}/{state}")
+    public ResponseEntity<?> viewStateResult(@PathVariable String voteCategory, @PathVariable String state) {
+        ViewResultResponse viewResultResponse = appUserService.viewRegionalResult(voteCategory(voteCategory), state, null);
+        return ResponseEntity.status(HttpStatus.OK).body(viewResultResponse);
+    }
+
+    @GetMapping("results/{voteCategory}/{state}/{lga}")
+    public ResponseEntity<?> viewLgaResult(@PathVariable String voteCategory, @PathVariable String state,
+                                           @PathVariable String lga) {
+        ViewResultResponse viewResultResponse = appUserService.viewRegionalResult(voteCategory(voteCategory), state, lga);
+        return ResponseEntity.status(HttpStatus.OK).body(viewResultResponse);
+    }
+
+    @GetMapping(value = "presidential/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ViewResultResponse>> streamPresidentialResult() {
+        return ResultEvents.toEvents(appUserService.streamResult(VoteCategory.PRESIDENCY));
+    }
+
+    @GetMapping(value = "governorship/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ViewResultResponse>> streamGovernorshipResult() {
+        return ResultEvents.toEvents(appUserService.streamResult(VoteCategory.GOVERNORSHIP));
+    }
+
+    @GetMapping(value = "houseofassembly/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ViewResultResponse>> streamHouseOfAssemblyResult() {
+        return ResultEvents.toEvents(appUserService.streamResult(VoteCategory.HOUSE_OF_ASSEMBLY));
+    }
+
+    @GetMapping(value = "houseofrepresentative/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ViewResultResponse>> streamHouseOfRepresentativeResult() {
+        return ResultEvents.toEvents(appUserService.streamResult(VoteCategory.HOUSE_OF_REPRESENTATIVE));
+    }
+
+    @GetMapping(value = "senate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ViewResultResponse>> streamSenateResult() {
+        return ResultEvents.toEvents(appUserService.streamResult(VoteCategory.SENATE));
+    }
+
+    private void checkAdmin(String token) {
+        if (adminToken == null || adminToken.isBlank() || token == null
+                || !MessageDigest.isEqual(adminToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8))) {
+            throw new SimpoProjectException("This operation requires an admin token", 403);
+        }
+    }
+
+    static VoteCategory voteCategory(String name) {
+        VoteCategory voteCategory = VoteCategory.fromName(name);
+        if (voteCategory == null) {
+            throw new SimpoProjectException("Unknown vote category " + name, 400);
+        }
+        return voteCategory;
+    }
 }
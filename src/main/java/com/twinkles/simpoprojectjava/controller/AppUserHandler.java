@@ -0,0 +1,87 @@
+package com.twinkles.simpoprojectjava.controller;
+
+import com.twinkles.simpoprojectjava.dtos.requests.BallotRequest;
+import com.twinkles.simpoprojectjava.dtos.requests.CastVoteRequest;
+import com.twinkles.simpoprojectjava.dtos.requests.CreateAccountRequest;
+import com.twinkles.simpoprojectjava.dtos.requests.LoginRequest;
+import com.twinkles.simpoprojectjava.dtos.requests.ViewResultResponse;
+import com.twinkles.simpoprojectjava.exceptions.ErrorMessage;
+import com.twinkles.simpoprojectjava.exceptions.SimpoProjectException;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.service.ReactiveAppUserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+// WebFlux counterpart of AppUserController; the routes are declared in AppUserRoutes.
+@Component
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class AppUserHandler {
+    private static final ParameterizedTypeReference<ServerSentEvent<ViewResultResponse>> RESULT_EVENT =
+            new ParameterizedTypeReference<>() {};
+
+    private final ReactiveAppUserService reactiveAppUserService;
+
+    public Mono<ServerResponse> createAccount(ServerRequest request) {
+        return request.bodyToMono(CreateAccountRequest.class)
+                .flatMap(reactiveAppUserService::createAccount)
+                .flatMap(createAccountResponse -> ServerResponse.ok().bodyValue(createAccountResponse));
+    }
+
+    public Mono<ServerResponse> login(ServerRequest request) {
+        return request.bodyToMono(LoginRequest.class)
+                .flatMap(reactiveAppUserService::login)
+                .flatMap(loginResponse -> ServerResponse.ok().bodyValue(loginResponse));
+    }
+
+    public Mono<ServerResponse> castBallot(ServerRequest request) {
+        String sessionToken = request.headers().firstHeader(AppUserController.SESSION_HEADER);
+        return request.bodyToMono(BallotRequest.class)
+                .flatMap(ballotRequest -> reactiveAppUserService.castBallot(ballotRequest, sessionToken))
+                .flatMap(ballotResponse -> ServerResponse.ok().bodyValue(ballotResponse));
+    }
+
+    public Mono<ServerResponse> castVote(ServerRequest request, VoteCategory voteCategory) {
+        String sessionToken = request.headers().firstHeader(AppUserController.SESSION_HEADER);
+        return request.bodyToMono(CastVoteRequest.class)
+                .flatMap(castVoteRequest -> reactiveAppUserService.castVote(voteCategory, castVoteRequest, sessionToken))
+                .flatMap(castVoteResponse -> ServerResponse.ok().bodyValue(castVoteResponse));
+    }
+
+    public Mono<ServerResponse> viewResult(VoteCategory voteCategory) {
+        return reactiveAppUserService.viewResult(voteCategory)
+                .flatMap(viewResultResponse -> ServerResponse.ok().bodyValue(viewResultResponse));
+    }
+
+    public Mono<ServerResponse> viewRegionalResult(ServerRequest request) {
+        String lga = request.pathVariables().get("lga");
+        return Mono.fromSupplier(() -> AppUserController.voteCategory(request.pathVariable("voteCategory")))
+                .flatMap(voteCategory -> reactiveAppUserService.viewRegionalResult(voteCategory, request.pathVariable("state"), lga))
+                .flatMap(viewResultResponse -> ServerResponse.ok().bodyValue(viewResultResponse));
+    }
+
+    public Mono<ServerResponse> streamResult(VoteCategory voteCategory) {
+        return ServerResponse.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(ResultEvents.toEvents(reactiveAppUserService.streamResult(voteCategory)), RESULT_EVENT);
+    }
+
+    // Same body and status as GlobalExceptionHandler gives the MVC endpoints.
+    public Mono<ServerResponse> handleSimpoProjectException(SimpoProjectException simpoProjectException, ServerRequest request) {
+        ErrorMessage errorMessage = ErrorMessage.builder()
+                .message(simpoProjectException.getMessage())
+                .status(false)
+                .timestamp(LocalDateTime.now())
+                .build();
+        return ServerResponse.status(simpoProjectException.getStatusCode()).bodyValue(errorMessage);
+    }
+}
@@ -0,0 +1,45 @@
+package com.twinkles.simpoprojectjava.controller;
+
+import com.twinkles.simpoprojectjava.exceptions.SimpoProjectException;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+// The AppUserController paths on WebFlux, active with spring.main.web-application-type=reactive.
+// Bulk voter import stays on the MVC stack.
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class AppUserRoutes {
+
+    @Bean
+    public RouterFunction<ServerResponse> appUserRouter(AppUserHandler appUserHandler) {
+        return RouterFunctions.route()
+                .path("/api/v1/vote-right", builder -> builder
+                        .POST("/register", appUserHandler::createAccount)
+                        .POST("/login", appUserHandler::login)
+                        .POST("/ballot", appUserHandler::castBallot)
+                        .POST("/presidency/vote", request -> appUserHandler.castVote(request, VoteCategory.PRESIDENCY))
+                        .POST("/governorship/vote", request -> appUserHandler.castVote(request, VoteCategory.GOVERNORSHIP))
+                        .POST("/house0fassembly/vote", request -> appUserHandler.castVote(request, VoteCategory.HOUSE_OF_ASSEMBLY))
+                        .POST("/houseofrep/vote", request -> appUserHandler.castVote(request, VoteCategory.HOUSE_OF_REPRESENTATIVE))
+                        .POST("/senate/vote", request -> appUserHandler.castVote(request, VoteCategory.SENATE))
+                        .GET("/presidential/view", request -> appUserHandler.viewResult(VoteCategory.PRESIDENCY))
+                        .GET("/governorship/view", request -> appUserHandler.viewResult(VoteCategory.GOVERNORSHIP))
+                        .GET("/houseofassembly/view", request -> appUserHandler.viewResult(VoteCategory.HOUSE_OF_ASSEMBLY))
+                        .GET("/houseofrepresentative/view", request -> appUserHandler.viewResult(VoteCategory.HOUSE_OF_REPRESENTATIVE))
+                        .GET("/senate/view", request -> appUserHandler.viewResult(VoteCategory.SENATE))
+                        .GET("/presidential/stream", request -> appUserHandler.streamResult(VoteCategory.PRESIDENCY))
+                        .GET("/governorship/stream", request -> appUserHandler.streamResult(VoteCategory.GOVERNORSHIP))
+                        .GET("/houseofassembly/stream", request -> appUserHandler.streamResult(VoteCategory.HOUSE_OF_ASSEMBLY))
+                        .GET("/houseofrepresentative/stream", request -> appUserHandler.streamResult(VoteCategory.HOUSE_OF_REPRESENTATIVE))
+                        .GET("/senate/stream", request -> appUserHandler.streamResult(VoteCategory.SENATE))
+                        .GET("/results/{voteCategory}/{state}", appUserHandler::viewRegionalResult)
+                        .GET("/results/{voteCategory}/{state}/{lga}", appUserHandler::viewRegionalResult))
+                .onError(SimpoProjectException.class, appUserHandler::handleSimpoProjectException)
+                .build();
+    }
+}
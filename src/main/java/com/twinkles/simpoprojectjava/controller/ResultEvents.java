@@ -0,0 +1,27 @@
+package com.twinkles.simpoprojectjava.controller;
+
+import com.twinkles.simpoprojectjava.dtos.requests.ViewResultResponse;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+// Server-sent events for the live results streams, shared by the MVC controller and the WebFlux routes.
+final class ResultEvents {
+    // one shared timer keeps every idle stream alive through proxies
+    private static final Flux<ServerSentEvent<ViewResultResponse>> HEARTBEAT = Flux.interval(Duration.ofSeconds(15))
+            .map(tick -> ServerSentEvent.<ViewResultResponse>builder().comment("keep-alive").build())
+            .share();
+
+    private ResultEvents() {
+    }
+
+    static Flux<ServerSentEvent<ViewResultResponse>> toEvents(Flux<ViewResultResponse> results) {
+        Flux<ServerSentEvent<ViewResultResponse>> updates = results.map(result -> ServerSentEvent.<ViewResultResponse>builder()
+                .id(String.valueOf(result.getVersion()))
+                .event("result")
+                .data(result)
+                .build());
+        return Flux.merge(updates, HEARTBEAT);
+    }
+}
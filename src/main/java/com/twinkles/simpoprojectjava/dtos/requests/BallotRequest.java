@@ -0,0 +1,46 @@
+package com.twinkles.simpoprojectjava.dtos.requests;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Setter
+@Getter
+@NoArgsConstructor
+public class BallotRequest {
+    private String BVN;
+    private String password;
+    private Map<VoteCategory, Party> votes;
+    // set when the body names one category twice, e.g. "presidency" and "PRESIDENCY"
+    @JsonIgnore
+    private VoteCategory repeatedCategory;
+
+    public BallotRequest(String BVN, String password, Map<VoteCategory, Party> votes) {
+        this.BVN = BVN;
+        this.password = password;
+        this.votes = votes;
+    }
+
+    // Replaces the generated setter so keys are read as strings first: an enum-keyed map would silently keep only
+    // the last of two keys that name the same category. Unknown names stay as a null key for the service to reject.
+    public void setVotes(Map<String, Party> votes) {
+        if (votes == null) {
+            this.votes = null;
+            return;
+        }
+        this.votes = new LinkedHashMap<>();
+        for (Map.Entry<String, Party> vote : votes.entrySet()) {
+            VoteCategory voteCategory = VoteCategory.fromName(vote.getKey());
+            if (voteCategory != null && this.votes.containsKey(voteCategory) && repeatedCategory == null) {
+                repeatedCategory = voteCategory;
+            }
+            this.votes.putIfAbsent(voteCategory, vote.getValue());
+        }
+    }
+}
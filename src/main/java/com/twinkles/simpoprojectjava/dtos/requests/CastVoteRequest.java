@@ -1,17 +1,20 @@
 package com.twinkles.simpoprojectjava.dtos.requests;
 
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+// party and voteCategory are resolved case-insensitively while the body is read; unknown names arrive as null.
 @Setter
 @Getter
 @AllArgsConstructor
 @NoArgsConstructor
 public class CastVoteRequest {
-    private String party;
-    private String VoteCategory;
+    private Party party;
+    private VoteCategory voteCategory;
     private String BVN;
     private String password;
 }
@@ -0,0 +1,30 @@
+package com.twinkles.simpoprojectjava.dtos.requests;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ImportVoterRequest {
+    @JsonProperty("bvn")
+    private String BVN;
+    private String password;
+    private String first_name;
+    private String middle_name;
+    private String last_name;
+    private String date_of_birth;
+    private String email;
+    private String phone_number;
+    private String gender;
+    private String nationality;
+    private String address;
+    private String state_of_residence;
+    private String lga_of_residence;
+}
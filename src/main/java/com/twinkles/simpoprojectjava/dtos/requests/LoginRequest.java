@@ -0,0 +1,15 @@
+package com.twinkles.simpoprojectjava.dtos.requests;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoginRequest {
+    private String BVN;
+    private String password;
+}
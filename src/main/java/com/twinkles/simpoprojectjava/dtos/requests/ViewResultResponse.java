@@ -13,4 +13,7 @@ import java.util.Map;
 @NoArgsConstructor
 public class ViewResultResponse {
     Map<String, String> result;
+    Map<String, Long> counts;
+    long totalVotes;
+    long version;
 }
@@ -0,0 +1,18 @@
+package com.twinkles.simpoprojectjava.dtos.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BallotResponse {
+    private String message;
+    private List<String> accepted;
+    private List<String> alreadyVoted;
+}
@@ -0,0 +1,20 @@
+package com.twinkles.simpoprojectjava.dtos.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkImportResponse {
+    private long rowsRead;
+    private long imported;
+    private long invalid;
+    private long duplicatesInFile;
+    private long duplicatesInDatabase;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+}
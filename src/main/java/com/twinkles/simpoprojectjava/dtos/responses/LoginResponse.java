@@ -0,0 +1,15 @@
+package com.twinkles.simpoprojectjava.dtos.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoginResponse {
+    private String sessionToken;
+    private long expiresAt;
+}
@@ -0,0 +1,37 @@
+package com.twinkles.simpoprojectjava.dtos.responses;
+
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecountReport {
+    private long votersScanned;
+    private long voteRecordsScanned;
+    private boolean consistent;
+    private List<Discrepancy> discrepancies;
+    private long elapsedMillis;
+    private double recordsPerSecond;
+
+    // VOTER_FLAGS compares a category's stored total with the voters flagged as having voted in it;
+    // VOTE_RECORDS compares one candidate's stored count with the Vote documents cast for it.
+    @Setter
+    @Getter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Discrepancy {
+        private VoteCategory voteCategory;
+        private Party party;
+        private String source;
+        private long stored;
+        private long counted;
+    }
+}
@@ -1,6 +1,7 @@
 package com.twinkles.simpoprojectjava.exceptions;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -11,6 +12,7 @@ import java.net.UnknownHostException;
 import java.time.LocalDateTime;
 
 @ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
     @ExceptionHandler(SimpoProjectException.class)
@@ -20,7 +22,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
                 .status(false)
                 .timestamp(LocalDateTime.now())
                 .build();
-        return new ResponseEntity<>(errorMessage, HttpStatus.BAD_REQUEST);
+        return new ResponseEntity<>(errorMessage, HttpStatus.valueOf(simpoProjectException.getStatusCode()));
 
     }
 
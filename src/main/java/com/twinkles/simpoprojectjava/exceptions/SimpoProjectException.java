@@ -9,4 +9,14 @@ public class SimpoProjectException extends RuntimeException{
         super(message);
         this.statusCode = statusCode;
     }
+
+    // For errors thrown on every rejected request: no stack trace is captured, so one instance can be reused.
+    private SimpoProjectException(String message, int statusCode, boolean writableStackTrace){
+        super(message, null, false, writableStackTrace);
+        this.statusCode = statusCode;
+    }
+
+    public static SimpoProjectException preallocated(String message, int statusCode){
+        return new SimpoProjectException(message, statusCode, false);
+    }
 }
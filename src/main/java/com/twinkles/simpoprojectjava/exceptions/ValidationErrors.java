@@ -0,0 +1,20 @@
+package com.twinkles.simpoprojectjava.exceptions;
+
+// Shared, stackless instances for the validation failures of the vote path.
+public final class ValidationErrors {
+    public static final SimpoProjectException INVALID_CREDENTIALS =
+            SimpoProjectException.preallocated("Incorrect BVN or Password", 400);
+    public static final SimpoProjectException INVALID_VOTE_CATEGORY =
+            SimpoProjectException.preallocated("Invalid vote category", 400);
+    public static final SimpoProjectException INVALID_PARTY =
+            SimpoProjectException.preallocated("Incorrect party name", 400);
+    public static final SimpoProjectException NO_CANDIDATE =
+            SimpoProjectException.preallocated("No candidate found!", 400);
+    public static final SimpoProjectException ALREADY_VOTED =
+            SimpoProjectException.preallocated("You have already cast your vote for your preferred candidate", 400);
+    public static final SimpoProjectException EMPTY_BALLOT =
+            SimpoProjectException.preallocated("Ballot has no votes", 400);
+
+    private ValidationErrors() {
+    }
+}
@@ -2,6 +2,7 @@ package com.twinkles.simpoprojectjava.model;
 
 import lombok.Builder;
 import lombok.Data;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(value = "AppUser")
@@ -13,7 +14,10 @@ public class AppUser {
     private String middle_name;
     private String last_name;
     private String date_of_birth;
+    // partial, so documents without a BVN or username (candidate records) do not collide on null
+    @Indexed(name = "bvn", unique = true, partialFilter = "{ 'BVN': { $exists: true } }")
     private String BVN;
+    @Indexed(name = "username", unique = true, partialFilter = "{ 'username': { $exists: true } }")
     private String username;
     private String address;
     private String email;
@@ -22,10 +26,10 @@ public class AppUser {
     private String profileImageUrl;
     private String password;
     private String nationality;
-    private boolean hasVotedForPresident;
-    private boolean hasVotedForGovernor;
-    private boolean hasVotedForHouseOfRepMember;
-    private boolean hasVotedForSenateMember;
-    private boolean hasVotedForHouseOfAssemblyMember;
+    // one VoteCategory.mask() bit per category the user has voted in
+    private int votedCategories;
+    // state and LGA of residence, normalised with Constituency.normalise
+    private String state;
+    private String lga;
 
 }
@@ -2,9 +2,13 @@ package com.twinkles.simpoprojectjava.model;
 
 import lombok.Builder;
 import lombok.Data;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
-@Document(value = "AppUser")
+import java.util.Map;
+
+@Document(value = "Candidate")
+@CompoundIndex(name = "vote_category_party", def = "{'voteCategory': 1, 'party': 1}", unique = true)
 @Data
 @Builder
 public class Candidate {
@@ -13,4 +17,6 @@ public class Candidate {
     private Party party;
     private VoteCategory voteCategory;
     private long voteCount;
+    // vote event log id -> votes that log has flushed into voteCount; see CandidateRepositoryCustom
+    private Map<String, Long> flushedBy;
 }
@@ -0,0 +1,39 @@
+package com.twinkles.simpoprojectjava.model;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.util.Locale;
+
+// Where a voter is counted: the state and LGA of residence from their BVN record, normalised so the same place
+// always produces the same tally key. Voters registered before this was recorded are counted under UNKNOWN.
+@Getter
+@EqualsAndHashCode
+public final class Constituency {
+    public static final String UNKNOWN_PLACE = "UNKNOWN";
+    public static final Constituency UNKNOWN = new Constituency(UNKNOWN_PLACE, UNKNOWN_PLACE);
+
+    private final String state;
+    private final String lga;
+
+    private Constituency(String state, String lga) {
+        this.state = state;
+        this.lga = lga;
+    }
+
+    public static Constituency of(String state, String lga) {
+        String normalisedState = normalise(state);
+        String normalisedLga = normalise(lga);
+        if (UNKNOWN_PLACE.equals(normalisedState) && UNKNOWN_PLACE.equals(normalisedLga)) {
+            return UNKNOWN;
+        }
+        return new Constituency(normalisedState, normalisedLga);
+    }
+
+    public static String normalise(String place) {
+        if (place == null || place.isBlank()) {
+            return UNKNOWN_PLACE;
+        }
+        return place.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -1,12 +1,28 @@
 package com.twinkles.simpoprojectjava.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import lombok.Getter;
 
 @Getter
 public enum Party {
     PDP("PDP"), APC("APC"), LP("LP"), NNPP("NNPP"), ACN("ACN"), CPP("CPP"), CPC("CPC");
+    private static final Party[] VALUES = values();
     private final String name;
     Party(String name){
         this.name = name;
     }
+
+    // Case-insensitive and allocation-free; returns null for unknown names so callers choose the error.
+    @JsonCreator
+    public static Party fromName(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (Party party : VALUES) {
+            if (party.name.equalsIgnoreCase(name)) {
+                return party;
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,21 @@
+package com.twinkles.simpoprojectjava.model;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// A party's votes in one category and LGA. State totals are rolled up from these in memory by ConstituencyTally;
+// national totals stay on Candidate.voteCount.
+@Document(value = "RegionalTally")
+@CompoundIndex(name = "vote_category_state_lga_party", def = "{'voteCategory': 1, 'state': 1, 'lga': 1, 'party': 1}", unique = true)
+@Data
+@Builder
+public class RegionalTally {
+    private String id;
+    private VoteCategory voteCategory;
+    private String state;
+    private String lga;
+    private Party party;
+    private long voteCount;
+}
@@ -0,0 +1,26 @@
+package com.twinkles.simpoprojectjava.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Document(value = "Vote")
+@CompoundIndex(name = "bvn_vote_category", def = "{'BVN': 1, 'voteCategory': 1}", unique = true)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Vote {
+    private String id;
+    private String BVN;
+    private VoteCategory voteCategory;
+    private Party party;
+    private LocalDateTime castAt;
+    private String state;
+    private String lga;
+}
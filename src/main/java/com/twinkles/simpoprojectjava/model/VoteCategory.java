@@ -1,5 +1,27 @@
 package com.twinkles.simpoprojectjava.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+
 public enum VoteCategory {
     PRESIDENCY, GOVERNORSHIP, HOUSE_OF_REPRESENTATIVE, SENATE, HOUSE_OF_ASSEMBLY;
+
+    private static final VoteCategory[] VALUES = values();
+
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    // Case-insensitive and allocation-free; returns null for unknown names so callers choose the error.
+    @JsonCreator
+    public static VoteCategory fromName(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (VoteCategory voteCategory : VALUES) {
+            if (voteCategory.name().equalsIgnoreCase(name)) {
+                return voteCategory;
+            }
+        }
+        return null;
+    }
 }
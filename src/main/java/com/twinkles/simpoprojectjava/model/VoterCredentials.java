@@ -0,0 +1,26 @@
+package com.twinkles.simpoprojectjava.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// The slice of an AppUser the voting path needs; votedCategories holds one VoteCategory.mask() bit per category voted in.
+@Getter
+@AllArgsConstructor
+public class VoterCredentials {
+    private final String BVN;
+    private final String password;
+    private final int votedCategories;
+    private final Constituency constituency;
+
+    public VoterCredentials(String BVN, String password, int votedCategories) {
+        this(BVN, password, votedCategories, Constituency.UNKNOWN);
+    }
+
+    public boolean hasVotedFor(VoteCategory voteCategory) {
+        return (votedCategories & voteCategory.mask()) != 0;
+    }
+
+    public VoterCredentials withVoted(VoteCategory voteCategory) {
+        return new VoterCredentials(BVN, password, votedCategories | voteCategory.mask(), constituency);
+    }
+}
@@ -5,7 +5,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface AppUserRepository extends MongoRepository<AppUser, String> {
+public interface AppUserRepository extends MongoRepository<AppUser, String>, AppUserRepositoryCustom {
     boolean existsAppUserByBVN(String bvn);
 
     boolean existsAppUserByUsername(String username);
@@ -0,0 +1,26 @@
+package com.twinkles.simpoprojectjava.repository;
+
+import com.twinkles.simpoprojectjava.model.AppUser;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.model.VoterCredentials;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface AppUserRepositoryCustom {
+    VoterCredentials findCredentialsByBVN(String bvn);
+
+    boolean markVoted(String bvn, VoteCategory voteCategory);
+
+    int markVoted(String bvn, int categoryMask);
+
+    long migrateLegacyVotedFlags();
+
+    long moveLegacyCandidates();
+
+    int insertNew(List<AppUser> appUsers);
+
+    void updatePassword(String bvn, String password);
+
+    long forEachVotedCategoriesBatch(int batchSize, Consumer<int[]> batchConsumer);
+}
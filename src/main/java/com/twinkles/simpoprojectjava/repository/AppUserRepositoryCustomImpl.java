@@ -0,0 +1,184 @@
+package com.twinkles.simpoprojectjava.repository;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.twinkles.simpoprojectjava.model.AppUser;
+import com.twinkles.simpoprojectjava.model.Constituency;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.model.VoterCredentials;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+@Slf4j
+@RequiredArgsConstructor
+public class AppUserRepositoryCustomImpl implements AppUserRepositoryCustom {
+    private static final int DUPLICATE_KEY = 11000;
+    private static final String VOTED_CATEGORIES = "votedCategories";
+    // only candidates have one; they were stored in AppUser before they got their own collection
+    private static final String VOTE_CATEGORY = "voteCategory";
+    private static final Map<VoteCategory, String> LEGACY_VOTED_FLAGS = new EnumMap<>(VoteCategory.class);
+
+    static {
+        LEGACY_VOTED_FLAGS.put(VoteCategory.PRESIDENCY, "hasVotedForPresident");
+        LEGACY_VOTED_FLAGS.put(VoteCategory.GOVERNORSHIP, "hasVotedForGovernor");
+        LEGACY_VOTED_FLAGS.put(VoteCategory.HOUSE_OF_REPRESENTATIVE, "hasVotedForHouseOfRepMember");
+        LEGACY_VOTED_FLAGS.put(VoteCategory.SENATE, "hasVotedForSenateMember");
+        LEGACY_VOTED_FLAGS.put(VoteCategory.HOUSE_OF_ASSEMBLY, "hasVotedForHouseOfAssemblyMember");
+    }
+
+    private final MongoTemplate mongoTemplate;
+
+    // Loads only the fields needed to authenticate a voter instead of the whole document.
+    @Override
+    public VoterCredentials findCredentialsByBVN(String bvn) {
+        Query query = Query.query(Criteria.where("BVN").is(bvn));
+        query.fields().include("BVN", "password", VOTED_CATEGORIES, "state", "lga");
+        Document document = mongoTemplate.findOne(query, Document.class, "AppUser");
+        if (document == null) {
+            return null;
+        }
+        return new VoterCredentials(document.getString("BVN"), document.getString("password"),
+                votedCategories(document),
+                Constituency.of(document.getString("state"), document.getString("lga")));
+    }
+
+    // Sets the category bit only if it is still clear; exactly one of any concurrent callers wins.
+    @Override
+    public boolean markVoted(String bvn, VoteCategory voteCategory) {
+        Query query = Query.query(Criteria.where("BVN").is(bvn).orOperator(
+                Criteria.where(VOTED_CATEGORIES).exists(false),
+                Criteria.where(VOTED_CATEGORIES).bits().allClear(voteCategory.mask())));
+        Update update = new Update().bitwise(VOTED_CATEGORIES).or(voteCategory.mask());
+        return mongoTemplate.updateFirst(query, update, AppUser.class).getModifiedCount() == 1;
+    }
+
+    // Sets every bit of categoryMask in one atomic update and returns the mask as it was before, so the caller can
+    // tell which categories this call actually claimed. Returns -1 (every bit set) if the voter does not exist.
+    @Override
+    public int markVoted(String bvn, int categoryMask) {
+        Query query = Query.query(Criteria.where("BVN").is(bvn));
+        query.fields().include(VOTED_CATEGORIES);
+        Update update = new Update().bitwise(VOTED_CATEGORIES).or(categoryMask);
+        Document previous = mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(false),
+                Document.class, "AppUser");
+        return previous == null ? -1 : votedCategories(previous);
+    }
+
+    // Folds the hasVotedFor* booleans of documents written before votedCategories existed into the bitmask.
+    @Override
+    public long migrateLegacyVotedFlags() {
+        long migrated = 0;
+        for (Map.Entry<VoteCategory, String> flag : LEGACY_VOTED_FLAGS.entrySet()) {
+            Update update = new Update().bitwise(VOTED_CATEGORIES).or(flag.getKey().mask()).unset(flag.getValue());
+            migrated += mongoTemplate.updateMulti(Query.query(Criteria.where(flag.getValue()).is(true)), update, AppUser.class)
+                    .getModifiedCount();
+        }
+        Update unsetFalseFlags = new Update();
+        LEGACY_VOTED_FLAGS.values().forEach(unsetFalseFlags::unset);
+        mongoTemplate.updateMulti(Query.query(new Criteria().orOperator(LEGACY_VOTED_FLAGS.values().stream()
+                .map(flag -> Criteria.where(flag).exists(true)).toArray(Criteria[]::new))), unsetFalseFlags, AppUser.class);
+        return migrated;
+    }
+
+    // Copies every candidate still stored in AppUser into Candidate, then removes it from AppUser. The copy is a
+    // $setOnInsert upsert on the same _id, so a rerun after a crash between the two steps neither duplicates the
+    // candidate nor overwrites counts it has gathered since. A candidate whose category and party are already taken
+    // in Candidate stays in AppUser for an operator to resolve. Returns how many were moved.
+    @Override
+    public long moveLegacyCandidates() {
+        long moved = 0;
+        for (Document candidate : mongoTemplate.find(Query.query(Criteria.where(VOTE_CATEGORY).exists(true)), Document.class, "AppUser")) {
+            Query byId = Query.query(Criteria.where("_id").is(candidate.remove("_id")));
+            Update copy = new Update();
+            candidate.forEach(copy::setOnInsert);
+            try {
+                mongoTemplate.upsert(byId, copy, "Candidate");
+            } catch (DuplicateKeyException ex) {
+                log.warn("Candidate {} {} already exists in Candidate, leaving the AppUser copy in place",
+                        candidate.get(VOTE_CATEGORY), candidate.get("party"));
+                continue;
+            }
+            mongoTemplate.remove(byId, "AppUser");
+            moved++;
+        }
+        return moved;
+    }
+
+    // Unordered bulk insert; returns how many documents were written. Rows rejected by the unique
+    // BVN or username index are skipped, any other write error is rethrown.
+    @Override
+    public int insertNew(List<AppUser> appUsers) {
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AppUser.class);
+        bulkOperations.insert(appUsers);
+        try {
+            return bulkOperations.execute().getInsertedCount();
+        } catch (BulkOperationException ex) {
+            for (BulkWriteError error : ex.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw ex;
+                }
+            }
+            return ex.getResult().getInsertedCount();
+        }
+    }
+
+    @Override
+    public void updatePassword(String bvn, String password) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("BVN").is(bvn)), Update.update("password", password), AppUser.class);
+    }
+
+    // Streams every voter's votedCategories mask, with any unmigrated hasVotedFor* flags folded in, through one
+    // cursor. Only the masks are kept, packed into int[] batches that the consumer owns; returns the voter count.
+    // Candidates not yet moved out of AppUser are skipped.
+    @Override
+    public long forEachVotedCategoriesBatch(int batchSize, Consumer<int[]> batchConsumer) {
+        Query query = Query.query(Criteria.where(VOTE_CATEGORY).exists(false)).cursorBatchSize(batchSize);
+        query.fields().include(VOTED_CATEGORIES).include(LEGACY_VOTED_FLAGS.values().toArray(new String[0])).exclude("_id");
+        int[] batch = new int[batchSize];
+        int size = 0;
+        long voters = 0;
+        try (CloseableIterator<Document> documents = mongoTemplate.stream(query, Document.class, "AppUser")) {
+            while (documents.hasNext()) {
+                Document document = documents.next();
+                int mask = votedCategories(document);
+                for (Map.Entry<VoteCategory, String> flag : LEGACY_VOTED_FLAGS.entrySet()) {
+                    if (Boolean.TRUE.equals(document.getBoolean(flag.getValue()))) {
+                        mask |= flag.getKey().mask();
+                    }
+                }
+                batch[size++] = mask;
+                voters++;
+                if (size == batchSize) {
+                    batchConsumer.accept(batch);
+                    batch = new int[batchSize];
+                    size = 0;
+                }
+            }
+        }
+        if (size > 0) {
+            batchConsumer.accept(Arrays.copyOf(batch, size));
+        }
+        return voters;
+    }
+
+    // $bit stores its operand as a 64-bit integer, so after the first vote the mask reads back as a Long.
+    static int votedCategories(Document document) {
+        Number votedCategories = document.get(VOTED_CATEGORIES, Number.class);
+        return votedCategories == null ? 0 : votedCategories.intValue();
+    }
+}
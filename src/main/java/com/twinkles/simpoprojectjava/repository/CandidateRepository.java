@@ -8,7 +8,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import java.util.List;
 
 
-public interface CandidateRepository extends MongoRepository<Candidate, String> {
+public interface CandidateRepository extends MongoRepository<Candidate, String>, CandidateRepositoryCustom {
     Candidate findCandidateByVoteCategoryAndParty(VoteCategory voteCategory,Party party);
     List<Candidate> findCandidateByVoteCategory(VoteCategory voteCategory);
 }
@@ -0,0 +1,18 @@
+package com.twinkles.simpoprojectjava.repository;
+
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+
+public interface CandidateRepositoryCustom {
+    // Adds delta only while source's flushedBy marker still reads flushedBefore, and moves the marker on by delta,
+    // so a flush replayed after it already landed changes nothing. Returns false when the marker did not match.
+    boolean incrementVoteCount(VoteCategory voteCategory, Party party, long delta, String source, long flushedBefore);
+
+    // source's flushedBy marker, or -1 when the candidate has none.
+    long flushedVoteCount(VoteCategory voteCategory, Party party, String source);
+
+    // Gives source a marker if it has none yet; returns the marker now stored, or -1 when there is no such candidate.
+    long startFlushedVoteCount(VoteCategory voteCategory, Party party, String source, long flushed);
+
+    void raiseVoteCount(VoteCategory voteCategory, Party party, long voteCount);
+}
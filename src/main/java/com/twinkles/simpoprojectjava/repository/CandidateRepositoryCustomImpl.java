@@ -0,0 +1,57 @@
+package com.twinkles.simpoprojectjava.repository;
+
+import com.twinkles.simpoprojectjava.model.Candidate;
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+@RequiredArgsConstructor
+public class CandidateRepositoryCustomImpl implements CandidateRepositoryCustom {
+    private static final String COLLECTION = "Candidate";
+    private static final String FLUSHED_BY = "flushedBy";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean incrementVoteCount(VoteCategory voteCategory, Party party, long delta, String source, long flushedBefore) {
+        String marker = FLUSHED_BY + "." + source;
+        Criteria criteria = Criteria.where("voteCategory").is(voteCategory).and("party").is(party);
+        if (flushedBefore == 0) {
+            criteria.orOperator(Criteria.where(marker).is(0L), Criteria.where(marker).exists(false));
+        } else {
+            criteria.and(marker).is(flushedBefore);
+        }
+        Update update = new Update().inc("voteCount", delta).set(marker, flushedBefore + delta);
+        return mongoTemplate.updateFirst(Query.query(criteria), update, Candidate.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public long flushedVoteCount(VoteCategory voteCategory, Party party, String source) {
+        Query query = Query.query(Criteria.where("voteCategory").is(voteCategory).and("party").is(party));
+        query.fields().include(FLUSHED_BY + "." + source);
+        Document candidate = mongoTemplate.findOne(query, Document.class, COLLECTION);
+        Document flushedBy = candidate == null ? null : candidate.get(FLUSHED_BY, Document.class);
+        Number flushed = flushedBy == null ? null : flushedBy.get(source, Number.class);
+        return flushed == null ? -1 : flushed.longValue();
+    }
+
+    @Override
+    public long startFlushedVoteCount(VoteCategory voteCategory, Party party, String source, long flushed) {
+        String marker = FLUSHED_BY + "." + source;
+        Query query = Query.query(Criteria.where("voteCategory").is(voteCategory).and("party").is(party).and(marker).exists(false));
+        mongoTemplate.updateFirst(query, new Update().set(marker, flushed), Candidate.class);
+        return flushedVoteCount(voteCategory, party, source);
+    }
+
+    // $max, so a stale or emptied source can never lower a stored count.
+    @Override
+    public void raiseVoteCount(VoteCategory voteCategory, Party party, long voteCount) {
+        Query query = Query.query(Criteria.where("voteCategory").is(voteCategory).and("party").is(party));
+        mongoTemplate.updateFirst(query, new Update().max("voteCount", voteCount), Candidate.class);
+    }
+}
@@ -0,0 +1,11 @@
+package com.twinkles.simpoprojectjava.repository;
+
+import com.twinkles.simpoprojectjava.model.AppUser;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveAppUserRepository extends ReactiveMongoRepository<AppUser, String>, ReactiveAppUserRepositoryCustom {
+    Mono<Boolean> existsAppUserByBVN(String bvn);
+}
@@ -0,0 +1,12 @@
+package com.twinkles.simpoprojectjava.repository;
+
+import com.twinkles.simpoprojectjava.model.VoterCredentials;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveAppUserRepositoryCustom {
+    Mono<VoterCredentials> findCredentialsByBVN(String bvn);
+
+    Mono<Integer> markVoted(String bvn, int categoryMask);
+
+    Mono<Void> updatePassword(String bvn, String password);
+}
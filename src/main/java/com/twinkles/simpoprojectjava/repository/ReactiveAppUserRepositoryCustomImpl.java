@@ -0,0 +1,49 @@
+package com.twinkles.simpoprojectjava.repository;
+
+import com.twinkles.simpoprojectjava.model.AppUser;
+import com.twinkles.simpoprojectjava.model.Constituency;
+import com.twinkles.simpoprojectjava.model.VoterCredentials;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+// Non-blocking counterparts of the AppUserRepositoryCustomImpl queries used on the vote path.
+@RequiredArgsConstructor
+public class ReactiveAppUserRepositoryCustomImpl implements ReactiveAppUserRepositoryCustom {
+    private static final String VOTED_CATEGORIES = "votedCategories";
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Mono<VoterCredentials> findCredentialsByBVN(String bvn) {
+        Query query = Query.query(Criteria.where("BVN").is(bvn));
+        query.fields().include("BVN", "password", VOTED_CATEGORIES, "state", "lga");
+        return reactiveMongoTemplate.findOne(query, Document.class, "AppUser")
+                .map(document -> new VoterCredentials(document.getString("BVN"), document.getString("password"),
+                        AppUserRepositoryCustomImpl.votedCategories(document),
+                        Constituency.of(document.getString("state"), document.getString("lga"))));
+    }
+
+    // Same contract as AppUserRepositoryCustomImpl.markVoted(String, int): the mask before the update, -1 if no voter.
+    @Override
+    public Mono<Integer> markVoted(String bvn, int categoryMask) {
+        Query query = Query.query(Criteria.where("BVN").is(bvn));
+        query.fields().include(VOTED_CATEGORIES);
+        Update update = new Update().bitwise(VOTED_CATEGORIES).or(categoryMask);
+        return reactiveMongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(false),
+                        Document.class, "AppUser")
+                .map(AppUserRepositoryCustomImpl::votedCategories)
+                .defaultIfEmpty(-1);
+    }
+
+    @Override
+    public Mono<Void> updatePassword(String bvn, String password) {
+        return reactiveMongoTemplate.updateFirst(Query.query(Criteria.where("BVN").is(bvn)),
+                Update.update("password", password), AppUser.class).then();
+    }
+}
@@ -0,0 +1,11 @@
+package com.twinkles.simpoprojectjava.repository;
+
+import com.twinkles.simpoprojectjava.model.Candidate;
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveCandidateRepository extends ReactiveMongoRepository<Candidate, String> {
+    Mono<Candidate> findCandidateByVoteCategoryAndParty(VoteCategory voteCategory, Party party);
+}
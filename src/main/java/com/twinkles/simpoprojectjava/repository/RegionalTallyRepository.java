@@ -0,0 +1,11 @@
+package com.twinkles.simpoprojectjava.repository;
+
+import com.twinkles.simpoprojectjava.model.RegionalTally;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+public interface RegionalTallyRepository extends MongoRepository<RegionalTally, String>, RegionalTallyRepositoryCustom {
+    List<RegionalTally> findByVoteCategory(VoteCategory voteCategory);
+}
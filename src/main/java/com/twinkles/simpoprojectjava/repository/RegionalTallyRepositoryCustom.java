@@ -0,0 +1,9 @@
+package com.twinkles.simpoprojectjava.repository;
+
+import com.twinkles.simpoprojectjava.model.RegionalTally;
+
+import java.util.List;
+
+public interface RegionalTallyRepositoryCustom {
+    int incrementVoteCounts(List<RegionalTally> deltas);
+}
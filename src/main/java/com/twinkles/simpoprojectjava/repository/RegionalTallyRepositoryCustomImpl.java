@@ -0,0 +1,38 @@
+package com.twinkles.simpoprojectjava.repository;
+
+import com.twinkles.simpoprojectjava.model.RegionalTally;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class RegionalTallyRepositoryCustomImpl implements RegionalTallyRepositoryCustom {
+    private final MongoTemplate mongoTemplate;
+
+    // Adds each delta's voteCount to its (category, state, lga, party) document, creating it if needed. The bulk is
+    // ordered, so on a write error everything before the failed delta has been applied; returns how many were. A
+    // write concern error alone carries no write errors: every upsert was applied, just not yet replicated as asked.
+    @Override
+    public int incrementVoteCounts(List<RegionalTally> deltas) {
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, RegionalTally.class);
+        for (RegionalTally delta : deltas) {
+            Query query = Query.query(Criteria.where("voteCategory").is(delta.getVoteCategory())
+                    .and("state").is(delta.getState())
+                    .and("lga").is(delta.getLga())
+                    .and("party").is(delta.getParty()));
+            bulkOperations.upsert(query, new Update().inc("voteCount", delta.getVoteCount()));
+        }
+        try {
+            bulkOperations.execute();
+            return deltas.size();
+        } catch (BulkOperationException ex) {
+            return ex.getErrors().isEmpty() ? deltas.size() : ex.getErrors().get(0).getIndex();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.twinkles.simpoprojectjava.repository;
+
+import com.twinkles.simpoprojectjava.model.Vote;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface VoteRepository extends MongoRepository<Vote, String>, VoteRepositoryCustom {
+}
@@ -0,0 +1,12 @@
+package com.twinkles.simpoprojectjava.repository;
+
+import com.twinkles.simpoprojectjava.model.Vote;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface VoteRepositoryCustom {
+    List<Vote> insertNew(List<Vote> votes);
+
+    long forEachVoteBatch(int batchSize, Consumer<int[]> batchConsumer);
+}
@@ -0,0 +1,81 @@
+package com.twinkles.simpoprojectjava.repository;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.Vote;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+public class VoteRepositoryCustomImpl implements VoteRepositoryCustom {
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+
+    // Unordered bulk insert; votes rejected by the unique (BVN, voteCategory) index are dropped from the result.
+    @Override
+    public List<Vote> insertNew(List<Vote> votes) {
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Vote.class);
+        bulkOperations.insert(votes);
+        try {
+            bulkOperations.execute();
+            return votes;
+        } catch (BulkOperationException ex) {
+            BitSet duplicates = new BitSet(votes.size());
+            for (BulkWriteError error : ex.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw ex;
+                }
+                duplicates.set(error.getIndex());
+            }
+            List<Vote> inserted = new ArrayList<>(votes.size() - duplicates.cardinality());
+            for (int i = 0; i < votes.size(); i++) {
+                if (!duplicates.get(i)) {
+                    inserted.add(votes.get(i));
+                }
+            }
+            return inserted;
+        }
+    }
+
+    // Streams every recorded vote through one cursor as voteCategory.ordinal() * Party count + party.ordinal(),
+    // packed into int[] batches that the consumer owns; returns the vote count.
+    @Override
+    public long forEachVoteBatch(int batchSize, Consumer<int[]> batchConsumer) {
+        Query query = new Query().cursorBatchSize(batchSize);
+        query.fields().include("voteCategory", "party").exclude("_id");
+        int parties = Party.values().length;
+        int[] batch = new int[batchSize];
+        int size = 0;
+        long votes = 0;
+        try (CloseableIterator<Document> documents = mongoTemplate.stream(query, Document.class, "Vote")) {
+            while (documents.hasNext()) {
+                Document document = documents.next();
+                batch[size++] = VoteCategory.valueOf(document.getString("voteCategory")).ordinal() * parties
+                        + Party.valueOf(document.getString("party")).ordinal();
+                votes++;
+                if (size == batchSize) {
+                    batchConsumer.accept(batch);
+                    batch = new int[batchSize];
+                    size = 0;
+                }
+            }
+        }
+        if (size > 0) {
+            batchConsumer.accept(Arrays.copyOf(batch, size));
+        }
+        return votes;
+    }
+}
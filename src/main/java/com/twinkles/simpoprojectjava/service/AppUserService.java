@@ -1,22 +1,33 @@
 package com.twinkles.simpoprojectjava.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.twinkles.simpoprojectjava.dtos.requests.BallotRequest;
 import com.twinkles.simpoprojectjava.dtos.requests.CastVoteRequest;
 import com.twinkles.simpoprojectjava.dtos.requests.CreateAccountRequest;
+import com.twinkles.simpoprojectjava.dtos.requests.LoginRequest;
 import com.twinkles.simpoprojectjava.dtos.requests.ViewResultResponse;
+import com.twinkles.simpoprojectjava.dtos.responses.BallotResponse;
 import com.twinkles.simpoprojectjava.dtos.responses.CastVoteResponse;
 import com.twinkles.simpoprojectjava.dtos.responses.CreateAccountResponse;
+import com.twinkles.simpoprojectjava.dtos.responses.LoginResponse;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.CompletableFuture;
 
 public interface AppUserService {
-    CreateAccountResponse createAccount(CreateAccountRequest createAccountRequest) throws JsonProcessingException;
-    CastVoteResponse castVoteForPresidency(CastVoteRequest castVoteRequest);
-    CastVoteResponse castVoteForGovernorship(CastVoteRequest castVoteRequest);
-    CastVoteResponse castVoteForHouseOfRepresentative(CastVoteRequest castVoteRequest);
-    CastVoteResponse castVoteForSenate(CastVoteRequest castVoteRequest);
-    CastVoteResponse castVoteForHouseOfAssembly(CastVoteRequest castVoteRequest);
+    CompletableFuture<CreateAccountResponse> createAccount(CreateAccountRequest createAccountRequest);
+    LoginResponse login(LoginRequest loginRequest);
+    BallotResponse castBallot(BallotRequest ballotRequest, String sessionToken);
+    CastVoteResponse castVoteForPresidency(CastVoteRequest castVoteRequest, String sessionToken);
+    CastVoteResponse castVoteForGovernorship(CastVoteRequest castVoteRequest, String sessionToken);
+    CastVoteResponse castVoteForHouseOfRepresentative(CastVoteRequest castVoteRequest, String sessionToken);
+    CastVoteResponse castVoteForSenate(CastVoteRequest castVoteRequest, String sessionToken);
+    CastVoteResponse castVoteForHouseOfAssembly(CastVoteRequest castVoteRequest, String sessionToken);
     ViewResultResponse viewPresidentialResultInPercentage();
     ViewResultResponse viewGovernorshipResultInPercentage();
     ViewResultResponse viewHouseOfRepresentativeResultInPercentage();
     ViewResultResponse viewSenateResultInPercentage();
     ViewResultResponse viewHouseOfAssemblyResultInPercentage();
+    Flux<ViewResultResponse> streamResult(VoteCategory voteCategory);
+    ViewResultResponse viewRegionalResult(VoteCategory voteCategory, String state, String lga);
 }
@@ -1,221 +1,314 @@
 package com.twinkles.simpoprojectjava.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.flutterwave.rave.java.entry.bvnValidation;
-import com.flutterwave.rave.java.payload.bvnload;
+import com.twinkles.simpoprojectjava.config.IngestionMode;
+import com.twinkles.simpoprojectjava.config.TallyMode;
+import com.twinkles.simpoprojectjava.dtos.requests.BallotRequest;
 import com.twinkles.simpoprojectjava.dtos.requests.CastVoteRequest;
 import com.twinkles.simpoprojectjava.dtos.requests.CreateAccountRequest;
+import com.twinkles.simpoprojectjava.dtos.requests.LoginRequest;
 import com.twinkles.simpoprojectjava.dtos.requests.ViewResultResponse;
+import com.twinkles.simpoprojectjava.dtos.responses.BallotResponse;
 import com.twinkles.simpoprojectjava.dtos.responses.CastVoteResponse;
 import com.twinkles.simpoprojectjava.dtos.responses.CreateAccountResponse;
-import com.twinkles.simpoprojectjava.dtos.responses.ValidateBVNResponse;
+import com.twinkles.simpoprojectjava.dtos.responses.LoginResponse;
 import com.twinkles.simpoprojectjava.exceptions.SimpoProjectException;
+import com.twinkles.simpoprojectjava.exceptions.ValidationErrors;
 import com.twinkles.simpoprojectjava.model.*;
 import com.twinkles.simpoprojectjava.repository.AppUserRepository;
-import com.twinkles.simpoprojectjava.repository.CandidateRepository;
 import com.twinkles.simpoprojectjava.utils.UtilsClass;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 
 @Service
 @RequiredArgsConstructor
 public class AppUserServiceImpl implements AppUserService{
 
-    private final KafkaTemplate<String, CastVoteRequest> kafkaTemplate;
+    private final KafkaTemplate<String, Vote> kafkaTemplate;
     private final AppUserRepository appUserRepository;
-    private final CandidateRepository candidateRepository;
     private final UtilsClass utilsClass;
+    private final VoteTallyEngine voteTallyEngine;
+    private final VoteLedger voteLedger;
+    private final ResultsView resultsView;
+    private final RedisVoteCounter redisVoteCounter;
+    private final VoterCredentialCache voterCredentialCache;
+    private final BvnValidationClient bvnValidationClient;
+    private final UsernameAllocator usernameAllocator;
+    private final VoteSessionTokens voteSessionTokens;
+    private final PasswordEncoder passwordEncoder;
+    private final VoteMetrics voteMetrics;
+
+    @Value("${vote.ingestion.mode:DIRECT}")
+    private IngestionMode ingestionMode;
+
+    @Value("${vote.tally.mode:LOCAL}")
+    private TallyMode tallyMode;
+
+    @Value("${vote.kafka.topic:vote-casting-topic}")
+    private String voteTopic;
+
+    @Value("${vote.kafka.publish-timeout-ms:5000}")
+    private long publishTimeoutMs;
 
     @Override
-    public CreateAccountResponse createAccount(CreateAccountRequest createAccountRequest) throws JsonProcessingException {
+    public CompletableFuture<CreateAccountResponse> createAccount(CreateAccountRequest createAccountRequest) {
         if (appUserRepository.existsAppUserByBVN(createAccountRequest.getBVN())){
             throw new SimpoProjectException("User with provided BVN has already registered", 400);
         }
-        ValidateBVNResponse validateBVNResponse = validateBVN(createAccountRequest.getBVN());
-        if(!validateBVNResponse.getStatus().equals("success")){
-            throw new SimpoProjectException(validateBVNResponse.getMessage(), 400);
-        }
-        AppUser appUser = buildAppUser(createAccountRequest, validateBVNResponse);
-        appUserRepository.save(appUser);
-        return new CreateAccountResponse("User profile successfully created");
+        return bvnValidationClient.validate(createAccountRequest.getBVN()).thenApply(validateBVNResponse -> {
+            if(!"success".equals(validateBVNResponse.getStatus())){
+                throw new SimpoProjectException(validateBVNResponse.getMessage(), 400);
+            }
+            AppUser appUser = utilsClass.buildAppUser(createAccountRequest, validateBVNResponse,
+                    usernameAllocator.allocate(validateBVNResponse.getData().getFirst_name()));
+            appUserRepository.save(appUser);
+            return new CreateAccountResponse("User profile successfully created");
+        });
     }
 
     @Override
-    public CastVoteResponse castVoteForPresidency(CastVoteRequest castVoteRequest) {
-        AppUser appUser = validateUserCredentials(castVoteRequest);
-        if(appUser.isHasVotedForPresident()){
-            throw new SimpoProjectException("You have already cast your vote for your preferred candidate", 400);
-        }
-        if(!VoteCategory.valueOf(castVoteRequest.getVoteCategory().toUpperCase()).equals(VoteCategory.PRESIDENCY)){
-            throw new SimpoProjectException("Invalid vote category", 400);
-        }
-        Candidate candidate = utilsClass.checkCandidateValidity(castVoteRequest);
-        candidate.setVoteCount(candidate.getVoteCount()+ 1);
-        appUser.setHasVotedForPresident(true);
-        appUserRepository.save(appUser);
-        candidateRepository.save(candidate);
+    public CastVoteResponse castVoteForPresidency(CastVoteRequest castVoteRequest, String sessionToken) {
+        castVote(castVoteRequest, sessionToken, VoteCategory.PRESIDENCY);
         return new CastVoteResponse("You have successfully casted your vote for your preferred presidential candidate");
     }
 
+    @Override
+    public CastVoteResponse castVoteForGovernorship(CastVoteRequest castVoteRequest, String sessionToken) {
+        castVote(castVoteRequest, sessionToken, VoteCategory.GOVERNORSHIP);
+        return new CastVoteResponse("You have successfully casted your vote for your preferred governorship candidate");
+    }
 
     @Override
-    public CastVoteResponse castVoteForGovernorship(CastVoteRequest castVoteRequest) {
+    public LoginResponse login(LoginRequest loginRequest) {
+        VoterCredentials voterCredentials = utilsClass.validateUserCredentials(loginRequest.getBVN(), loginRequest.getPassword());
+        if (!UtilsClass.isHashed(voterCredentials.getPassword())) {
+            appUserRepository.updatePassword(voterCredentials.getBVN(), passwordEncoder.encode(loginRequest.getPassword()));
+            voterCredentialCache.invalidate(voterCredentials.getBVN());
+        }
+        return new LoginResponse(voteSessionTokens.issue(voterCredentials), voteSessionTokens.expiresAt());
+    }
+
+    // One authentication and, in the default DIRECT/LOCAL mode, one atomic AppUser update for the whole ballot.
+    @Override
+    public BallotResponse castBallot(BallotRequest ballotRequest, String sessionToken) {
+        long start = System.nanoTime();
         try {
-            AppUser appUser = validateUserCredentials(castVoteRequest);
-            if(appUser.isHasVotedForGovernor()){
-                throw new SimpoProjectException("You have already cast your vote for your preferred candidate", 400);
+            BallotResponse ballotResponse = recordBallot(ballotRequest, sessionToken);
+            voteMetrics.ballotAccepted(start);
+            return ballotResponse;
+        } catch (SimpoProjectException ex) {
+            voteMetrics.ballotRejected(start, ex);
+            throw ex;
+        }
+    }
+
+    private BallotResponse recordBallot(BallotRequest ballotRequest, String sessionToken) {
+        if (ballotRequest.getVotes() == null || ballotRequest.getVotes().isEmpty()) {
+            throw ValidationErrors.EMPTY_BALLOT;
+        }
+        if (ballotRequest.getRepeatedCategory() != null) {
+            throw new SimpoProjectException("Ballot has more than one vote for " + ballotRequest.getRepeatedCategory(), 400);
+        }
+        VoterCredentials voterCredentials = authenticate(ballotRequest.getBVN(), ballotRequest.getPassword(), sessionToken);
+        List<Candidate> candidates = new ArrayList<>(ballotRequest.getVotes().size());
+        for (Map.Entry<VoteCategory, Party> vote : ballotRequest.getVotes().entrySet()) {
+            candidates.add(utilsClass.checkCandidateValidity(vote.getKey(), vote.getValue()));
+        }
+        int acceptedMask = recordBallot(voterCredentials, candidates);
+        List<String> accepted = new ArrayList<>();
+        List<String> alreadyVoted = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            (((acceptedMask & candidate.getVoteCategory().mask()) != 0) ? accepted : alreadyVoted).add(candidate.getVoteCategory().name());
+        }
+        String message = accepted.isEmpty() ? "You have already cast your vote in every category on this ballot"
+                : "You have successfully casted your ballot";
+        return new BallotResponse(message, accepted, alreadyVoted);
+    }
+
+    // The per-category endpoints are single-vote ballots.
+    private void castVote(CastVoteRequest castVoteRequest, String sessionToken, VoteCategory voteCategory) {
+        long start = System.nanoTime();
+        try {
+            VoterCredentials voterCredentials = authenticate(castVoteRequest.getBVN(), castVoteRequest.getPassword(), sessionToken);
+            if(castVoteRequest.getVoteCategory() != voteCategory){
+                throw ValidationErrors.INVALID_VOTE_CATEGORY;
             }
-            if(!VoteCategory.valueOf(castVoteRequest.getVoteCategory().toUpperCase()).equals(VoteCategory.GOVERNORSHIP)){
-                throw new SimpoProjectException("Invalid vote category", 400);
+            Candidate candidate = utilsClass.checkCandidateValidity(voteCategory, castVoteRequest.getParty());
+            if (recordBallot(voterCredentials, Collections.singletonList(candidate)) == 0) {
+                throw ValidationErrors.ALREADY_VOTED;
             }
-            Candidate candidate = utilsClass.checkCandidateValidity(castVoteRequest);
-            candidate.setVoteCount(candidate.getVoteCount()+ 1);
-            appUser.setHasVotedForGovernor(true);
-            appUserRepository.save(appUser);
-            candidateRepository.save(candidate);
-            return new CastVoteResponse("You have successfully casted your vote for your preferred governorship candidate");
-        } catch (Exception ex) {
-            // If an error occurs, publish the message to the Kafka topic
-            String topicName = "vote-casting-topic";
-            kafkaTemplate.send(topicName, castVoteRequest);
-            throw new SimpoProjectException("An error occurred while processing your request, please try again later", 500);
+        } catch (SimpoProjectException ex) {
+            voteMetrics.voteRejected(voteCategory, start, ex);
+            throw ex;
+        }
+        voteMetrics.voteAccepted(voteCategory, start);
+    }
+
+    // With a session token the password hash is skipped entirely; without one the request must carry BVN and password.
+    private VoterCredentials authenticate(String bvn, String password, String sessionToken) {
+        if (sessionToken == null) {
+            return utilsClass.validateUserCredentials(bvn, password);
+        }
+        VoterCredentials voterCredentials = voteSessionTokens.verify(sessionToken);
+        if (bvn != null && !bvn.equals(voterCredentials.getBVN())) {
+            throw new SimpoProjectException("Voting session does not belong to this BVN", 401);
         }
+        return voterCredentials;
     }
 
-    private AppUser validateUserCredentials(CastVoteRequest castVoteRequest) {
-        AppUser appUser = appUserRepository.findUserByBVN(castVoteRequest.getBVN());
-        if(appUser == null || !appUser.getPassword().equals(castVoteRequest.getPassword())){
-            throw new SimpoProjectException("Incorrect BVN or Password", 400);
+    // Returns the VoteCategory.mask() bits of the candidates whose votes were accepted.
+    private int recordBallot(VoterCredentials voterCredentials, List<Candidate> candidates) {
+        int requested = 0;
+        for (Candidate candidate : candidates) {
+            if (!voterCredentials.hasVotedFor(candidate.getVoteCategory())) {
+                requested |= candidate.getVoteCategory().mask();
+            }
+        }
+        if (requested == 0) {
+            return 0;
+        }
+        int accepted = 0;
+        if (ingestionMode == IngestionMode.DIRECT && tallyMode == TallyMode.LOCAL) {
+            int previous;
+            try {
+                previous = appUserRepository.markVoted(voterCredentials.getBVN(), requested);
+            } catch (DataAccessException ex) {
+                // Mongo is unavailable: hand the votes to Kafka so the listener can apply them once it recovers
+                // the listener only counts a vote whose bit it sets itself, in case this update did reach Mongo
+                for (Candidate candidate : candidates) {
+                    if ((requested & candidate.getVoteCategory().mask()) != 0) {
+                        publish(buildVote(voterCredentials, candidate));
+                        voteMetrics.kafkaFallback();
+                    }
+                }
+                return requested;
+            }
+            accepted = requested & ~previous;
+            for (Candidate candidate : candidates) {
+                if ((accepted & candidate.getVoteCategory().mask()) != 0) {
+                    voteTallyEngine.record(voterCredentials.getBVN(), voterCredentials.getConstituency(),
+                            candidate.getVoteCategory(), candidate.getParty());
+                }
+            }
+        } else {
+            for (Candidate candidate : candidates) {
+                if ((requested & candidate.getVoteCategory().mask()) != 0 && recordVote(voterCredentials, candidate)) {
+                    accepted |= candidate.getVoteCategory().mask();
+                }
+            }
+        }
+        // either way the voter has now voted in every requested category
+        for (Candidate candidate : candidates) {
+            if ((requested & candidate.getVoteCategory().mask()) != 0) {
+                voterCredentialCache.markVoted(voterCredentials.getBVN(), candidate.getVoteCategory());
+            }
+        }
+        return accepted;
+    }
+
+    private boolean recordVote(VoterCredentials voterCredentials, Candidate candidate) {
+        Vote vote = buildVote(voterCredentials, candidate);
+        if (ingestionMode == IngestionMode.KAFKA) {
+            publish(vote);
+            return true;
+        }
+        if (ingestionMode == IngestionMode.LEDGER) {
+            return voteLedger.record(vote);
+        }
+        boolean accepted = redisVoteCounter.castVote(voterCredentials.getBVN(), candidate.getVoteCategory(), candidate.getParty());
+        if (accepted) {
+            // Redis has counted it nationally, so its constituency counts too even if the AppUser update fails
+            voteTallyEngine.recordConstituency(voterCredentials.getConstituency(), candidate.getVoteCategory(), candidate.getParty());
+            appUserRepository.markVoted(voterCredentials.getBVN(), candidate.getVoteCategory());
+        }
+        return accepted;
+    }
+
+    static Vote buildVote(VoterCredentials voterCredentials, Candidate candidate) {
+        return Vote.builder()
+                .BVN(voterCredentials.getBVN())
+                .voteCategory(candidate.getVoteCategory())
+                .party(candidate.getParty())
+                .castAt(LocalDateTime.now())
+                .state(voterCredentials.getConstituency().getState())
+                .lga(voterCredentials.getConstituency().getLga())
+                .build();
+    }
+
+    // Keyed by BVN so all of a voter's votes land on one partition, in order.
+    private void publish(Vote vote) {
+        try {
+            kafkaTemplate.send(voteTopic, vote.getBVN(), vote).get(publishTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SimpoProjectException("An error occurred while processing your request, please try again later", 500);
+        } catch (ExecutionException | TimeoutException ex) {
+            throw new SimpoProjectException("An error occurred while processing your request, please try again later", 500);
         }
-        return appUser;
     }
 
     @Override
-    public CastVoteResponse castVoteForHouseOfRepresentative(CastVoteRequest castVoteRequest) {
-        AppUser appUser = validateUserCredentials(castVoteRequest);
-        if(appUser.isHasVotedForHouseOfRepMember()){
-            throw new SimpoProjectException("You have already cast your vote for your preferred candidate", 400);
-        }
-        if(!VoteCategory.valueOf(castVoteRequest.getVoteCategory().toUpperCase()).equals(VoteCategory.HOUSE_OF_REPRESENTATIVE)){
-            throw new SimpoProjectException("Invalid vote category", 400);
-        }
-        Candidate candidate = utilsClass.checkCandidateValidity(castVoteRequest);
-        candidate.setVoteCount(candidate.getVoteCount()+ 1);
-        appUser.setHasVotedForHouseOfRepMember(true);
-        appUserRepository.save(appUser);
-        candidateRepository.save(candidate);
+    public CastVoteResponse castVoteForHouseOfRepresentative(CastVoteRequest castVoteRequest, String sessionToken) {
+        castVote(castVoteRequest, sessionToken, VoteCategory.HOUSE_OF_REPRESENTATIVE);
         return new CastVoteResponse("You have successfully casted your vote for your preferred house of rep candidate");
     }
 
     @Override
-    public CastVoteResponse castVoteForSenate(CastVoteRequest castVoteRequest) {
-        AppUser appUser = validateUserCredentials(castVoteRequest);
-        if(appUser.isHasVotedForSenateMember()){
-            throw new SimpoProjectException("You have already cast your vote for your preferred candidate", 400);
-        }
-        if(!VoteCategory.valueOf(castVoteRequest.getVoteCategory().toUpperCase()).equals(VoteCategory.SENATE)){
-            throw new SimpoProjectException("Invalid vote category", 400);
-        }
-        Candidate candidate = utilsClass.checkCandidateValidity(castVoteRequest);
-        candidate.setVoteCount(candidate.getVoteCount()+ 1);
-        appUser.setHasVotedForSenateMember(true);
-        appUserRepository.save(appUser);
-        candidateRepository.save(candidate);
+    public CastVoteResponse castVoteForSenate(CastVoteRequest castVoteRequest, String sessionToken) {
+        castVote(castVoteRequest, sessionToken, VoteCategory.SENATE);
         return new CastVoteResponse("You have successfully casted your vote for your preferred senate candidate");
     }
 
     @Override
-    public CastVoteResponse castVoteForHouseOfAssembly(CastVoteRequest castVoteRequest) {
-        AppUser appUser = validateUserCredentials(castVoteRequest);
-        if(appUser.isHasVotedForHouseOfAssemblyMember()){
-            throw new SimpoProjectException("You have already cast your vote for your preferred candidate", 400);
-        }
-        if(!VoteCategory.valueOf(castVoteRequest.getVoteCategory().toUpperCase()).equals(VoteCategory.HOUSE_OF_ASSEMBLY)){
-            throw new SimpoProjectException("Invalid vote category", 400);
-        }
-        Candidate candidate = utilsClass.checkCandidateValidity(castVoteRequest);
-        candidate.setVoteCount(candidate.getVoteCount()+ 1);
-        appUser.setHasVotedForHouseOfAssemblyMember(true);
-        appUserRepository.save(appUser);
-        candidateRepository.save(candidate);
+    public CastVoteResponse castVoteForHouseOfAssembly(CastVoteRequest castVoteRequest, String sessionToken) {
+        castVote(castVoteRequest, sessionToken, VoteCategory.HOUSE_OF_ASSEMBLY);
         return new CastVoteResponse("You have successfully casted your vote for your preferred house of assembly candidate");
     }
 
     @Override
     public ViewResultResponse viewPresidentialResultInPercentage() {
-        List<Candidate> presidentialCandidates = candidateRepository.findCandidateByVoteCategory(VoteCategory.PRESIDENCY);
-        return getResultFor(presidentialCandidates);
+        return resultsView.get(VoteCategory.PRESIDENCY);
     }
 
     @Override
     public ViewResultResponse viewGovernorshipResultInPercentage() {
-        List<Candidate> governorshipCandidates = candidateRepository.findCandidateByVoteCategory(VoteCategory.GOVERNORSHIP);
-        return getResultFor(governorshipCandidates);
-    }
-
-    private ViewResultResponse getResultFor(List<Candidate> candidates) {
-        long total = candidates.stream().mapToLong(Candidate::getVoteCount).count();
-        Map<String, String> result = new HashMap<>();
-        for(Candidate candidate : candidates){
-            result.put(candidate.getParty().toString(), String.valueOf(candidate.getVoteCount()/total *100));
-        }
-        return new ViewResultResponse(result);
+        return resultsView.get(VoteCategory.GOVERNORSHIP);
     }
 
     @Override
     public ViewResultResponse viewHouseOfRepresentativeResultInPercentage() {
-        List<Candidate> houseOfRepCandidates = candidateRepository.findCandidateByVoteCategory(VoteCategory.HOUSE_OF_REPRESENTATIVE);
-        return getResultFor(houseOfRepCandidates);
+        return resultsView.get(VoteCategory.HOUSE_OF_REPRESENTATIVE);
     }
 
     @Override
     public ViewResultResponse viewSenateResultInPercentage() {
-        List<Candidate> senateCandidates = candidateRepository.findCandidateByVoteCategory(VoteCategory.SENATE);
-        return getResultFor(senateCandidates);
+        return resultsView.get(VoteCategory.SENATE);
     }
 
     @Override
     public ViewResultResponse viewHouseOfAssemblyResultInPercentage() {
-        List<Candidate> houseOfAssemblyCandidates = candidateRepository.findCandidateByVoteCategory(VoteCategory.HOUSE_OF_ASSEMBLY);
-        return getResultFor(houseOfAssemblyCandidates);
-    }
-
-    private AppUser buildAppUser(CreateAccountRequest createAccountRequest, ValidateBVNResponse validateBVNResponse) {
-     return AppUser.builder()
-                .BVN(validateBVNResponse.getData().getBvn())
-                .date_of_birth(validateBVNResponse.getData().getDate_of_birth())
-                .email(validateBVNResponse.getData().getEmail())
-                .first_name(validateBVNResponse.getData().getFirst_name())
-                .last_name(validateBVNResponse.getData().getLast_name())
-                .middle_name(validateBVNResponse.getData().getMiddle_name())
-                .gender(Gender.valueOf(validateBVNResponse.getData().getGender()))
-                .password(createAccountRequest.getPassword())
-                .phoneNumber(validateBVNResponse.getData().getPhone_number())
-                .nationality(validateBVNResponse.getData().getNationality())
-                .address(validateBVNResponse.getData().getAddress())
-                .username(generateUsername(validateBVNResponse.getData().getFirst_name(), validateBVNResponse.getData().getLast_name()))
-                .build();
+        return resultsView.get(VoteCategory.HOUSE_OF_ASSEMBLY);
     }
 
-    private String generateUsername(String firstName, String lastName) {
-        String username = (firstName + UUID.randomUUID().toString().substring(0,4) + lastName.substring(0,4)).toLowerCase();
-        if(appUserRepository.existsAppUserByUsername(username)){
-            generateUsername(firstName,lastName);
-        }
-        return username;
+    @Override
+    public Flux<ViewResultResponse> streamResult(VoteCategory voteCategory) {
+        return resultsView.stream(voteCategory);
     }
 
-    private ValidateBVNResponse validateBVN(String bvn) throws JsonProcessingException {
-        bvnValidation bvnvalidation = new bvnValidation();
-        bvnload bvnload = new bvnload();
-        bvnload.setBvn(bvn);
-        String response = bvnvalidation.bvnvalidate(bvnload);
-        ObjectMapper objectMapper = new ObjectMapper();
-        return objectMapper.readValue(response, ValidateBVNResponse.class);
+    @Override
+    public ViewResultResponse viewRegionalResult(VoteCategory voteCategory, String state, String lga) {
+        return voteTallyEngine.regionalResult(voteCategory, state, lga);
     }
 }
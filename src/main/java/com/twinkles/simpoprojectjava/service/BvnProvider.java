@@ -0,0 +1,7 @@
+package com.twinkles.simpoprojectjava.service;
+
+// Blocking call to the upstream BVN verification service, returning its raw JSON response.
+@FunctionalInterface
+public interface BvnProvider {
+    String validate(String bvn) throws Exception;
+}
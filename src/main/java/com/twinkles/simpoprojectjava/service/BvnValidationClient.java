@@ -0,0 +1,181 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.twinkles.simpoprojectjava.dtos.responses.ValidateBVNResponse;
+import com.twinkles.simpoprojectjava.exceptions.SimpoProjectException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Calls the BVN provider off the request thread on a small bounded pool, with a per-call timeout,
+// a consecutive-failure circuit breaker and a short-lived cache of provider answers per BVN.
+@Component
+public class BvnValidationClient {
+    private final BvnProvider bvnProvider;
+    private final VoteMetrics voteMetrics;
+    private final ObjectReader responseReader;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore reactiveCalls;
+    private final AsyncCache<String, ValidateBVNResponse> cache;
+    private final long timeoutMs;
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+    private volatile long openUntil;
+
+    // present in the reactive web stack; calls then go out on the event loop instead of the bounded pool
+    @Autowired(required = false)
+    private ReactiveBvnProvider reactiveBvnProvider;
+
+    public BvnValidationClient(BvnProvider bvnProvider,
+                               VoteMetrics voteMetrics,
+                               ObjectMapper objectMapper,
+                               @Value("${vote.bvn.max-concurrent-calls:32}") int maxConcurrentCalls,
+                               @Value("${vote.bvn.max-queued-calls:256}") int maxQueuedCalls,
+                               @Value("${vote.bvn.timeout-ms:3000}") long timeoutMs,
+                               @Value("${vote.bvn.cache-ttl-seconds:300}") long cacheTtlSeconds,
+                               @Value("${vote.bvn.circuit.failure-threshold:10}") int failureThreshold,
+                               @Value("${vote.bvn.circuit.open-ms:30000}") long openMs) {
+        this.bvnProvider = bvnProvider;
+        this.voteMetrics = voteMetrics;
+        this.responseReader = objectMapper.readerFor(ValidateBVNResponse.class);
+        this.executor = new ThreadPoolExecutor(maxConcurrentCalls, maxConcurrentCalls, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(maxQueuedCalls), runnable -> {
+                    Thread thread = new Thread(runnable, "bvn-validation");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+        this.reactiveCalls = new Semaphore(maxConcurrentCalls + maxQueuedCalls);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .buildAsync();
+        this.timeoutMs = timeoutMs;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+    }
+
+    // Concurrent calls for the same BVN share one provider request; failed calls are not cached.
+    public CompletableFuture<ValidateBVNResponse> validate(String bvn) {
+        return cache.get(bvn, (key, cacheExecutor) -> call(key));
+    }
+
+    private CompletableFuture<ValidateBVNResponse> call(String bvn) {
+        boolean trial;
+        if (openUntil == 0) {
+            trial = false;
+        } else if (openUntil - System.nanoTime() <= 0 && trialInFlight.compareAndSet(false, true)) {
+            // half-open: this call alone probes the provider, everyone else keeps failing fast until it settles
+            trial = true;
+        } else {
+            return CompletableFuture.failedFuture(
+                    new SimpoProjectException("BVN validation is temporarily unavailable, please try again later", 503));
+        }
+        long start = System.nanoTime();
+        CompletableFuture<ValidateBVNResponse> response;
+        if (reactiveBvnProvider != null) {
+            // same admission limit as the pool: running plus queued calls
+            if (!reactiveCalls.tryAcquire()) {
+                return tooManyCalls(trial);
+            }
+            response = reactiveBvnProvider.validate(bvn)
+                    .map(this::readResponse)
+                    // cancels the HTTP exchange itself, which orTimeout below cannot do
+                    .timeout(Duration.ofMillis(timeoutMs))
+                    .doFinally(signal -> reactiveCalls.release())
+                    .toFuture();
+        } else {
+            try {
+                response = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return readResponse(bvnProvider.validate(bvn));
+                    } catch (Exception ex) {
+                        throw new CompletionException(ex);
+                    }
+                }, executor);
+            } catch (RejectedExecutionException ex) {
+                return tooManyCalls(trial);
+            }
+        }
+        return response.orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .handle((validateBVNResponse, ex) -> {
+                    if (ex == null) {
+                        consecutiveFailures.set(0);
+                        if (trial) {
+                            openUntil = 0;
+                            trialInFlight.set(false);
+                        }
+                        voteMetrics.bvnCall(start, true, false);
+                        return validateBVNResponse;
+                    }
+                    if (trial) {
+                        // the provider is still failing: open for another full period
+                        openUntil = System.nanoTime() + openNanos;
+                        trialInFlight.set(false);
+                    } else if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+                        openUntil = System.nanoTime() + openNanos;
+                        consecutiveFailures.set(0);
+                    }
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    voteMetrics.bvnCall(start, false, cause instanceof TimeoutException);
+                    if (cause instanceof TimeoutException) {
+                        throw new SimpoProjectException("BVN validation timed out, please try again later", 503);
+                    }
+                    throw new SimpoProjectException("BVN validation failed, please try again later", 503);
+                });
+    }
+
+    private CompletableFuture<ValidateBVNResponse> tooManyCalls(boolean trial) {
+        if (trial) {
+            // the trial never reached the provider; let the next call take it
+            trialInFlight.set(false);
+        }
+        return CompletableFuture.failedFuture(
+                new SimpoProjectException("Too many registrations are being processed, please try again shortly", 503));
+    }
+
+    private ValidateBVNResponse readResponse(String json) {
+        try {
+            return responseReader.readValue(json);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // Once open, calls fail fast until openUntil. After that one trial call is let through at a time (CAS on
+    // trialInFlight): success closes the circuit, failure opens it again. True while calls are being turned away.
+    public boolean isOpen() {
+        long until = openUntil;
+        return until != 0 && (until - System.nanoTime() > 0 || trialInFlight.get());
+    }
+
+    public AsyncCache<String, ValidateBVNResponse> getCache() {
+        return cache;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,179 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.dtos.requests.ViewResultResponse;
+import com.twinkles.simpoprojectjava.model.Constituency;
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.RegionalTally;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.repository.RegionalTallyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Tallies partitioned by constituency: striped counters per (category, state, LGA, party), flushed alongside the
+// national ones as one bulk of $inc upserts on RegionalTally. Flushed deltas are rolled up into the LGA's and the
+// state's running totals, so a regional result is a single map lookup rather than a scan.
+@Slf4j
+@Component
+public class ConstituencyTally {
+    private static final VoteCategory[] CATEGORIES = VoteCategory.values();
+    private static final Party[] PARTIES = Party.values();
+    private static final ViewResultResponse NO_VOTES = ResultsView.toResponse(new long[PARTIES.length], 0);
+
+    private final RegionalTallyRepository regionalTallyRepository;
+    private final List<ConcurrentHashMap<Constituency, LongAdder[]>> pending = new ArrayList<>();
+    // writer-side running totals, guarded by this
+    private final List<Totals> totals = new ArrayList<>();
+    private final AtomicReferenceArray<Results> results = new AtomicReferenceArray<>(CATEGORIES.length);
+    private long version;
+
+    public ConstituencyTally(RegionalTallyRepository regionalTallyRepository) {
+        this.regionalTallyRepository = regionalTallyRepository;
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            pending.add(new ConcurrentHashMap<>());
+            totals.add(new Totals());
+            results.set(i, new Results());
+        }
+    }
+
+    public void record(Constituency constituency, VoteCategory voteCategory, Party party) {
+        counters(constituency, voteCategory)[party.ordinal()].increment();
+    }
+
+    public void add(Constituency constituency, VoteCategory voteCategory, Party party, long votes) {
+        counters(constituency, voteCategory)[party.ordinal()].add(votes);
+    }
+
+    public long pendingCount(Constituency constituency, VoteCategory voteCategory, Party party) {
+        LongAdder[] counters = pending.get(voteCategory.ordinal()).get(constituency);
+        return counters == null ? 0 : counters[party.ordinal()].sum();
+    }
+
+    public ViewResultResponse result(VoteCategory voteCategory, String state) {
+        return results.get(voteCategory.ordinal()).states.getOrDefault(Constituency.normalise(state), NO_VOTES);
+    }
+
+    public ViewResultResponse result(VoteCategory voteCategory, String state, String lga) {
+        return results.get(voteCategory.ordinal()).lgas.getOrDefault(Constituency.of(state, lga), NO_VOTES);
+    }
+
+    public synchronized void flush() {
+        for (VoteCategory voteCategory : CATEGORIES) {
+            List<RegionalTally> deltas = drain(voteCategory);
+            if (deltas.isEmpty()) {
+                continue;
+            }
+            int applied;
+            try {
+                applied = regionalTallyRepository.incrementVoteCounts(deltas);
+            } catch (RuntimeException ex) {
+                // no reply, so no failing index: any prefix of the ordered bulk may have landed, and re-adding it
+                // would count those votes twice. Drop the batch instead; refreshResults reloads what Mongo holds.
+                log.error("Lost track of {} regional tallies ({} votes) for {}, reloading from Mongo on the next refresh",
+                        deltas.size(), deltas.stream().mapToLong(RegionalTally::getVoteCount).sum(), voteCategory, ex);
+                continue;
+            }
+            // keep what did not make it so the next flush retries it
+            for (RegionalTally delta : deltas.subList(applied, deltas.size())) {
+                add(Constituency.of(delta.getState(), delta.getLga()), voteCategory, delta.getParty(), delta.getVoteCount());
+            }
+            if (applied < deltas.size()) {
+                log.warn("{} of {} regional tallies for {} will be retried", deltas.size() - applied, deltas.size(), voteCategory);
+            }
+            roll(voteCategory, deltas.subList(0, applied));
+        }
+    }
+
+    // Rebuilds a category's totals from Mongo, which also picks up votes counted by other nodes.
+    public synchronized void reload(VoteCategory voteCategory) {
+        Totals categoryTotals = new Totals();
+        for (RegionalTally regionalTally : regionalTallyRepository.findByVoteCategory(voteCategory)) {
+            categoryTotals.add(regionalTally);
+        }
+        totals.set(voteCategory.ordinal(), categoryTotals);
+        long snapshotVersion = ++version;
+        Results categoryResults = new Results();
+        categoryTotals.states.forEach((state, counts) -> categoryResults.states.put(state, ResultsView.toResponse(counts.clone(), snapshotVersion)));
+        categoryTotals.lgas.forEach((lga, counts) -> categoryResults.lgas.put(lga, ResultsView.toResponse(counts.clone(), snapshotVersion)));
+        results.set(voteCategory.ordinal(), categoryResults);
+    }
+
+    private List<RegionalTally> drain(VoteCategory voteCategory) {
+        List<RegionalTally> deltas = new ArrayList<>();
+        for (Map.Entry<Constituency, LongAdder[]> entry : pending.get(voteCategory.ordinal()).entrySet()) {
+            LongAdder[] counters = entry.getValue();
+            for (Party party : PARTIES) {
+                long delta = counters[party.ordinal()].sumThenReset();
+                if (delta != 0) {
+                    deltas.add(RegionalTally.builder()
+                            .voteCategory(voteCategory)
+                            .state(entry.getKey().getState())
+                            .lga(entry.getKey().getLga())
+                            .party(party)
+                            .voteCount(delta)
+                            .build());
+                }
+            }
+        }
+        return deltas;
+    }
+
+    private void roll(VoteCategory voteCategory, List<RegionalTally> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Totals categoryTotals = totals.get(voteCategory.ordinal());
+        Map<String, long[]> touchedStates = new HashMap<>();
+        Map<Constituency, long[]> touchedLgas = new HashMap<>();
+        for (RegionalTally delta : deltas) {
+            Constituency constituency = categoryTotals.add(delta);
+            touchedStates.put(constituency.getState(), categoryTotals.states.get(constituency.getState()));
+            touchedLgas.put(constituency, categoryTotals.lgas.get(constituency));
+        }
+        long snapshotVersion = ++version;
+        Results categoryResults = results.get(voteCategory.ordinal());
+        touchedStates.forEach((state, counts) -> categoryResults.states.put(state, ResultsView.toResponse(counts.clone(), snapshotVersion)));
+        touchedLgas.forEach((lga, counts) -> categoryResults.lgas.put(lga, ResultsView.toResponse(counts.clone(), snapshotVersion)));
+    }
+
+    private LongAdder[] counters(Constituency constituency, VoteCategory voteCategory) {
+        ConcurrentHashMap<Constituency, LongAdder[]> categoryCounters = pending.get(voteCategory.ordinal());
+        LongAdder[] counters = categoryCounters.get(constituency);
+        return counters != null ? counters : categoryCounters.computeIfAbsent(constituency, key -> newCounters());
+    }
+
+    private static LongAdder[] newCounters() {
+        LongAdder[] counters = new LongAdder[PARTIES.length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+
+    private static final class Totals {
+        private final Map<String, long[]> states = new HashMap<>();
+        private final Map<Constituency, long[]> lgas = new HashMap<>();
+
+        // Adds one LGA count to the LGA's and its state's totals.
+        private Constituency add(RegionalTally regionalTally) {
+            Constituency constituency = Constituency.of(regionalTally.getState(), regionalTally.getLga());
+            int party = regionalTally.getParty().ordinal();
+            lgas.computeIfAbsent(constituency, key -> new long[PARTIES.length])[party] += regionalTally.getVoteCount();
+            states.computeIfAbsent(constituency.getState(), key -> new long[PARTIES.length])[party] += regionalTally.getVoteCount();
+            return constituency;
+        }
+    }
+
+    // What readers see: immutable responses, replaced per state or LGA as totals change.
+    private static final class Results {
+        private final Map<String, ViewResultResponse> states = new ConcurrentHashMap<>();
+        private final Map<Constituency, ViewResultResponse> lgas = new ConcurrentHashMap<>();
+    }
+}
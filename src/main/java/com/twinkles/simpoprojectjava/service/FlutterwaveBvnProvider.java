@@ -0,0 +1,17 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.flutterwave.rave.java.entry.bvnValidation;
+import com.flutterwave.rave.java.payload.bvnload;
+import org.springframework.stereotype.Component;
+
+@Component
+public class FlutterwaveBvnProvider implements BvnProvider {
+
+    @Override
+    public String validate(String bvn) {
+        bvnValidation bvnvalidation = new bvnValidation();
+        bvnload bvnload = new bvnload();
+        bvnload.setBvn(bvn);
+        return bvnvalidation.bvnvalidate(bvnload);
+    }
+}
@@ -0,0 +1,22 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.repository.AppUserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "vote.migrate-legacy-voted-flags", havingValue = "true")
+public class LegacyVotedFlagsMigration implements ApplicationRunner {
+    private final AppUserRepository appUserRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Migrated {} legacy voted flags into votedCategories", appUserRepository.migrateLegacyVotedFlags());
+    }
+}
@@ -0,0 +1,24 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.dtos.requests.BallotRequest;
+import com.twinkles.simpoprojectjava.dtos.requests.CastVoteRequest;
+import com.twinkles.simpoprojectjava.dtos.requests.CreateAccountRequest;
+import com.twinkles.simpoprojectjava.dtos.requests.LoginRequest;
+import com.twinkles.simpoprojectjava.dtos.requests.ViewResultResponse;
+import com.twinkles.simpoprojectjava.dtos.responses.BallotResponse;
+import com.twinkles.simpoprojectjava.dtos.responses.CastVoteResponse;
+import com.twinkles.simpoprojectjava.dtos.responses.CreateAccountResponse;
+import com.twinkles.simpoprojectjava.dtos.responses.LoginResponse;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveAppUserService {
+    Mono<CreateAccountResponse> createAccount(CreateAccountRequest createAccountRequest);
+    Mono<LoginResponse> login(LoginRequest loginRequest);
+    Mono<BallotResponse> castBallot(BallotRequest ballotRequest, String sessionToken);
+    Mono<CastVoteResponse> castVote(VoteCategory voteCategory, CastVoteRequest castVoteRequest, String sessionToken);
+    Mono<ViewResultResponse> viewResult(VoteCategory voteCategory);
+    Flux<ViewResultResponse> streamResult(VoteCategory voteCategory);
+    Mono<ViewResultResponse> viewRegionalResult(VoteCategory voteCategory, String state, String lga);
+}
@@ -0,0 +1,325 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.config.IngestionMode;
+import com.twinkles.simpoprojectjava.config.TallyMode;
+import com.twinkles.simpoprojectjava.dtos.requests.BallotRequest;
+import com.twinkles.simpoprojectjava.dtos.requests.CastVoteRequest;
+import com.twinkles.simpoprojectjava.dtos.requests.CreateAccountRequest;
+import com.twinkles.simpoprojectjava.dtos.requests.LoginRequest;
+import com.twinkles.simpoprojectjava.dtos.requests.ViewResultResponse;
+import com.twinkles.simpoprojectjava.dtos.responses.BallotResponse;
+import com.twinkles.simpoprojectjava.dtos.responses.CastVoteResponse;
+import com.twinkles.simpoprojectjava.dtos.responses.CreateAccountResponse;
+import com.twinkles.simpoprojectjava.dtos.responses.LoginResponse;
+import com.twinkles.simpoprojectjava.exceptions.SimpoProjectException;
+import com.twinkles.simpoprojectjava.exceptions.ValidationErrors;
+import com.twinkles.simpoprojectjava.model.Candidate;
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.Vote;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.model.VoterCredentials;
+import com.twinkles.simpoprojectjava.repository.ReactiveAppUserRepository;
+import com.twinkles.simpoprojectjava.repository.ReactiveCandidateRepository;
+import com.twinkles.simpoprojectjava.utils.UtilsClass;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataAccessException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// AppUserServiceImpl for the WebFlux stack. Mongo, Redis and Kafka are reached through non-blocking clients;
+// the only work moved off the event loop is bcrypt and account creation's username sequence lease.
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAppUserServiceImpl implements ReactiveAppUserService {
+    private static final Map<VoteCategory, String> VOTE_MESSAGES = new EnumMap<>(VoteCategory.class);
+
+    static {
+        VOTE_MESSAGES.put(VoteCategory.PRESIDENCY, "You have successfully casted your vote for your preferred presidential candidate");
+        VOTE_MESSAGES.put(VoteCategory.GOVERNORSHIP, "You have successfully casted your vote for your preferred governorship candidate");
+        VOTE_MESSAGES.put(VoteCategory.HOUSE_OF_REPRESENTATIVE, "You have successfully casted your vote for your preferred house of rep candidate");
+        VOTE_MESSAGES.put(VoteCategory.SENATE, "You have successfully casted your vote for your preferred senate candidate");
+        VOTE_MESSAGES.put(VoteCategory.HOUSE_OF_ASSEMBLY, "You have successfully casted your vote for your preferred house of assembly candidate");
+    }
+
+    private final KafkaTemplate<String, Vote> kafkaTemplate;
+    private final ReactiveAppUserRepository reactiveAppUserRepository;
+    private final ReactiveCandidateRepository reactiveCandidateRepository;
+    private final UtilsClass utilsClass;
+    private final VoteTallyEngine voteTallyEngine;
+    private final VoteLedger voteLedger;
+    private final ResultsView resultsView;
+    private final ReactiveRedisVoteCounter reactiveRedisVoteCounter;
+    private final VoterCredentialCache voterCredentialCache;
+    private final BvnValidationClient bvnValidationClient;
+    private final UsernameAllocator usernameAllocator;
+    private final VoteSessionTokens voteSessionTokens;
+    private final PasswordEncoder passwordEncoder;
+    private final VoteMetrics voteMetrics;
+    // bcrypt is CPU-bound: it gets its own workers so hashing neither runs on nor starves the event loop
+    private final Scheduler passwordScheduler = Schedulers.newParallel("password-hashing");
+
+    @Value("${vote.ingestion.mode:DIRECT}")
+    private IngestionMode ingestionMode;
+
+    @Value("${vote.tally.mode:LOCAL}")
+    private TallyMode tallyMode;
+
+    @Value("${vote.kafka.topic:vote-casting-topic}")
+    private String voteTopic;
+
+    @Value("${vote.kafka.publish-timeout-ms:5000}")
+    private long publishTimeoutMs;
+
+    @Override
+    public Mono<CreateAccountResponse> createAccount(CreateAccountRequest createAccountRequest) {
+        return reactiveAppUserRepository.existsAppUserByBVN(createAccountRequest.getBVN())
+                .flatMap(exists -> {
+                    if (exists) {
+                        return Mono.error(new SimpoProjectException("User with provided BVN has already registered", 400));
+                    }
+                    // a copy, so a cancelled request cannot cancel a provider call other requests share through the cache
+                    return Mono.fromFuture(bvnValidationClient.validate(createAccountRequest.getBVN()).copy());
+                })
+                .flatMap(validateBVNResponse -> {
+                    if (!"success".equals(validateBVNResponse.getStatus())) {
+                        return Mono.error(new SimpoProjectException(validateBVNResponse.getMessage(), 400));
+                    }
+                    // bcrypt, and now and then a blocking sequence block lease for the username
+                    return Mono.fromCallable(() -> utilsClass.buildAppUser(createAccountRequest, validateBVNResponse,
+                                    usernameAllocator.allocate(validateBVNResponse.getData().getFirst_name())))
+                            .subscribeOn(Schedulers.boundedElastic());
+                })
+                .flatMap(reactiveAppUserRepository::save)
+                .thenReturn(new CreateAccountResponse("User profile successfully created"));
+    }
+
+    @Override
+    public Mono<LoginResponse> login(LoginRequest loginRequest) {
+        return checkPassword(loginRequest.getBVN(), loginRequest.getPassword())
+                .flatMap(voterCredentials -> {
+                    if (UtilsClass.isHashed(voterCredentials.getPassword())) {
+                        return Mono.just(voterCredentials);
+                    }
+                    return Mono.fromCallable(() -> passwordEncoder.encode(loginRequest.getPassword()))
+                            .subscribeOn(passwordScheduler)
+                            .flatMap(hash -> reactiveAppUserRepository.updatePassword(voterCredentials.getBVN(), hash))
+                            .then(Mono.fromRunnable(() -> voterCredentialCache.invalidate(voterCredentials.getBVN())))
+                            .thenReturn(voterCredentials);
+                })
+                .map(voterCredentials -> new LoginResponse(voteSessionTokens.issue(voterCredentials), voteSessionTokens.expiresAt()));
+    }
+
+    @Override
+    public Mono<BallotResponse> castBallot(BallotRequest ballotRequest, String sessionToken) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return recordBallot(ballotRequest, sessionToken)
+                    .doOnSuccess(ballotResponse -> voteMetrics.ballotAccepted(start))
+                    .doOnError(SimpoProjectException.class, ex -> voteMetrics.ballotRejected(start, ex));
+        });
+    }
+
+    private Mono<BallotResponse> recordBallot(BallotRequest ballotRequest, String sessionToken) {
+        if (ballotRequest.getVotes() == null || ballotRequest.getVotes().isEmpty()) {
+            return Mono.error(ValidationErrors.EMPTY_BALLOT);
+        }
+        if (ballotRequest.getRepeatedCategory() != null) {
+            return Mono.error(new SimpoProjectException("Ballot has more than one vote for " + ballotRequest.getRepeatedCategory(), 400));
+        }
+        return authenticate(ballotRequest.getBVN(), ballotRequest.getPassword(), sessionToken)
+                .flatMap(voterCredentials -> Flux.fromIterable(ballotRequest.getVotes().entrySet())
+                        .flatMapSequential(vote -> candidate(vote.getKey(), vote.getValue()))
+                        .collectList()
+                        .flatMap(candidates -> recordBallot(voterCredentials, candidates)
+                                .map(acceptedMask -> ballotResponse(candidates, acceptedMask))));
+    }
+
+    private static BallotResponse ballotResponse(List<Candidate> candidates, int acceptedMask) {
+        List<String> accepted = new ArrayList<>();
+        List<String> alreadyVoted = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            (((acceptedMask & candidate.getVoteCategory().mask()) != 0) ? accepted : alreadyVoted).add(candidate.getVoteCategory().name());
+        }
+        String message = accepted.isEmpty() ? "You have already cast your vote in every category on this ballot"
+                : "You have successfully casted your ballot";
+        return new BallotResponse(message, accepted, alreadyVoted);
+    }
+
+    @Override
+    public Mono<CastVoteResponse> castVote(VoteCategory voteCategory, CastVoteRequest castVoteRequest, String sessionToken) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return authenticate(castVoteRequest.getBVN(), castVoteRequest.getPassword(), sessionToken)
+                    .flatMap(voterCredentials -> {
+                        if (castVoteRequest.getVoteCategory() != voteCategory) {
+                            return Mono.error(ValidationErrors.INVALID_VOTE_CATEGORY);
+                        }
+                        return candidate(voteCategory, castVoteRequest.getParty())
+                                .flatMap(candidate -> recordBallot(voterCredentials, Collections.singletonList(candidate)));
+                    })
+                    .flatMap(accepted -> accepted == 0 ? Mono.<CastVoteResponse>error(ValidationErrors.ALREADY_VOTED)
+                            : Mono.just(new CastVoteResponse(VOTE_MESSAGES.get(voteCategory))))
+                    .doOnSuccess(castVoteResponse -> voteMetrics.voteAccepted(voteCategory, start))
+                    .doOnError(SimpoProjectException.class, ex -> voteMetrics.voteRejected(voteCategory, start, ex));
+        });
+    }
+
+    @Override
+    public Mono<ViewResultResponse> viewResult(VoteCategory voteCategory) {
+        return Mono.fromSupplier(() -> resultsView.get(voteCategory));
+    }
+
+    @Override
+    public Flux<ViewResultResponse> streamResult(VoteCategory voteCategory) {
+        return resultsView.stream(voteCategory);
+    }
+
+    @Override
+    public Mono<ViewResultResponse> viewRegionalResult(VoteCategory voteCategory, String state, String lga) {
+        return Mono.fromSupplier(() -> voteTallyEngine.regionalResult(voteCategory, state, lga));
+    }
+
+    // A session token is verified in place (one HMAC); a password goes through bcrypt on the hashing scheduler.
+    private Mono<VoterCredentials> authenticate(String bvn, String password, String sessionToken) {
+        if (sessionToken == null) {
+            return checkPassword(bvn, password);
+        }
+        return Mono.fromCallable(() -> {
+            VoterCredentials voterCredentials = voteSessionTokens.verify(sessionToken);
+            if (bvn != null && !bvn.equals(voterCredentials.getBVN())) {
+                throw new SimpoProjectException("Voting session does not belong to this BVN", 401);
+            }
+            return voterCredentials;
+        });
+    }
+
+    private Mono<VoterCredentials> checkPassword(String bvn, String password) {
+        if (bvn == null || password == null) {
+            return Mono.error(ValidationErrors.INVALID_CREDENTIALS);
+        }
+        VoterCredentials cached = voterCredentialCache.getIfPresent(bvn);
+        Mono<VoterCredentials> voterCredentials = cached != null ? Mono.just(cached)
+                : reactiveAppUserRepository.findCredentialsByBVN(bvn).doOnNext(voterCredentialCache::put);
+        return voterCredentials
+                .switchIfEmpty(Mono.error(ValidationErrors.INVALID_CREDENTIALS))
+                .publishOn(passwordScheduler)
+                .map(found -> utilsClass.checkPassword(found, password));
+    }
+
+    private Mono<Candidate> candidate(VoteCategory voteCategory, Party party) {
+        if (voteCategory == null) {
+            return Mono.error(ValidationErrors.INVALID_VOTE_CATEGORY);
+        }
+        if (party == null) {
+            return Mono.error(ValidationErrors.INVALID_PARTY);
+        }
+        return reactiveCandidateRepository.findCandidateByVoteCategoryAndParty(voteCategory, party)
+                .switchIfEmpty(Mono.error(ValidationErrors.NO_CANDIDATE));
+    }
+
+    // Emits the VoteCategory.mask() bits of the candidates whose votes were accepted, as AppUserServiceImpl does.
+    private Mono<Integer> recordBallot(VoterCredentials voterCredentials, List<Candidate> candidates) {
+        int requested = 0;
+        for (Candidate candidate : candidates) {
+            if (!voterCredentials.hasVotedFor(candidate.getVoteCategory())) {
+                requested |= candidate.getVoteCategory().mask();
+            }
+        }
+        if (requested == 0) {
+            return Mono.just(0);
+        }
+        int claimed = requested;
+        Mono<Integer> accepted;
+        if (ingestionMode == IngestionMode.DIRECT && tallyMode == TallyMode.LOCAL) {
+            accepted = reactiveAppUserRepository.markVoted(voterCredentials.getBVN(), claimed)
+                    .flatMap(previous -> {
+                        int newlyAccepted = claimed & ~previous;
+                        Mono<Integer> tallied = Mono.fromCallable(() -> {
+                            for (Candidate candidate : candidates) {
+                                if ((newlyAccepted & candidate.getVoteCategory().mask()) != 0) {
+                                    voteTallyEngine.record(voterCredentials.getBVN(), voterCredentials.getConstituency(),
+                                            candidate.getVoteCategory(), candidate.getParty());
+                                }
+                            }
+                            return newlyAccepted;
+                        });
+                        // a synced vote event log waits on fsync, which must not happen on the event loop
+                        return voteTallyEngine.recordBlocks() ? tallied.subscribeOn(Schedulers.boundedElastic()) : tallied;
+                    })
+                    // Mongo is unavailable: hand the votes to Kafka so the listener can apply them once it recovers
+                    // the listener only counts a vote whose bit it sets itself, in case this update did reach Mongo
+                    .onErrorResume(DataAccessException.class, ex -> Flux.fromIterable(candidates)
+                            .filter(candidate -> (claimed & candidate.getVoteCategory().mask()) != 0)
+                            .concatMap(candidate -> publish(AppUserServiceImpl.buildVote(voterCredentials, candidate))
+                                    .doOnSuccess(ignored -> voteMetrics.kafkaFallback()))
+                            .then(Mono.just(claimed)));
+        } else {
+            accepted = Flux.fromIterable(candidates)
+                    .filter(candidate -> (claimed & candidate.getVoteCategory().mask()) != 0)
+                    .concatMap(candidate -> recordVote(voterCredentials, candidate)
+                            .map(counted -> counted ? candidate.getVoteCategory().mask() : 0))
+                    .reduce(0, (mask, bit) -> mask | bit);
+        }
+        // either way the voter has now voted in every requested category
+        return accepted.doOnNext(ignored -> {
+            for (Candidate candidate : candidates) {
+                if ((claimed & candidate.getVoteCategory().mask()) != 0) {
+                    voterCredentialCache.markVoted(voterCredentials.getBVN(), candidate.getVoteCategory());
+                }
+            }
+        });
+    }
+
+    private Mono<Boolean> recordVote(VoterCredentials voterCredentials, Candidate candidate) {
+        Vote vote = AppUserServiceImpl.buildVote(voterCredentials, candidate);
+        if (ingestionMode == IngestionMode.KAFKA) {
+            return publish(vote).thenReturn(true);
+        }
+        if (ingestionMode == IngestionMode.LEDGER) {
+            // never waits for room on the event loop: a full ledger queue is rejected with 503 straight away
+            return Mono.fromCallable(() -> voteLedger.tryEnqueue(vote))
+                    .flatMap(flushed -> voteLedger.getDurability() == VoteLedger.Durability.ENQUEUE
+                            ? Mono.just(true) : Mono.fromFuture(flushed));
+        }
+        return reactiveRedisVoteCounter.castVote(voterCredentials.getBVN(), candidate.getVoteCategory(), candidate.getParty())
+                .flatMap(counted -> {
+                    if (!counted) {
+                        return Mono.just(false);
+                    }
+                    // Redis has counted it nationally, so its constituency counts too even if the AppUser update fails
+                    voteTallyEngine.recordConstituency(voterCredentials.getConstituency(), candidate.getVoteCategory(), candidate.getParty());
+                    return reactiveAppUserRepository.markVoted(voterCredentials.getBVN(), candidate.getVoteCategory().mask()).thenReturn(true);
+                });
+    }
+
+    // Keyed by BVN so all of a voter's votes land on one partition, in order. send() blocks while the producer
+    // fetches topic metadata or waits for buffer space (up to max.block.ms), so it is called off the event loop.
+    private Mono<Void> publish(Vote vote) {
+        return Mono.defer(() -> Mono.fromFuture(kafkaTemplate.send(voteTopic, vote.getBVN(), vote).completable()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .timeout(Duration.ofMillis(publishTimeoutMs))
+                .onErrorMap(ex -> new SimpoProjectException("An error occurred while processing your request, please try again later", 500))
+                .then();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        passwordScheduler.dispose();
+    }
+}
@@ -0,0 +1,9 @@
+package com.twinkles.simpoprojectjava.service;
+
+import reactor.core.publisher.Mono;
+
+// Non-blocking call to the upstream BVN verification service, emitting its raw JSON response.
+@FunctionalInterface
+public interface ReactiveBvnProvider {
+    Mono<String> validate(String bvn);
+}
@@ -0,0 +1,29 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// RedisVoteCounter.castVote for the reactive stack: the same script and shard keys over the non-blocking Lettuce API.
+@Component
+public class ReactiveRedisVoteCounter {
+    private final ReactiveStringRedisTemplate reactiveRedisTemplate;
+    private final TallyShards tallyShards;
+
+    public ReactiveRedisVoteCounter(ReactiveStringRedisTemplate reactiveRedisTemplate, TallyShards tallyShards) {
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.tallyShards = tallyShards;
+    }
+
+    public Mono<Boolean> castVote(String bvn, VoteCategory voteCategory, Party party) {
+        return reactiveRedisTemplate.execute(RedisVoteCounter.CAST_VOTE, tallyShards.scriptKeys(voteCategory, bvn),
+                        List.of(bvn, party.name()))
+                .next()
+                .map(counted -> counted == 1)
+                .defaultIfEmpty(false);
+    }
+}
@@ -0,0 +1,245 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.dtos.responses.RecountReport;
+import com.twinkles.simpoprojectjava.exceptions.SimpoProjectException;
+import com.twinkles.simpoprojectjava.model.Candidate;
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.repository.AppUserRepository;
+import com.twinkles.simpoprojectjava.repository.CandidateRepository;
+import com.twinkles.simpoprojectjava.repository.VoteRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+// Post-election recount: streams every voter's votedCategories mask and every Vote document out of Mongo in cursor
+// batches, counts each batch on a fork/join pool into primitive per-(category, party) counters and compares the
+// result with the published Candidate.voteCount values. Only a bounded number of batches is ever held in memory.
+@Slf4j
+@Service
+public class RecountService {
+    static final String VOTER_FLAGS = "VOTER_FLAGS";
+    static final String VOTE_RECORDS = "VOTE_RECORDS";
+    private static final VoteCategory[] CATEGORIES = VoteCategory.values();
+    private static final Party[] PARTIES = Party.values();
+    private static final int SPLIT_THRESHOLD = 2048;
+
+    private final AppUserRepository appUserRepository;
+    private final VoteRepository voteRepository;
+    private final CandidateRepository candidateRepository;
+    private final VoteTallyEngine voteTallyEngine;
+    private final int batchSize;
+    private final int parallelism;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public RecountService(AppUserRepository appUserRepository,
+                          VoteRepository voteRepository,
+                          CandidateRepository candidateRepository,
+                          VoteTallyEngine voteTallyEngine,
+                          @Value("${vote.recount.batch-size:10000}") int batchSize,
+                          @Value("${vote.recount.parallelism:0}") int parallelism) {
+        this.appUserRepository = appUserRepository;
+        this.voteRepository = voteRepository;
+        this.candidateRepository = candidateRepository;
+        this.voteTallyEngine = voteTallyEngine;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    public RecountReport recount() {
+        if (!running.compareAndSet(false, true)) {
+            throw new SimpoProjectException("A recount is already running", 409);
+        }
+        try {
+            return runRecount();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private RecountReport runRecount() {
+        long start = System.nanoTime();
+        // this node's pending deltas belong in the stored totals being checked
+        voteTallyEngine.flush();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            // one cursor per collection, each read on its own thread while the pool counts
+            CompletableFuture<Aggregate> votes = CompletableFuture.supplyAsync(
+                    () -> aggregate(pool, voteRepository::forEachVoteBatch, CATEGORIES.length * PARTIES.length, RecountService::countVote),
+                    runnable -> new Thread(runnable, "recount-votes").start());
+            Aggregate voters = aggregate(pool, appUserRepository::forEachVotedCategoriesBatch, CATEGORIES.length, RecountService::countVoter);
+            RecountReport recountReport = compare(voters, join(votes), storedCounts());
+            recountReport.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+            recountReport.setRecordsPerSecond((recountReport.getVotersScanned() + recountReport.getVoteRecordsScanned())
+                    / Math.max((System.nanoTime() - start) / 1e9, 1e-9));
+            log.info("Recount finished: {} voters and {} vote records in {} ms, {} discrepancies",
+                    recountReport.getVotersScanned(), recountReport.getVoteRecordsScanned(),
+                    recountReport.getElapsedMillis(), recountReport.getDiscrepancies().size());
+            return recountReport;
+        } finally {
+            // not shutdownNow: a reader still waiting on its in-flight permits needs the queued batches to finish
+            pool.shutdown();
+        }
+    }
+
+    private Aggregate aggregate(ForkJoinPool pool, BatchSource source, int counters, BatchCounter counter) {
+        AtomicLongArray totals = new AtomicLongArray(counters);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        int maxInFlight = parallelism * 2;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long scanned = source.forEachBatch(batchSize, batch -> {
+            // blocks the cursor while the pool is behind, which is what keeps memory bounded
+            inFlight.acquireUninterruptibly();
+            pool.execute(() -> {
+                try {
+                    long[] counted = new CountTask(batch, 0, batch.length, counters, counter).invoke();
+                    for (int i = 0; i < counted.length; i++) {
+                        if (counted[i] != 0) {
+                            totals.addAndGet(i, counted[i]);
+                        }
+                    }
+                } catch (RuntimeException ex) {
+                    failure.compareAndSet(null, ex);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        });
+        inFlight.acquireUninterruptibly(maxInFlight);
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        long[] counts = new long[counters];
+        for (int i = 0; i < counters; i++) {
+            counts[i] = totals.get(i);
+        }
+        return new Aggregate(scanned, counts);
+    }
+
+    private long[] storedCounts() {
+        long[] stored = new long[CATEGORIES.length * PARTIES.length];
+        for (Candidate candidate : candidateRepository.findAll()) {
+            stored[index(candidate.getVoteCategory(), candidate.getParty())] = candidate.getVoteCount();
+        }
+        return stored;
+    }
+
+    private static RecountReport compare(Aggregate voters, Aggregate votes, long[] stored) {
+        List<RecountReport.Discrepancy> discrepancies = new ArrayList<>();
+        for (VoteCategory voteCategory : CATEGORIES) {
+            long storedTotal = 0;
+            for (Party party : PARTIES) {
+                storedTotal += stored[index(voteCategory, party)];
+            }
+            if (storedTotal != voters.counts[voteCategory.ordinal()]) {
+                discrepancies.add(new RecountReport.Discrepancy(voteCategory, null, VOTER_FLAGS, storedTotal,
+                        voters.counts[voteCategory.ordinal()]));
+            }
+        }
+        // DIRECT ingestion and REDIS tallies never write Vote documents, so there is nothing per party to compare
+        if (votes.scanned > 0) {
+            for (VoteCategory voteCategory : CATEGORIES) {
+                for (Party party : PARTIES) {
+                    int index = index(voteCategory, party);
+                    if (stored[index] != votes.counts[index]) {
+                        discrepancies.add(new RecountReport.Discrepancy(voteCategory, party, VOTE_RECORDS, stored[index],
+                                votes.counts[index]));
+                    }
+                }
+            }
+        }
+        return new RecountReport(voters.scanned, votes.scanned, discrepancies.isEmpty(), discrepancies, 0, 0);
+    }
+
+    private static void countVoter(int votedCategories, long[] counters) {
+        for (VoteCategory voteCategory : CATEGORIES) {
+            if ((votedCategories & voteCategory.mask()) != 0) {
+                counters[voteCategory.ordinal()]++;
+            }
+        }
+    }
+
+    private static void countVote(int vote, long[] counters) {
+        counters[vote]++;
+    }
+
+    private static int index(VoteCategory voteCategory, Party party) {
+        return voteCategory.ordinal() * PARTIES.length + party.ordinal();
+    }
+
+    private static Aggregate join(CompletableFuture<Aggregate> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause() : ex;
+        }
+    }
+
+    @FunctionalInterface
+    interface BatchSource {
+        long forEachBatch(int batchSize, Consumer<int[]> batchConsumer);
+    }
+
+    @FunctionalInterface
+    interface BatchCounter {
+        void count(int value, long[] counters);
+    }
+
+    private static final class CountTask extends RecursiveTask<long[]> {
+        private final int[] batch;
+        private final int from;
+        private final int to;
+        private final int counters;
+        private final BatchCounter counter;
+
+        private CountTask(int[] batch, int from, int to, int counters, BatchCounter counter) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+            this.counters = counters;
+            this.counter = counter;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                long[] counts = new long[counters];
+                for (int i = from; i < to; i++) {
+                    counter.count(batch[i], counts);
+                }
+                return counts;
+            }
+            int middle = (from + to) >>> 1;
+            CountTask left = new CountTask(batch, from, middle, counters, counter);
+            left.fork();
+            long[] counts = new CountTask(batch, middle, to, counters, counter).compute();
+            long[] leftCounts = left.join();
+            for (int i = 0; i < counters; i++) {
+                counts[i] += leftCounts[i];
+            }
+            return counts;
+        }
+    }
+
+    private static final class Aggregate {
+        private final long scanned;
+        private final long[] counts;
+
+        private Aggregate(long scanned, long[] counts) {
+            this.scanned = scanned;
+            this.counts = counts;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.config.IngestionMode;
+import com.twinkles.simpoprojectjava.model.Candidate;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.repository.CandidateRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+
+// In REDIS tally mode Redis holds the live counts; this checkpoints them into the Candidate
+// documents and refreshes the results view from them. A checkpoint only ever raises a stored count, so a
+// Redis that lost its keyspace cannot wipe the published tallies.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "vote.tally.mode", havingValue = "REDIS")
+public class RedisTallyReconciler {
+    private final RedisVoteCounter redisVoteCounter;
+    private final CandidateRepository candidateRepository;
+    private final ResultsView resultsView;
+
+    @Value("${vote.ingestion.mode:DIRECT}")
+    private IngestionMode ingestionMode = IngestionMode.DIRECT;
+
+    // LEDGER and KAFKA count through VoteTallyEngine into Mongo, so Redis would never see those votes.
+    @PostConstruct
+    public void checkIngestionMode() {
+        if (ingestionMode != IngestionMode.DIRECT) {
+            throw new IllegalStateException("vote.tally.mode=REDIS only supports vote.ingestion.mode=DIRECT, not " + ingestionMode);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${vote.tally.redis.checkpoint-interval-ms:5000}")
+    public void checkpoint() {
+        for (VoteCategory voteCategory : VoteCategory.values()) {
+            try {
+                long[] counts = redisVoteCounter.counts(voteCategory);
+                List<Candidate> candidates = candidateRepository.findCandidateByVoteCategory(voteCategory);
+                for (Candidate candidate : candidates) {
+                    long count = counts[candidate.getParty().ordinal()];
+                    if (count > candidate.getVoteCount()) {
+                        candidateRepository.raiseVoteCount(voteCategory, candidate.getParty(), count);
+                        candidate.setVoteCount(count);
+                    } else if (count < candidate.getVoteCount()) {
+                        log.warn("Redis holds {} votes for {} {} but {} are stored; keeping the stored count",
+                                count, voteCategory, candidate.getParty(), candidate.getVoteCount());
+                    }
+                }
+                resultsView.reload(voteCategory, candidates);
+            } catch (RuntimeException ex) {
+                log.error("Failed to checkpoint {} tallies from Redis", voteCategory, ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Cluster-wide tallies: one Lua call checks the voter's marker and counts the vote atomically.
+// Both keys of a shard share its hash tag so the script stays on one cluster slot; see TallyShards.
+@Component
+public class RedisVoteCounter {
+    static final RedisScript<Long> CAST_VOTE = RedisScript.of(new ClassPathResource("redis/cast-vote.lua"), Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final TallyShards tallyShards;
+
+    public RedisVoteCounter(StringRedisTemplate redisTemplate, TallyShards tallyShards) {
+        this.redisTemplate = redisTemplate;
+        this.tallyShards = tallyShards;
+    }
+
+    public boolean castVote(String bvn, VoteCategory voteCategory, Party party) {
+        Long counted = redisTemplate.execute(CAST_VOTE, tallyShards.scriptKeys(voteCategory, bvn), bvn, party.name());
+        return counted != null && counted == 1;
+    }
+
+    // Sums the category's shards; ResultsView, fed by RedisTallyReconciler, is what serves readers.
+    public long[] counts(VoteCategory voteCategory) {
+        long[] counts = new long[Party.values().length];
+        for (String tallyKey : tallyShards.tallyKeys(voteCategory)) {
+            Map<Object, Object> tally = redisTemplate.opsForHash().entries(tallyKey);
+            for (Map.Entry<Object, Object> entry : tally.entrySet()) {
+                counts[Party.valueOf((String) entry.getKey()).ordinal()] += Long.parseLong((String) entry.getValue());
+            }
+        }
+        return counts;
+    }
+}
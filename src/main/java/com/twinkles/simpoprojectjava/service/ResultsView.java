@@ -0,0 +1,133 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.dtos.requests.ViewResultResponse;
+import com.twinkles.simpoprojectjava.model.Candidate;
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Materialized results per vote category. Writers rebuild an immutable snapshot and swap it in;
+// readers just dereference the current one, so a results request never locks or touches Mongo.
+// Each new snapshot is also pushed to a per-category stream for live dashboards.
+@Component
+public class ResultsView {
+    private static final Party[] PARTIES = Party.values();
+    private static final long NO_CANDIDATE = -1;
+
+    private final AtomicReferenceArray<Snapshot> snapshots = new AtomicReferenceArray<>(VoteCategory.values().length);
+    private final List<Sinks.Many<ViewResultResponse>> sinks;
+    private final List<Flux<ViewResultResponse>> streams;
+
+    public ResultsView() {
+        this(Duration.ofSeconds(1));
+    }
+
+    @Autowired
+    public ResultsView(@Value("${vote.results.stream.max-rate-ms:1000}") long maxRateMs) {
+        this(Duration.ofMillis(maxRateMs));
+    }
+
+    private ResultsView(Duration maxRate) {
+        long[] empty = new long[PARTIES.length];
+        Arrays.fill(empty, NO_CANDIDATE);
+        List<Sinks.Many<ViewResultResponse>> categorySinks = new ArrayList<>();
+        List<Flux<ViewResultResponse>> categoryStreams = new ArrayList<>();
+        for (int i = 0; i < snapshots.length(); i++) {
+            snapshots.set(i, new Snapshot(empty, 0));
+            Sinks.Many<ViewResultResponse> sink = Sinks.many().multicast().directBestEffort();
+            categorySinks.add(sink);
+            // one sampler per category coalesces bursts of snapshots into at most one update per maxRate
+            categoryStreams.add(sink.asFlux().sample(maxRate).share());
+        }
+        this.sinks = categorySinks;
+        this.streams = categoryStreams;
+    }
+
+    public ViewResultResponse get(VoteCategory voteCategory) {
+        return snapshots.get(voteCategory.ordinal()).response;
+    }
+
+    // Starts with the current snapshot. A subscriber that cannot keep up skips straight to the latest one
+    // instead of buffering or slowing down the other subscribers.
+    public Flux<ViewResultResponse> stream(VoteCategory voteCategory) {
+        return streams.get(voteCategory.ordinal())
+                .onBackpressureLatest()
+                .startWith(Flux.defer(() -> Flux.just(get(voteCategory))));
+    }
+
+    public long[] counts(VoteCategory voteCategory) {
+        return snapshots.get(voteCategory.ordinal()).counts.clone();
+    }
+
+    public synchronized void reload(VoteCategory voteCategory, List<Candidate> candidates) {
+        long[] counts = new long[PARTIES.length];
+        Arrays.fill(counts, NO_CANDIDATE);
+        for (Candidate candidate : candidates) {
+            counts[candidate.getParty().ordinal()] = candidate.getVoteCount();
+        }
+        publish(voteCategory, counts);
+    }
+
+    public synchronized void apply(VoteCategory voteCategory, long[] deltas) {
+        long[] counts = snapshots.get(voteCategory.ordinal()).counts.clone();
+        for (int i = 0; i < counts.length; i++) {
+            if (deltas[i] != 0) {
+                counts[i] = Math.max(counts[i], 0) + deltas[i];
+            }
+        }
+        publish(voteCategory, counts);
+    }
+
+    private void publish(VoteCategory voteCategory, long[] counts) {
+        long version = snapshots.get(voteCategory.ordinal()).version + 1;
+        Snapshot snapshot = new Snapshot(counts, version);
+        snapshots.set(voteCategory.ordinal(), snapshot);
+        sinks.get(voteCategory.ordinal()).tryEmitNext(snapshot.response);
+    }
+
+    private static final class Snapshot {
+        private final long[] counts;
+        private final long version;
+        private final ViewResultResponse response;
+
+        private Snapshot(long[] counts, long version) {
+            this.counts = counts;
+            this.version = version;
+            this.response = toResponse(counts, version);
+        }
+    }
+
+    // counts is indexed by Party ordinal; parties with NO_CANDIDATE are left out.
+    static ViewResultResponse toResponse(long[] counts, long version) {
+        long total = 0;
+        for (long count : counts) {
+            total += Math.max(count, 0);
+        }
+        Map<String, String> percentages = new LinkedHashMap<>();
+        Map<String, Long> rawCounts = new LinkedHashMap<>();
+        for (Party party : PARTIES) {
+            long count = counts[party.ordinal()];
+            if (count == NO_CANDIDATE) {
+                continue;
+            }
+            rawCounts.put(party.toString(), count);
+            percentages.put(party.toString(), String.format(Locale.ROOT, "%.2f", total == 0 ? 0.0 : count * 100.0 / total));
+        }
+        return new ViewResultResponse(Collections.unmodifiableMap(percentages),
+                Collections.unmodifiableMap(rawCounts), total, version);
+    }
+}
@@ -0,0 +1,101 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Splits a category's Redis tally into shards, each under its own hash tag, so on a cluster a hot category is spread
+// over several slots instead of serialising on one key. A voter always hashes to the same shard, which keeps the
+// per-shard voted marker authoritative; shard counts must therefore stay fixed for the lifetime of an election.
+// Shard 0 keeps the unsharded key names, so a single shard is exactly the old layout.
+@Component
+public class TallyShards {
+    private static final VoteCategory[] CATEGORIES = VoteCategory.values();
+
+    private final int[] shardCounts;
+    private final List<List<List<String>>> scriptKeys;
+    private final List<List<String>> tallyKeys;
+
+    @Autowired
+    public TallyShards(Environment environment) {
+        this(shardCounts(environment));
+    }
+
+    TallyShards(int[] shardCounts) {
+        this.shardCounts = shardCounts.clone();
+        this.scriptKeys = new ArrayList<>(CATEGORIES.length);
+        this.tallyKeys = new ArrayList<>(CATEGORIES.length);
+        for (VoteCategory voteCategory : CATEGORIES) {
+            int shards = this.shardCounts[voteCategory.ordinal()];
+            if (shards < 1) {
+                throw new IllegalArgumentException("vote.tally.shards." + voteCategory + " must be at least 1");
+            }
+            List<List<String>> categoryScriptKeys = new ArrayList<>(shards);
+            List<String> categoryTallyKeys = new ArrayList<>(shards);
+            for (int shard = 0; shard < shards; shard++) {
+                categoryScriptKeys.add(List.of(votedKey(voteCategory, shard), tallyKey(voteCategory, shard)));
+                categoryTallyKeys.add(tallyKey(voteCategory, shard));
+            }
+            scriptKeys.add(categoryScriptKeys);
+            tallyKeys.add(List.copyOf(categoryTallyKeys));
+        }
+    }
+
+    public static TallyShards uniform(int shards) {
+        int[] shardCounts = new int[CATEGORIES.length];
+        Arrays.fill(shardCounts, shards);
+        return new TallyShards(shardCounts);
+    }
+
+    public int shardCount(VoteCategory voteCategory) {
+        return shardCounts[voteCategory.ordinal()];
+    }
+
+    // String.hashCode is fixed by the JLS, so every node picks the same shard for a BVN.
+    public int shard(VoteCategory voteCategory, String bvn) {
+        int shards = shardCounts[voteCategory.ordinal()];
+        if (shards == 1) {
+            return 0;
+        }
+        int hash = bvn.hashCode();
+        hash = (hash ^ (hash >>> 16)) * 0x45d9f3b;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, shards);
+    }
+
+    // KEYS for redis/cast-vote.lua: the voted markers and tally of the voter's shard.
+    public List<String> scriptKeys(VoteCategory voteCategory, String bvn) {
+        return scriptKeys.get(voteCategory.ordinal()).get(shard(voteCategory, bvn));
+    }
+
+    public List<String> tallyKeys(VoteCategory voteCategory) {
+        return tallyKeys.get(voteCategory.ordinal());
+    }
+
+    static String votedKey(VoteCategory voteCategory, int shard) {
+        return "vote:{" + hashTag(voteCategory, shard) + "}:voted";
+    }
+
+    static String tallyKey(VoteCategory voteCategory, int shard) {
+        return "vote:{" + hashTag(voteCategory, shard) + "}:tally";
+    }
+
+    private static String hashTag(VoteCategory voteCategory, int shard) {
+        return shard == 0 ? voteCategory.name() : voteCategory.name() + ":" + shard;
+    }
+
+    private static int[] shardCounts(Environment environment) {
+        int defaultShards = environment.getProperty("vote.tally.default-shards", Integer.class, 1);
+        int[] shardCounts = new int[CATEGORIES.length];
+        for (VoteCategory voteCategory : CATEGORIES) {
+            shardCounts[voteCategory.ordinal()] =
+                    environment.getProperty("vote.tally.shards." + voteCategory.name(), Integer.class, defaultShards);
+        }
+        return shardCounts;
+    }
+}
@@ -0,0 +1,87 @@
+package com.twinkles.simpoprojectjava.service;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Hands out usernames of the form <letters of the first name><decimal sequence>. Sequence numbers are leased
+// from the Sequence collection in blocks, so every node gets disjoint ranges and only one findAndModify is
+// issued per block. Because the prefix holds no digits and the suffix only digits, distinct sequence numbers
+// can never produce the same username.
+@Component
+public class UsernameAllocator {
+    static final String SEQUENCE_COLLECTION = "Sequence";
+    private static final String SEQUENCE_NAME = "username";
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_LENGTH = 12;
+
+    private final MongoTemplate mongoTemplate;
+    private final int blockSize;
+    private final Object leaseLock = new Object();
+    private volatile Block block = new Block(0, 0);
+
+    public UsernameAllocator(MongoTemplate mongoTemplate, @Value("${vote.username.block-size:1000}") int blockSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.blockSize = blockSize;
+    }
+
+    public String allocate(String firstName) {
+        return prefix(firstName) + nextSequence();
+    }
+
+    long nextSequence() {
+        while (true) {
+            Block current = block;
+            long value = current.next.getAndIncrement();
+            if (value < current.end) {
+                return value;
+            }
+            synchronized (leaseLock) {
+                if (block == current) {
+                    block = lease();
+                }
+            }
+        }
+    }
+
+    private Block lease() {
+        Document sequence = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(SEQUENCE_NAME)),
+                new Update().inc("value", blockSize),
+                FindAndModifyOptions.options().returnNew(true).upsert(true),
+                Document.class, SEQUENCE_COLLECTION);
+        long end = ((Number) sequence.get("value")).longValue();
+        return new Block(end - blockSize, end);
+    }
+
+    // A name that leaves fewer than MIN_PREFIX_LENGTH letters (initials, punctuation) becomes "voter".
+    private static String prefix(String firstName) {
+        StringBuilder prefix = new StringBuilder(MAX_PREFIX_LENGTH);
+        if (firstName != null) {
+            for (int i = 0; i < firstName.length() && prefix.length() < MAX_PREFIX_LENGTH; i++) {
+                char c = Character.toLowerCase(firstName.charAt(i));
+                if (c >= 'a' && c <= 'z') {
+                    prefix.append(c);
+                }
+            }
+        }
+        return prefix.length() < MIN_PREFIX_LENGTH ? "voter" : prefix.toString();
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
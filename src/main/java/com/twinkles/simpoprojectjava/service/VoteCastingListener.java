@@ -1,45 +1,40 @@
 package com.twinkles.simpoprojectjava.service;
 
-import com.twinkles.simpoprojectjava.dtos.requests.CastVoteRequest;
-import com.twinkles.simpoprojectjava.exceptions.SimpoProjectException;
-import com.twinkles.simpoprojectjava.model.AppUser;
-import com.twinkles.simpoprojectjava.model.Candidate;
-import com.twinkles.simpoprojectjava.model.VoteCategory;
-import com.twinkles.simpoprojectjava.utils.UtilsClass;
+import com.twinkles.simpoprojectjava.model.Vote;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class VoteCastingListener {
-    private final UtilsClass utilsClass;
-
-    private static final String VOTES_HASH_KEY = "votes";
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final VoteLedger voteLedger;
+    private final VoteMetrics voteMetrics;
 
-    @KafkaListener(topics = "vote-casting-topic", groupId = "group_id")
-    public void consume(CastVoteRequest castVoteRequest) {
-        try {
-            // Attempt to save the data to Redis
-            AppUser appUser = utilsClass.validateUserCredentials(castVoteRequest);
-            if(appUser.isHasVotedForGovernor()){
-                throw new SimpoProjectException("You have already cast your vote for your preferred candidate", 400);
-            }
-            if(!VoteCategory.valueOf(castVoteRequest.getVoteCategory().toUpperCase()).equals(VoteCategory.GOVERNORSHIP)){
-                throw new SimpoProjectException("Invalid vote category", 400);
+    @KafkaListener(topics = "${vote.kafka.topic:vote-casting-topic}", groupId = "${vote.kafka.group-id:vote-right}")
+    public void consume(List<ConsumerRecord<String, Vote>> records, Acknowledgment acknowledgment) {
+        long start = System.nanoTime();
+        List<Vote> votes = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, Vote> record = records.get(i);
+            Vote vote = record.value();
+            if (vote == null) {
+                // undeserializable record: persist what came before it, then let the error handler dead-letter it
+                voteLedger.apply(votes);
+                voteMetrics.unreadableRecord();
+                throw new BatchListenerFailedException("Unreadable vote record", i);
             }
-            Candidate candidate = utilsClass.checkCandidateValidity(castVoteRequest);
-            candidate.setVoteCount(candidate.getVoteCount()+ 1);
-            appUser.setHasVotedForGovernor(true);
-            redisTemplate.opsForHash().put(VOTES_HASH_KEY, castVoteRequest.getBVN(), castVoteRequest);
-        } catch (Exception ex) {
-            // If an error occurs, log the error
-            ex.printStackTrace();
+            voteMetrics.listenerRecordLag(record.timestamp());
+            votes.add(vote);
         }
+        voteLedger.apply(votes);
+        acknowledgment.acknowledge();
+        voteMetrics.listenerBatch(start);
     }
-
-
-
-}
\ No newline at end of file
+}
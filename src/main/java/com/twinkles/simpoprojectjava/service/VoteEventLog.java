@@ -0,0 +1,505 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Append-only log of every vote this node counted and every delta it flushed to Mongo, written through
+// memory-mapped segment files of fixed-width records. Logged minus flushed is exactly what a crash would
+// otherwise lose from VoteTallyEngine's pending counters; a periodic snapshot of both totals lets the
+// segments it covers be deleted, so recovery only replays the tail. Each log directory has its own id, under
+// which VoteTallyEngine keeps a flushed-votes marker on every Candidate.
+//
+// Record layout, little-endian: BVN hash (or flushed delta) : long, epoch millis : long, type : byte,
+// category ordinal : byte, party ordinal : byte, unused : byte, check : int. Replay stops at the first
+// record that is empty or fails its check, which is where a torn or unsynced write left off.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "vote.eventlog.enabled", havingValue = "true")
+public class VoteEventLog {
+    // WRITE acknowledges once the record is in the page cache, which survives a process crash;
+    // SYNC also waits for a group-committed fsync, which survives losing the machine
+    public enum Durability {
+        WRITE, SYNC
+    }
+
+    static final int RECORD_BYTES = 24;
+    private static final byte VOTE = 1;
+    private static final byte FLUSH = 2;
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT = "snapshot.bin";
+    private static final String LOG_ID = "log-id";
+    private static final int SNAPSHOT_MAGIC = 0x564f5445;
+    private static final VoteCategory[] CATEGORIES = VoteCategory.values();
+    private static final Party[] PARTIES = Party.values();
+    private static final int COUNTERS = CATEGORIES.length * PARTIES.length;
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final Durability durability;
+    private final String logId;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final long[] logged = new long[COUNTERS];
+    private final long[] flushed = new long[COUNTERS];
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long segmentStart;
+    private int segmentCapacity;
+    private long nextSequence;
+    private volatile long durableSequence;
+    private long snapshotSequence;
+
+    @Autowired
+    public VoteEventLog(@Value("${vote.eventlog.dir:data/vote-log}") String directory,
+                        @Value("${vote.eventlog.segment-records:1048576}") int segmentRecords,
+                        @Value("${vote.eventlog.durability:SYNC}") Durability durability) throws IOException {
+        this(Path.of(directory), segmentRecords, durability);
+    }
+
+    public VoteEventLog(Path directory, int segmentRecords, Durability durability) throws IOException {
+        if (segmentRecords < 1 || segmentRecords > Integer.MAX_VALUE / RECORD_BYTES) {
+            throw new IllegalArgumentException("vote.eventlog.segment-records must be between 1 and "
+                    + Integer.MAX_VALUE / RECORD_BYTES);
+        }
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.durability = durability;
+        Files.createDirectories(directory);
+        this.logId = logId(directory);
+        Recovery recovery = replay(directory);
+        System.arraycopy(recovery.logged, 0, logged, 0, COUNTERS);
+        System.arraycopy(recovery.flushed, 0, flushed, 0, COUNTERS);
+        nextSequence = recovery.sequence;
+        durableSequence = recovery.sequence;
+        snapshotSequence = recovery.snapshotSequence;
+        if (recovery.tailSegmentStart >= 0 && nextSequence < recovery.tailSegmentStart + recovery.tailSegmentRecords) {
+            openSegment(recovery.tailSegmentStart, recovery.tailSegmentRecords);
+        } else {
+            openSegment(nextSequence, segmentRecords);
+        }
+        log.info("Replayed {} vote events after snapshot {} in {} ms", recovery.replayedRecords,
+                recovery.snapshotSequence, TimeUnit.NANOSECONDS.toMillis(recovery.replayNanos));
+    }
+
+    public void appendVote(String bvn, VoteCategory voteCategory, Party party) {
+        long sequence = append(VOTE, bvnHash(bvn), voteCategory, party);
+        if (durability == Durability.SYNC) {
+            sync(sequence);
+        }
+    }
+
+    // Appended and synced before the delta is sent to Mongo, and appended again with the delta negated if it
+    // never got there. Callers sync() after a batch of these rather than once per delta.
+    public void appendFlush(VoteCategory voteCategory, Party party, long delta) {
+        append(FLUSH, delta, voteCategory, party);
+    }
+
+    public void sync() {
+        long sequence;
+        appendLock.lock();
+        try {
+            sequence = nextSequence;
+        } finally {
+            appendLock.unlock();
+        }
+        sync(sequence);
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public String getLogId() {
+        return logId;
+    }
+
+    public long getFlushedVotes(VoteCategory voteCategory, Party party) {
+        appendLock.lock();
+        try {
+            return flushed[index(voteCategory.ordinal(), party.ordinal())];
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public long getLoggedVotes(VoteCategory voteCategory, Party party) {
+        appendLock.lock();
+        try {
+            return logged[index(voteCategory.ordinal(), party.ordinal())];
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Votes logged but not yet flushed to Mongo, indexed like VoteTallyEngine's counters.
+    public long[] unflushed() {
+        long[] unflushed = new long[COUNTERS];
+        appendLock.lock();
+        try {
+            for (int i = 0; i < COUNTERS; i++) {
+                unflushed[i] = Math.max(logged[i] - flushed[i], 0);
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        return unflushed;
+    }
+
+    public long getNextSequence() {
+        appendLock.lock();
+        try {
+            return nextSequence;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${vote.eventlog.snapshot-interval-ms:60000}")
+    public synchronized void snapshot() {
+        long sequence;
+        long currentSegment;
+        long[] loggedCopy;
+        long[] flushedCopy;
+        appendLock.lock();
+        try {
+            sequence = nextSequence;
+            currentSegment = segmentStart;
+            loggedCopy = logged.clone();
+            flushedCopy = flushed.clone();
+        } finally {
+            appendLock.unlock();
+        }
+        if (sequence == snapshotSequence) {
+            return;
+        }
+        try {
+            sync(sequence);
+            writeSnapshot(sequence, loggedCopy, flushedCopy);
+            snapshotSequence = sequence;
+            for (Path path : segments(directory)) {
+                long start = segmentStart(path);
+                if (start != currentSegment && start + Files.size(path) / RECORD_BYTES <= sequence) {
+                    Files.delete(path);
+                }
+            }
+        } catch (IOException | UncheckedIOException ex) {
+            log.error("Failed to snapshot the vote event log at {}", sequence, ex);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        snapshot();
+        appendLock.lock();
+        try {
+            segment.force();
+            channel.close();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Loads the snapshot, if any, and replays the segments after it.
+    public static Recovery replay(Path directory) throws IOException {
+        long started = System.nanoTime();
+        long[] logged = new long[COUNTERS];
+        long[] flushed = new long[COUNTERS];
+        Path snapshot = directory.resolve(SNAPSHOT);
+        long sequence = Files.exists(snapshot) ? readSnapshot(snapshot, logged, flushed) : 0;
+        long snapshotSequence = sequence;
+        long replayed = 0;
+        long tailSegmentStart = -1;
+        int tailSegmentRecords = 0;
+        for (Path path : segments(directory)) {
+            long start = segmentStart(path);
+            int records = (int) (Files.size(path) / RECORD_BYTES);
+            if (start + records <= sequence) {
+                continue;
+            }
+            if (start > sequence) {
+                throw new IllegalStateException("Vote event log " + directory + " is missing records from " + sequence);
+            }
+            int from = (int) (sequence - start);
+            int end;
+            try (FileChannel readChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, (long) records * RECORD_BYTES);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                end = scan(buffer, from, records, logged, flushed);
+            }
+            replayed += end - from;
+            sequence = start + end;
+            tailSegmentStart = start;
+            tailSegmentRecords = records;
+            if (end < records) {
+                break;
+            }
+        }
+        return new Recovery(sequence, snapshotSequence, logged, flushed, replayed,
+                tailSegmentStart, tailSegmentRecords, System.nanoTime() - started);
+    }
+
+    private long append(byte type, long key, VoteCategory voteCategory, Party party) {
+        long timestamp = System.currentTimeMillis();
+        appendLock.lock();
+        try {
+            if (nextSequence == segmentStart + segmentCapacity) {
+                roll();
+            }
+            int offset = (int) (nextSequence - segmentStart) * RECORD_BYTES;
+            byte category = (byte) voteCategory.ordinal();
+            byte partyOrdinal = (byte) party.ordinal();
+            segment.putLong(offset, key);
+            segment.putLong(offset + 8, timestamp);
+            segment.put(offset + 16, type);
+            segment.put(offset + 17, category);
+            segment.put(offset + 18, partyOrdinal);
+            segment.putInt(offset + 20, check(key, timestamp, type, category, partyOrdinal));
+            int counter = index(category, partyOrdinal);
+            if (type == VOTE) {
+                logged[counter]++;
+            } else {
+                flushed[counter] += key;
+            }
+            return ++nextSequence;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Group commit: whoever holds the sync lock forces everything appended so far, so threads queued
+    // behind it usually find their record already durable and return without an fsync of their own.
+    private void sync(long sequence) {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            MappedByteBuffer target;
+            long from;
+            long to;
+            long start;
+            appendLock.lock();
+            try {
+                target = segment;
+                start = segmentStart;
+                from = Math.max(durableSequence, segmentStart);
+                to = nextSequence;
+            } finally {
+                appendLock.unlock();
+            }
+            // earlier segments were forced in full when they rolled
+            target.force((int) (from - start) * RECORD_BYTES, (int) (to - from) * RECORD_BYTES);
+            durableSequence = to;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void roll() throws IOException {
+        segment.force();
+        channel.close();
+        openSegment(nextSequence, segmentRecords);
+    }
+
+    private void openSegment(long start, int records) throws IOException {
+        channel = FileChannel.open(segmentPath(directory, start),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) records * RECORD_BYTES);
+        segment.order(ByteOrder.LITTLE_ENDIAN);
+        segmentStart = start;
+        segmentCapacity = records;
+        // anything past the recovered tail is a torn or unsynced write; clear it so a later replay cannot pick it up
+        for (int offset = (int) (nextSequence - start) * RECORD_BYTES; offset < records * RECORD_BYTES; offset += 8) {
+            if (segment.getLong(offset) != 0) {
+                segment.putLong(offset, 0);
+            }
+        }
+    }
+
+    private void writeSnapshot(long sequence, long[] loggedCopy, long[] flushedCopy) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(16 + COUNTERS * 16 + 8).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(SNAPSHOT_MAGIC).putInt(COUNTERS).putLong(sequence);
+        for (long count : loggedCopy) {
+            buffer.putLong(count);
+        }
+        for (long count : flushedCopy) {
+            buffer.putLong(count);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue()).flip();
+        Path temporary = directory.resolve(SNAPSHOT + ".tmp");
+        try (FileChannel snapshotChannel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                snapshotChannel.write(buffer);
+            }
+            snapshotChannel.force(true);
+        }
+        Files.move(temporary, directory.resolve(SNAPSHOT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static long readSnapshot(Path snapshot, long[] logged, long[] flushed) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshot)).order(ByteOrder.LITTLE_ENDIAN);
+        int length = 16 + COUNTERS * 16;
+        if (buffer.remaining() != length + 8 || buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != COUNTERS) {
+            throw new IllegalStateException("Vote event log snapshot " + snapshot + " is not readable by this version");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, length);
+        if (buffer.getLong(length) != crc.getValue()) {
+            throw new IllegalStateException("Vote event log snapshot " + snapshot + " is corrupt");
+        }
+        long sequence = buffer.getLong();
+        for (int i = 0; i < COUNTERS; i++) {
+            logged[i] = buffer.getLong();
+        }
+        for (int i = 0; i < COUNTERS; i++) {
+            flushed[i] = buffer.getLong();
+        }
+        return sequence;
+    }
+
+    private static int scan(MappedByteBuffer buffer, int from, int records, long[] logged, long[] flushed) {
+        for (int index = from; index < records; index++) {
+            int offset = index * RECORD_BYTES;
+            long key = buffer.getLong(offset);
+            long timestamp = buffer.getLong(offset + 8);
+            byte type = buffer.get(offset + 16);
+            byte category = buffer.get(offset + 17);
+            byte party = buffer.get(offset + 18);
+            if ((type != VOTE && type != FLUSH)
+                    || category < 0 || category >= CATEGORIES.length || party < 0 || party >= PARTIES.length
+                    || buffer.getInt(offset + 20) != check(key, timestamp, type, category, party)) {
+                return index;
+            }
+            if (type == VOTE) {
+                logged[index(category, party)]++;
+            } else {
+                flushed[index(category, party)] += key;
+            }
+        }
+        return records;
+    }
+
+    private static String logId(Path directory) throws IOException {
+        Path path = directory.resolve(LOG_ID);
+        if (!Files.exists(path)) {
+            Path temporary = directory.resolve(LOG_ID + ".tmp");
+            Files.writeString(temporary, UUID.randomUUID().toString());
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return Files.readString(path).trim();
+    }
+
+    private static int check(long key, long timestamp, byte type, byte category, byte party) {
+        long hash = key * 0x9E3779B97F4A7C15L ^ timestamp;
+        hash = (hash ^ (hash >>> 29)) * 0xBF58476D1CE4E5B9L ^ ((type << 16) | (category << 8) | party);
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    // FNV-1a: the log identifies voters for auditing without storing the BVN itself
+    static long bvnHash(String bvn) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < bvn.length(); i++) {
+            hash ^= bvn.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static int index(int category, int party) {
+        return category * PARTIES.length + party;
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static Path segmentPath(Path directory, long start) {
+        return directory.resolve(String.format("%020d%s", start, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentStart(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    public static final class Recovery {
+        private final long sequence;
+        private final long snapshotSequence;
+        private final long[] logged;
+        private final long[] flushed;
+        private final long replayedRecords;
+        private final long tailSegmentStart;
+        private final int tailSegmentRecords;
+        private final long replayNanos;
+
+        private Recovery(long sequence, long snapshotSequence, long[] logged, long[] flushed, long replayedRecords,
+                         long tailSegmentStart, int tailSegmentRecords, long replayNanos) {
+            this.sequence = sequence;
+            this.snapshotSequence = snapshotSequence;
+            this.logged = logged;
+            this.flushed = flushed;
+            this.replayedRecords = replayedRecords;
+            this.tailSegmentStart = tailSegmentStart;
+            this.tailSegmentRecords = tailSegmentRecords;
+            this.replayNanos = replayNanos;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public long getReplayedRecords() {
+            return replayedRecords;
+        }
+
+        public long getReplayNanos() {
+            return replayNanos;
+        }
+
+        public long getLoggedVotes(VoteCategory voteCategory, Party party) {
+            return logged[index(voteCategory.ordinal(), party.ordinal())];
+        }
+
+        public long getFlushedVotes(VoteCategory voteCategory, Party party) {
+            return flushed[index(voteCategory.ordinal(), party.ordinal())];
+        }
+    }
+}
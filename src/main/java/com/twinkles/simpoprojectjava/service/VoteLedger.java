@@ -0,0 +1,403 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.config.IngestionMode;
+import com.twinkles.simpoprojectjava.exceptions.SimpoProjectException;
+import com.twinkles.simpoprojectjava.model.Constituency;
+import com.twinkles.simpoprojectjava.model.Vote;
+import com.twinkles.simpoprojectjava.repository.AppUserRepository;
+import com.twinkles.simpoprojectjava.repository.VoteRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Write-behind pipeline for votes: request threads enqueue, a single flusher thread
+// coalesces the queue into an unordered bulk insert of Vote rows, one conditional AppUser update per voter (run
+// side by side on a bounded pool of writer threads) and the in-memory tally.
+@Slf4j
+@Component
+public class VoteLedger {
+    public enum Durability {
+        ENQUEUE, FLUSH
+    }
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final VoteRepository voteRepository;
+    private final AppUserRepository appUserRepository;
+    private final VoteTallyEngine voteTallyEngine;
+    private final IngestionMode ingestionMode;
+    private final Durability durability;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final long offerTimeoutMs;
+    private final long flushTimeoutMs;
+    private final BlockingQueue<PendingVote> queue;
+    private final ExecutorService writers;
+
+    private final LongAdder flushedBatches = new LongAdder();
+    private final LongAdder flushedVotes = new LongAdder();
+    private final LongAdder acceptedVotes = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private final LongAccumulator maxBatchSize = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxFlushNanos = new LongAccumulator(Math::max, 0);
+
+    private volatile boolean running;
+    private volatile Thread flusher;
+
+    public VoteLedger(VoteRepository voteRepository,
+                      AppUserRepository appUserRepository,
+                      VoteTallyEngine voteTallyEngine,
+                      @Value("${vote.ingestion.mode:DIRECT}") IngestionMode ingestionMode,
+                      @Value("${vote.ledger.durability:FLUSH}") Durability durability,
+                      @Value("${vote.ledger.capacity:65536}") int capacity,
+                      @Value("${vote.ledger.batch-size:1000}") int batchSize,
+                      @Value("${vote.ledger.max-delay-ms:20}") long maxDelayMs,
+                      @Value("${vote.ledger.offer-timeout-ms:50}") long offerTimeoutMs,
+                      @Value("${vote.ledger.flush-timeout-ms:5000}") long flushTimeoutMs,
+                      @Value("${vote.ledger.write-concurrency:16}") int writeConcurrency) {
+        this.voteRepository = voteRepository;
+        this.appUserRepository = appUserRepository;
+        this.voteTallyEngine = voteTallyEngine;
+        this.ingestionMode = ingestionMode;
+        this.durability = durability;
+        this.batchSize = batchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.flushTimeoutMs = flushTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        // voters are claimed with one findAndModify each; running them side by side keeps a batch from costing
+        // one Mongo round trip per voter
+        this.writers = Executors.newFixedThreadPool(writeConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "vote-ledger-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        if (ingestionMode != IngestionMode.LEDGER) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::run, "vote-ledger-flusher");
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (flusher != null) {
+            flusher.join();
+        }
+        writers.shutdown();
+    }
+
+    // Returns false only when durability is FLUSH and the voter had already voted in the category.
+    public boolean record(Vote vote) {
+        CompletableFuture<Boolean> accepted = enqueue(vote);
+        if (durability == Durability.ENQUEUE) {
+            return true;
+        }
+        try {
+            return accepted.get(flushTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SimpoProjectException("An error occurred while processing your request, please try again later", 500);
+        } catch (ExecutionException | TimeoutException ex) {
+            throw new SimpoProjectException("An error occurred while processing your request, please try again later", 500);
+        }
+    }
+
+    public CompletableFuture<Boolean> enqueue(Vote vote) {
+        checkAccepting();
+        PendingVote pendingVote = new PendingVote(vote, new CompletableFuture<>());
+        try {
+            if (!queue.offer(pendingVote, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SimpoProjectException("Too many votes are being processed, please try again shortly", 503);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SimpoProjectException("An error occurred while processing your request, please try again later", 500);
+        }
+        return pendingVote.accepted;
+    }
+
+    // For event loop callers: a full queue is rejected at once instead of waiting offerTimeoutMs for room.
+    public CompletableFuture<Boolean> tryEnqueue(Vote vote) {
+        checkAccepting();
+        PendingVote pendingVote = new PendingVote(vote, new CompletableFuture<>());
+        if (!queue.offer(pendingVote)) {
+            throw new SimpoProjectException("Too many votes are being processed, please try again shortly", 503);
+        }
+        return pendingVote.accepted;
+    }
+
+    private void checkAccepting() {
+        if (flusher != null && !running) {
+            // stopping, or the flusher has died; either way nothing would take this vote off the queue
+            throw new SimpoProjectException("An error occurred while processing your request, please try again later", 503);
+        }
+    }
+
+    // Persists a batch of votes and returns the ones that were counted. The voter's AppUser mask decides, not the
+    // Vote index: a vote is counted only by the update that sets its category bit, so a vote the DIRECT path already
+    // claimed before handing it to Kafka, or one replayed after a failed batch, is never counted twice.
+    public List<Vote> apply(List<Vote> votes) {
+        if (votes.isEmpty()) {
+            return votes;
+        }
+        // Vote rows are the audit trail; rows left by an earlier attempt at this batch come back as duplicates
+        voteRepository.insertNew(votes);
+        List<CompletableFuture<List<Vote>>> claims = new ArrayList<>();
+        for (List<Vote> voterVotes : byVoter(votes, vote -> vote).values()) {
+            claims.add(CompletableFuture.supplyAsync(
+                    () -> tally(voterVotes, appUserRepository.markVoted(voterVotes.get(0).getBVN(), requested(voterVotes))),
+                    writers));
+        }
+        // every claim has finished before a failure is rethrown, so a retry of the batch never races this one
+        List<Vote> accepted = new ArrayList<>(votes.size());
+        RuntimeException failure = null;
+        for (CompletableFuture<List<Vote>> claim : claims) {
+            try {
+                accepted.addAll(claim.join());
+            } catch (CompletionException ex) {
+                if (failure == null) {
+                    failure = ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause() : ex;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return accepted;
+    }
+
+    private static int requested(List<Vote> voterVotes) {
+        int requested = 0;
+        for (Vote vote : voterVotes) {
+            requested |= vote.getVoteCategory().mask();
+        }
+        return requested;
+    }
+
+    // Counts the votes whose category bit was clear in the mask the AppUser update replaced.
+    private List<Vote> tally(List<Vote> voterVotes, int previous) {
+        int claimed = requested(voterVotes) & ~previous;
+        List<Vote> counted = new ArrayList<>(voterVotes.size());
+        for (Vote vote : voterVotes) {
+            int mask = vote.getVoteCategory().mask();
+            if ((claimed & mask) != 0) {
+                claimed &= ~mask;
+                voteTallyEngine.record(vote.getBVN(), Constituency.of(vote.getState(), vote.getLga()), vote.getVoteCategory(), vote.getParty());
+                counted.add(vote);
+            }
+        }
+        return counted;
+    }
+
+    private static <T> Map<String, List<T>> byVoter(List<T> items, Function<T, Vote> vote) {
+        Map<String, List<T>> byVoter = new LinkedHashMap<>();
+        for (T item : items) {
+            byVoter.computeIfAbsent(vote.apply(item).getBVN(), bvn -> new ArrayList<>(1)).add(item);
+        }
+        return byVoter;
+    }
+
+    private void run() {
+        List<PendingVote> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingVote first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    PendingVote next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException ex) {
+                // nothing is left to flush the queue, so fail what is in it rather than let callers wait it out
+                running = false;
+                queue.drainTo(batch);
+                log.error("Vote ledger flusher interrupted, failing {} queued votes", batch.size());
+                SimpoProjectException failure = new SimpoProjectException("An error occurred while processing your request, please try again later", 503);
+                for (PendingVote pendingVote : batch) {
+                    pendingVote.accepted.completeExceptionally(failure);
+                }
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Each voter's update is retried and failed on its own, so one bad write only bounces that voter's request, and
+    // since apply is keyed on the AppUser mask the caller can simply send the vote again. Callers are answered only
+    // after the counters are updated, so one that sees its vote accepted also sees it in getAcceptedVotes.
+    private void flush(List<PendingVote> batch) {
+        long start = System.nanoTime();
+        List<Vote> votes = new ArrayList<>(batch.size());
+        for (PendingVote pendingVote : batch) {
+            votes.add(pendingVote.vote);
+        }
+        List<List<PendingVote>> voters = new ArrayList<>(byVoter(batch, pendingVote -> pendingVote.vote).values());
+        List<CompletableFuture<Set<Vote>>> claims = new ArrayList<>(voters.size());
+        try {
+            retrying(() -> voteRepository.insertNew(votes));
+            for (List<PendingVote> voter : voters) {
+                claims.add(claim(voter));
+            }
+        } catch (RuntimeException ex) {
+            // only insertNew throws here, before any voter was claimed
+            log.error("Failed to flush a batch of {} votes", batch.size(), ex);
+            for (int i = 0; i < voters.size(); i++) {
+                claims.add(CompletableFuture.failedFuture(ex));
+            }
+        }
+        int accepted = 0;
+        for (CompletableFuture<Set<Vote>> claim : claims) {
+            accepted += claim.handle((counted, ex) -> ex == null ? counted.size() : 0).join();
+        }
+        long elapsed = System.nanoTime() - start;
+        acceptedVotes.add(accepted);
+        flushedBatches.increment();
+        flushedVotes.add(batch.size());
+        flushNanos.add(elapsed);
+        maxBatchSize.accumulate(batch.size());
+        maxFlushNanos.accumulate(elapsed);
+        for (int i = 0; i < voters.size(); i++) {
+            answer(voters.get(i), claims.get(i));
+        }
+    }
+
+    // Claims one voter's categories on a writer thread; completes with the votes that were counted.
+    private CompletableFuture<Set<Vote>> claim(List<PendingVote> voter) {
+        List<Vote> voterVotes = new ArrayList<>(voter.size());
+        for (PendingVote pendingVote : voter) {
+            voterVotes.add(pendingVote.vote);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                int previous = retrying(() -> appUserRepository.markVoted(voterVotes.get(0).getBVN(), requested(voterVotes)));
+                Set<Vote> counted = Collections.newSetFromMap(new IdentityHashMap<>());
+                counted.addAll(tally(voterVotes, previous));
+                return counted;
+            } catch (RuntimeException ex) {
+                log.error("Failed to record {} votes for one voter", voter.size(), ex);
+                throw ex;
+            }
+        }, writers);
+    }
+
+    private static void answer(List<PendingVote> voter, CompletableFuture<Set<Vote>> claim) {
+        claim.whenComplete((counted, ex) -> {
+            for (PendingVote pendingVote : voter) {
+                if (ex == null) {
+                    pendingVote.accepted.complete(counted.contains(pendingVote.vote));
+                } else {
+                    pendingVote.accepted.completeExceptionally(ex instanceof CompletionException ? ex.getCause() : ex);
+                }
+            }
+        });
+    }
+
+    // Rides out a replica set election or a pool wait on the flusher thread before any caller sees an error.
+    private static <T> T retrying(Supplier<T> write) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return write.get();
+            } catch (RuntimeException ex) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw ex;
+                }
+                log.warn("Vote ledger write failed, retrying (attempt {} of {})", attempt, MAX_ATTEMPTS, ex);
+                LockSupport.parkNanos(RETRY_BACKOFF_NANOS * attempt);
+            }
+        }
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public int getQueuedVotes() {
+        return queue.size();
+    }
+
+    public long getFlushedBatches() {
+        return flushedBatches.sum();
+    }
+
+    public long getFlushedVotes() {
+        return flushedVotes.sum();
+    }
+
+    public long getAcceptedVotes() {
+        return acceptedVotes.sum();
+    }
+
+    public double getAverageBatchSize() {
+        long batches = flushedBatches.sum();
+        return batches == 0 ? 0 : (double) flushedVotes.sum() / batches;
+    }
+
+    public long getMaxBatchSize() {
+        return maxBatchSize.get();
+    }
+
+    public double getAverageFlushMillis() {
+        long batches = flushedBatches.sum();
+        return batches == 0 ? 0 : flushNanos.sum() / 1_000_000.0 / batches;
+    }
+
+    public double getMaxFlushMillis() {
+        return maxFlushNanos.get() / 1_000_000.0;
+    }
+
+    private static final class PendingVote {
+        private final Vote vote;
+        private final CompletableFuture<Boolean> accepted;
+
+        private PendingVote(Vote vote, CompletableFuture<Boolean> accepted) {
+            this.vote = vote;
+            this.accepted = accepted;
+        }
+    }
+}
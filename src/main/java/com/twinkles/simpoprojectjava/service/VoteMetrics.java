@@ -0,0 +1,144 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.exceptions.SimpoProjectException;
+import com.twinkles.simpoprojectjava.exceptions.ValidationErrors;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Every meter is registered up front and looked up by array index or identity, so recording on the vote path is
+// a lock-free increment with no tag or sample allocation.
+@Component
+public class VoteMetrics {
+    private static final VoteCategory[] CATEGORIES = VoteCategory.values();
+
+    private final Timer[] acceptedVotes = new Timer[CATEGORIES.length];
+    private final Timer[] rejectedVotes = new Timer[CATEGORIES.length];
+    private final Timer acceptedBallots;
+    private final Timer rejectedBallots;
+    private final Map<SimpoProjectException, Counter> rejectionsByError = new IdentityHashMap<>();
+    private final Counter invalidSessionRejections;
+    private final Counter overloadedRejections;
+    private final Counter failedRejections;
+    private final Counter otherRejections;
+    private final Counter kafkaFallbacks;
+    private final Timer listenerLag;
+    private final Timer listenerBatches;
+    private final Counter unreadableRecords;
+    private final Timer bvnSuccesses;
+    private final Timer bvnFailures;
+    private final Timer bvnTimeouts;
+
+    public VoteMetrics(MeterRegistry meterRegistry) {
+        for (VoteCategory voteCategory : CATEGORIES) {
+            acceptedVotes[voteCategory.ordinal()] = latency("vote.cast", meterRegistry, "category", voteCategory.name(), "outcome", "accepted");
+            rejectedVotes[voteCategory.ordinal()] = latency("vote.cast", meterRegistry, "category", voteCategory.name(), "outcome", "rejected");
+        }
+        acceptedBallots = latency("vote.ballot", meterRegistry, "outcome", "accepted");
+        rejectedBallots = latency("vote.ballot", meterRegistry, "outcome", "rejected");
+        rejectionsByError.put(ValidationErrors.INVALID_CREDENTIALS, rejections(meterRegistry, "invalid_credentials"));
+        rejectionsByError.put(ValidationErrors.INVALID_VOTE_CATEGORY, rejections(meterRegistry, "invalid_vote_category"));
+        rejectionsByError.put(ValidationErrors.INVALID_PARTY, rejections(meterRegistry, "invalid_party"));
+        rejectionsByError.put(ValidationErrors.NO_CANDIDATE, rejections(meterRegistry, "no_candidate"));
+        rejectionsByError.put(ValidationErrors.ALREADY_VOTED, rejections(meterRegistry, "already_voted"));
+        rejectionsByError.put(ValidationErrors.EMPTY_BALLOT, rejections(meterRegistry, "empty_ballot"));
+        invalidSessionRejections = rejections(meterRegistry, "invalid_session");
+        overloadedRejections = rejections(meterRegistry, "overloaded");
+        failedRejections = rejections(meterRegistry, "error");
+        otherRejections = rejections(meterRegistry, "other");
+        kafkaFallbacks = Counter.builder("vote.kafka.fallback")
+                .description("Votes handed to Kafka because Mongo was unavailable")
+                .register(meterRegistry);
+        listenerLag = Timer.builder("vote.kafka.listener.lag")
+                .description("Time between a vote being published and the listener applying it")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(10))
+                .register(meterRegistry);
+        listenerBatches = latency("vote.kafka.listener.batch", meterRegistry);
+        unreadableRecords = Counter.builder("vote.kafka.listener.unreadable").register(meterRegistry);
+        bvnSuccesses = latency("bvn.provider", meterRegistry, "outcome", "success");
+        bvnFailures = latency("bvn.provider", meterRegistry, "outcome", "failure");
+        bvnTimeouts = latency("bvn.provider", meterRegistry, "outcome", "timeout");
+    }
+
+    public void voteAccepted(VoteCategory voteCategory, long startNanos) {
+        acceptedVotes[voteCategory.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void voteRejected(VoteCategory voteCategory, long startNanos, SimpoProjectException reason) {
+        rejectedVotes[voteCategory.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        rejection(reason).increment();
+    }
+
+    public void ballotAccepted(long startNanos) {
+        acceptedBallots.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void ballotRejected(long startNanos, SimpoProjectException reason) {
+        rejectedBallots.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        rejection(reason).increment();
+    }
+
+    public void kafkaFallback() {
+        kafkaFallbacks.increment();
+    }
+
+    public void listenerRecordLag(long publishedAtMillis) {
+        listenerLag.record(Math.max(System.currentTimeMillis() - publishedAtMillis, 0), TimeUnit.MILLISECONDS);
+    }
+
+    public void listenerBatch(long startNanos) {
+        listenerBatches.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void unreadableRecord() {
+        unreadableRecords.increment();
+    }
+
+    public void bvnCall(long startNanos, boolean succeeded, boolean timedOut) {
+        Timer timer = succeeded ? bvnSuccesses : timedOut ? bvnTimeouts : bvnFailures;
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Preallocated validation errors are matched by identity; the rest are grouped by status code.
+    private Counter rejection(SimpoProjectException reason) {
+        Counter counter = rejectionsByError.get(reason);
+        if (counter != null) {
+            return counter;
+        }
+        switch (reason.getStatusCode()) {
+            case 401:
+                return invalidSessionRejections;
+            case 503:
+                return overloadedRejections;
+            case 500:
+                return failedRejections;
+            default:
+                return otherRejections;
+        }
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("vote.rejected")
+                .description("Rejected vote and ballot requests by reason")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static Timer latency(String name, MeterRegistry meterRegistry, String... tags) {
+        return Timer.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,122 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.exceptions.SimpoProjectException;
+import com.twinkles.simpoprojectjava.model.Constituency;
+import com.twinkles.simpoprojectjava.model.VoterCredentials;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+
+// Stateless voting-session tokens: base64url(BVN.votedCategories.expiresAt.state.lga) + "." + base64url(HMAC-SHA256),
+// with state and LGA base64url-encoded since place names may contain dots. Tokens issued before the constituency
+// was carried have three fields and count towards Constituency.UNKNOWN until the voter logs in again.
+// Verifying one costs a single HMAC, so votes no longer pay for the password hash. votedCategories is only a
+// lower bound taken at login; the vote path still relies on markVoted for the authoritative check.
+@Slf4j
+@Component
+public class VoteSessionTokens {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final Clock clock;
+    private final ThreadLocal<Mac> macs;
+
+    @Autowired
+    public VoteSessionTokens(@Value("${vote.session.secret:}") String secret,
+                             @Value("${vote.session.ttl-minutes:30}") long ttlMinutes) {
+        this(secret, Duration.ofMinutes(ttlMinutes), Clock.systemUTC());
+    }
+
+    VoteSessionTokens(String secret, Duration ttl, Clock clock) {
+        this.key = new SecretKeySpec(keyBytes(secret), ALGORITHM);
+        this.ttl = ttl;
+        this.clock = clock;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String issue(VoterCredentials voterCredentials) {
+        Constituency constituency = voterCredentials.getConstituency();
+        String payload = voterCredentials.getBVN() + "." + voterCredentials.getVotedCategories() + "." + expiresAt()
+                + "." + encode(constituency.getState()) + "." + encode(constituency.getLga());
+        return ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    public long expiresAt() {
+        return clock.instant().plus(ttl).getEpochSecond();
+    }
+
+    // Returns the voter the token was issued to, with the categories they had voted in at login.
+    public VoterCredentials verify(String token) {
+        int separator = token == null ? -1 : token.indexOf('.');
+        if (separator < 0) {
+            throw invalidSession();
+        }
+        String payload;
+        byte[] signature;
+        try {
+            payload = new String(DECODER.decode(token.substring(0, separator)), StandardCharsets.UTF_8);
+            signature = DECODER.decode(token.substring(separator + 1));
+        } catch (IllegalArgumentException ex) {
+            throw invalidSession();
+        }
+        if (!MessageDigest.isEqual(sign(payload), signature)) {
+            throw invalidSession();
+        }
+        String[] fields = payload.split("\\.");
+        if ((fields.length != 3 && fields.length != 5) || Long.parseLong(fields[2]) < clock.instant().getEpochSecond()) {
+            throw invalidSession();
+        }
+        Constituency constituency = fields.length == 5 ? Constituency.of(decode(fields[3]), decode(fields[4])) : Constituency.UNKNOWN;
+        return new VoterCredentials(fields[0], null, Integer.parseInt(fields[1]), constituency);
+    }
+
+    private static String encode(String place) {
+        return ENCODER.encodeToString(place.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String place) {
+        return new String(DECODER.decode(place), StandardCharsets.UTF_8);
+    }
+
+    private byte[] sign(String payload) {
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static byte[] keyBytes(String secret) {
+        if (secret != null && !secret.isBlank()) {
+            return secret.getBytes(StandardCharsets.UTF_8);
+        }
+        log.warn("vote.session.secret is not set; using a random key, so sessions will not survive a restart or work across nodes");
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        return random;
+    }
+
+    private static SimpoProjectException invalidSession() {
+        return new SimpoProjectException("Invalid or expired voting session, please log in again", 401);
+    }
+}
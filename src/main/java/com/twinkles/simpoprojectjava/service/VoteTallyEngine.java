@@ -0,0 +1,243 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.config.TallyMode;
+import com.twinkles.simpoprojectjava.dtos.requests.ViewResultResponse;
+import com.twinkles.simpoprojectjava.model.Constituency;
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.repository.CandidateRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+// Votes are counted in striped in-memory counters and pushed to Mongo as a single $inc per
+// (category, party) on every flush, so concurrent voters never read-modify-write a Candidate.
+// With the VoteEventLog enabled every counted vote and every delta about to be flushed is logged first, so votes
+// still pending when the node died are re-added on restart instead of being lost, and none is added twice. Without
+// it the flushed totals are kept in memory under a marker for this process, so a failed $inc is still never
+// applied twice, but votes pending at a crash are lost.
+// Each vote is also counted against the voter's constituency; see ConstituencyTally.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VoteTallyEngine {
+    private static final VoteCategory[] CATEGORIES = VoteCategory.values();
+    private static final Party[] PARTIES = Party.values();
+
+    private final CandidateRepository candidateRepository;
+    private final ResultsView resultsView;
+    private final ConstituencyTally constituencyTally;
+    private final LongAdder[] pending = newCounters();
+    // deltas whose $inc failed in a way that leaves it unknown whether Mongo applied them
+    private final long[] inDoubt = new long[CATEGORIES.length * PARTIES.length];
+    // what flushedVotes() would read from the event log, for a node running without one
+    private final long[] flushedWithoutLog = new long[CATEGORIES.length * PARTIES.length];
+    private final String processMarker = "process-" + UUID.randomUUID();
+
+    @Value("${vote.tally.mode:LOCAL}")
+    private TallyMode tallyMode = TallyMode.LOCAL;
+
+    @Autowired(required = false)
+    private VoteEventLog voteEventLog;
+
+    @PostConstruct
+    public void recover() {
+        if (voteEventLog == null) {
+            return;
+        }
+        // a crash can leave the last flush of a counter logged but not applied; the Candidate marker settles it
+        for (int i = 0; i < pending.length; i++) {
+            VoteCategory voteCategory = CATEGORIES[i / PARTIES.length];
+            Party party = PARTIES[i % PARTIES.length];
+            long stored = candidateRepository.startFlushedVoteCount(voteCategory, party, voteEventLog.getLogId(),
+                    voteEventLog.getFlushedVotes(voteCategory, party));
+            if (stored >= 0) {
+                settle(voteCategory, party, stored);
+            }
+        }
+        voteEventLog.sync();
+        long[] unflushed = voteEventLog.unflushed();
+        long recovered = 0;
+        for (int i = 0; i < unflushed.length; i++) {
+            if (unflushed[i] > 0) {
+                pending[i].add(unflushed[i]);
+                // the log does not carry constituencies, so keep states summing to the national total
+                constituencyTally.add(Constituency.UNKNOWN, CATEGORIES[i / PARTIES.length], PARTIES[i % PARTIES.length], unflushed[i]);
+                recovered += unflushed[i];
+            }
+        }
+        if (recovered > 0) {
+            log.info("Recovered {} unflushed votes from the vote event log", recovered);
+        }
+    }
+
+    public void record(String bvn, Constituency constituency, VoteCategory voteCategory, Party party) {
+        if (voteEventLog != null) {
+            voteEventLog.appendVote(bvn, voteCategory, party);
+        }
+        pending[index(voteCategory, party)].increment();
+        constituencyTally.record(constituency, voteCategory, party);
+    }
+
+    // For a vote counted nationally in Redis (TallyMode.REDIS): only its constituency is counted here, and flushed to
+    // RegionalTally with the local votes.
+    public void recordConstituency(Constituency constituency, VoteCategory voteCategory, Party party) {
+        constituencyTally.record(constituency, voteCategory, party);
+    }
+
+    // True when record() waits for an fsync, so non-blocking callers must move it off their event loop.
+    public boolean recordBlocks() {
+        return voteEventLog != null && voteEventLog.getDurability() == VoteEventLog.Durability.SYNC;
+    }
+
+    public long pendingCount(VoteCategory voteCategory, Party party) {
+        return pending[index(voteCategory, party)].sum();
+    }
+
+    // A null lga asks for the whole state.
+    public ViewResultResponse regionalResult(VoteCategory voteCategory, String state, String lga) {
+        return lga == null ? constituencyTally.result(voteCategory, state) : constituencyTally.result(voteCategory, state, lga);
+    }
+
+    // With the event log each delta is logged and synced before its $inc, and the $inc is conditional on the
+    // Candidate's marker for this log, so a crash at any point neither loses a flushed delta nor applies it twice.
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${vote.tally.flush-interval-ms:500}")
+    public synchronized void flush() {
+        long[] flushed = new long[pending.length];
+        long[] deltas = new long[pending.length];
+        long[] flushedBefore = new long[pending.length];
+        boolean any = false;
+        for (int i = 0; i < pending.length; i++) {
+            VoteCategory voteCategory = CATEGORIES[i / PARTIES.length];
+            Party party = PARTIES[i % PARTIES.length];
+            if (inDoubt[i] != 0) {
+                try {
+                    long stored = candidateRepository.flushedVoteCount(voteCategory, party, marker());
+                    if (stored < 0) {
+                        log.error("No {} candidate for {} to flush {} votes into", voteCategory, party, inDoubt[i]);
+                        continue;
+                    }
+                    long missing = settle(voteCategory, party, stored);
+                    if (missing > 0) {
+                        pending[i].add(missing);
+                    }
+                    long landed = inDoubt[i] - missing;
+                    inDoubt[i] = 0;
+                    flushed[i] = landed;
+                    any |= landed != 0;
+                } catch (RuntimeException ex) {
+                    // keep this counter's votes pending until Mongo can say whether the last delta landed
+                    log.error("Failed to check the last flush for {} {}", voteCategory, party, ex);
+                    continue;
+                }
+            }
+            deltas[i] = pending[i].sumThenReset();
+            if (deltas[i] != 0) {
+                flushedBefore[i] = flushedVotes(voteCategory, party);
+                appendFlush(voteCategory, party, deltas[i]);
+            }
+        }
+        if (voteEventLog != null) {
+            voteEventLog.sync();
+        }
+        for (int i = 0; i < pending.length; i++) {
+            long delta = deltas[i];
+            if (delta == 0) {
+                continue;
+            }
+            VoteCategory voteCategory = CATEGORIES[i / PARTIES.length];
+            Party party = PARTIES[i % PARTIES.length];
+            try {
+                if (!candidateRepository.incrementVoteCount(voteCategory, party, delta, marker(), flushedBefore[i])) {
+                    log.error("Flush marker for {} {} did not match, checking it on the next flush", voteCategory, party);
+                    inDoubt[i] = delta;
+                    continue;
+                }
+            } catch (RuntimeException ex) {
+                // the $inc may still have been applied; the next flush reads the marker to find out
+                log.error("Failed to flush {} votes for {} {}", delta, voteCategory, party, ex);
+                inDoubt[i] = delta;
+                continue;
+            }
+            flushed[i] += delta;
+            any = true;
+        }
+        constituencyTally.flush();
+        if (any) {
+            for (VoteCategory voteCategory : CATEGORIES) {
+                int from = voteCategory.ordinal() * PARTIES.length;
+                long[] categoryDeltas = Arrays.copyOfRange(flushed, from, from + PARTIES.length);
+                if (Arrays.stream(categoryDeltas).anyMatch(delta -> delta != 0)) {
+                    resultsView.apply(voteCategory, categoryDeltas);
+                }
+            }
+        }
+    }
+
+    // Brings the flushed total in line with what Mongo holds under this node's marker and returns how many flushed
+    // votes turned out not to be in Mongo; they count as unflushed again.
+    private long settle(VoteCategory voteCategory, Party party, long stored) {
+        long missing = flushedVotes(voteCategory, party) - stored;
+        if (missing != 0) {
+            log.warn("{} flushed votes for {} {} never reached Mongo, re-queueing them", missing, voteCategory, party);
+            appendFlush(voteCategory, party, -missing);
+        }
+        return missing;
+    }
+
+    // The Candidate.flushedBy key this node's $inc is conditional on.
+    private String marker() {
+        return voteEventLog != null ? voteEventLog.getLogId() : processMarker;
+    }
+
+    private long flushedVotes(VoteCategory voteCategory, Party party) {
+        return voteEventLog != null ? voteEventLog.getFlushedVotes(voteCategory, party) : flushedWithoutLog[index(voteCategory, party)];
+    }
+
+    private void appendFlush(VoteCategory voteCategory, Party party, long delta) {
+        if (voteEventLog != null) {
+            voteEventLog.appendFlush(voteCategory, party, delta);
+        } else {
+            flushedWithoutLog[index(voteCategory, party)] += delta;
+        }
+    }
+
+    // Picks up votes counted by other nodes. Runs under the flush lock so a reload can never
+    // observe an $inc whose delta is about to be applied to the view a second time.
+    @Scheduled(fixedDelayString = "${vote.results.refresh-interval-ms:5000}")
+    public synchronized void refreshResults() {
+        for (VoteCategory voteCategory : CATEGORIES) {
+            try {
+                // in REDIS mode RedisTallyReconciler feeds the national view from the cluster-wide counts
+                if (tallyMode != TallyMode.REDIS) {
+                    resultsView.reload(voteCategory, candidateRepository.findCandidateByVoteCategory(voteCategory));
+                }
+                constituencyTally.reload(voteCategory);
+            } catch (RuntimeException ex) {
+                log.error("Failed to refresh {} results", voteCategory, ex);
+            }
+        }
+    }
+
+    private static int index(VoteCategory voteCategory, Party party) {
+        return voteCategory.ordinal() * PARTIES.length + party.ordinal();
+    }
+
+    private static LongAdder[] newCounters() {
+        LongAdder[] counters = new LongAdder[CATEGORIES.length * PARTIES.length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+}
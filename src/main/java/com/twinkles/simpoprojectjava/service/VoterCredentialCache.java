@@ -0,0 +1,65 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.model.VoterCredentials;
+import com.twinkles.simpoprojectjava.repository.AppUserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+public class VoterCredentialCache {
+    private final AppUserRepository appUserRepository;
+    private final Cache<String, VoterCredentials> cache;
+
+    public VoterCredentialCache(AppUserRepository appUserRepository,
+                                @Value("${vote.voter-cache.max-size:1000000}") long maxSize,
+                                @Value("${vote.voter-cache.ttl-minutes:30}") long ttlMinutes) {
+        this.appUserRepository = appUserRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+    }
+
+    public VoterCredentials get(String bvn) {
+        VoterCredentials voterCredentials = cache.getIfPresent(bvn);
+        if (voterCredentials == null) {
+            voterCredentials = appUserRepository.findCredentialsByBVN(bvn);
+            if (voterCredentials != null) {
+                cache.put(bvn, voterCredentials);
+            }
+        }
+        return voterCredentials;
+    }
+
+    // For callers that load credentials themselves, e.g. the reactive repository.
+    public VoterCredentials getIfPresent(String bvn) {
+        return cache.getIfPresent(bvn);
+    }
+
+    public void put(VoterCredentials voterCredentials) {
+        cache.put(voterCredentials.getBVN(), voterCredentials);
+    }
+
+    public void markVoted(String bvn, VoteCategory voteCategory) {
+        cache.asMap().computeIfPresent(bvn, (key, voterCredentials) -> voterCredentials.withVoted(voteCategory));
+    }
+
+    public void invalidate(String bvn) {
+        cache.invalidate(bvn);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public Cache<String, VoterCredentials> getCache() {
+        return cache;
+    }
+}
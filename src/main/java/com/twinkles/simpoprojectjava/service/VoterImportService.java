@@ -0,0 +1,169 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.twinkles.simpoprojectjava.dtos.requests.ImportVoterRequest;
+import com.twinkles.simpoprojectjava.dtos.responses.BulkImportResponse;
+import com.twinkles.simpoprojectjava.exceptions.SimpoProjectException;
+import com.twinkles.simpoprojectjava.model.AppUser;
+import com.twinkles.simpoprojectjava.model.Constituency;
+import com.twinkles.simpoprojectjava.model.Gender;
+import com.twinkles.simpoprojectjava.repository.AppUserRepository;
+import com.twinkles.simpoprojectjava.utils.LongHashSet;
+import com.twinkles.simpoprojectjava.utils.UtilsClass;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Streams a pre-verified voter roll (NDJSON or CSV with a header row) into AppUser in unordered bulk inserts.
+// Rows are read one at a time, so memory use is bounded by the batch size plus the set of BVNs seen.
+@Slf4j
+@Service
+public class VoterImportService {
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    private final AppUserRepository appUserRepository;
+    private final UsernameAllocator usernameAllocator;
+    private final PasswordEncoder passwordEncoder;
+    private final ObjectReader ndjsonReader;
+    private final ObjectReader csvReader;
+    private final int batchSize;
+    private final int expectedRows;
+
+    public VoterImportService(AppUserRepository appUserRepository,
+                              UsernameAllocator usernameAllocator,
+                              PasswordEncoder passwordEncoder,
+                              ObjectMapper objectMapper,
+                              @Value("${vote.import.batch-size:5000}") int batchSize,
+                              @Value("${vote.import.expected-rows:1000000}") int expectedRows) {
+        this.appUserRepository = appUserRepository;
+        this.usernameAllocator = usernameAllocator;
+        this.passwordEncoder = passwordEncoder;
+        this.ndjsonReader = objectMapper.readerFor(ImportVoterRequest.class);
+        this.csvReader = new CsvMapper().readerFor(ImportVoterRequest.class).with(CsvSchema.emptySchema().withHeader());
+        this.batchSize = batchSize;
+        this.expectedRows = expectedRows;
+    }
+
+    public BulkImportResponse importVoters(InputStream inputStream, Format format) {
+        long start = System.nanoTime();
+        LongHashSet seenBvns = new LongHashSet(expectedRows);
+        List<AppUser> batch = new ArrayList<>(batchSize);
+        long rowsRead = 0;
+        long imported = 0;
+        long invalid = 0;
+        long duplicatesInFile = 0;
+        long duplicatesInDatabase = 0;
+        try (MappingIterator<ImportVoterRequest> rows = reader(format).readValues(inputStream)) {
+            while (rows.hasNextValue()) {
+                ImportVoterRequest row = rows.nextValue();
+                rowsRead++;
+                long bvn = parseBvn(row.getBVN());
+                Gender gender = parseGender(row.getGender());
+                if (bvn < 0 || row.getPassword() == null || row.getFirst_name() == null || gender == null) {
+                    invalid++;
+                    continue;
+                }
+                if (!seenBvns.add(bvn)) {
+                    duplicatesInFile++;
+                    continue;
+                }
+                batch.add(buildAppUser(row, gender, usernameAllocator.allocate(row.getFirst_name()), hashPassword(row.getPassword())));
+                if (batch.size() == batchSize) {
+                    int inserted = appUserRepository.insertNew(batch);
+                    imported += inserted;
+                    duplicatesInDatabase += batch.size() - inserted;
+                    batch.clear();
+                    log.info("Voter import: {} rows read, {} imported, {} rejected, {} rows/s", rowsRead, imported,
+                            invalid + duplicatesInFile + duplicatesInDatabase, (long) rowsPerSecond(rowsRead, start));
+                }
+            }
+            if (!batch.isEmpty()) {
+                int inserted = appUserRepository.insertNew(batch);
+                imported += inserted;
+                duplicatesInDatabase += batch.size() - inserted;
+            }
+        } catch (JsonProcessingException ex) {
+            throw new SimpoProjectException("Voter roll could not be read after " + rowsRead + " rows: " + ex.getOriginalMessage(), 400);
+        } catch (IOException ex) {
+            throw new SimpoProjectException("Voter roll could not be read after " + rowsRead + " rows: " + ex.getMessage(), 400);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Voter import finished: {} rows read, {} imported in {} ms", rowsRead, imported, elapsedMillis);
+        return new BulkImportResponse(rowsRead, imported, invalid, duplicatesInFile, duplicatesInDatabase, elapsedMillis,
+                rowsPerSecond(rowsRead, start));
+    }
+
+    private ObjectReader reader(Format format) {
+        return format == Format.CSV ? csvReader : ndjsonReader;
+    }
+
+    private static AppUser buildAppUser(ImportVoterRequest row, Gender gender, String username, String password) {
+        return AppUser.builder()
+                .BVN(row.getBVN())
+                .date_of_birth(row.getDate_of_birth())
+                .email(row.getEmail())
+                .first_name(row.getFirst_name())
+                .last_name(row.getLast_name())
+                .middle_name(row.getMiddle_name())
+                .gender(gender)
+                .password(password)
+                .phoneNumber(row.getPhone_number())
+                .nationality(row.getNationality())
+                .address(row.getAddress())
+                .state(Constituency.normalise(row.getState_of_residence()))
+                .lga(Constituency.normalise(row.getLga_of_residence()))
+                .username(username)
+                .build();
+    }
+
+    // rolls exported from another system may already carry bcrypt hashes; those are stored as-is
+    private String hashPassword(String password) {
+        return UtilsClass.isHashed(password) ? password : passwordEncoder.encode(password);
+    }
+
+    // BVNs are 11 digits, so they fit in a long and can be deduplicated without boxing.
+    private static long parseBvn(String bvn) {
+        if (bvn == null || bvn.length() != 11) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < bvn.length(); i++) {
+            char digit = bvn.charAt(i);
+            if (digit < '0' || digit > '9') {
+                return -1;
+            }
+            value = value * 10 + (digit - '0');
+        }
+        return value;
+    }
+
+    private static Gender parseGender(String gender) {
+        if (gender == null) {
+            return Gender.OTHERS;
+        }
+        try {
+            return Gender.valueOf(gender.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static double rowsPerSecond(long rows, long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return seconds == 0 ? 0 : rows / seconds;
+    }
+}
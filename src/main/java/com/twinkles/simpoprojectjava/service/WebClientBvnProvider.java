@@ -0,0 +1,37 @@
+package com.twinkles.simpoprojectjava.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+// Calls the Flutterwave BVN endpoint over the shared reactor-netty client instead of the SDK's blocking HTTP call.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class WebClientBvnProvider implements ReactiveBvnProvider {
+    private final WebClient webClient;
+
+    public WebClientBvnProvider(WebClient.Builder webClientBuilder,
+                                @Value("${vote.bvn.url:https://api.flutterwave.com/v3/kyc/bvns}") String url,
+                                @Value("${vote.bvn.secret-key:}") String secretKey) {
+        this.webClient = webClientBuilder
+                .baseUrl(url)
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + secretKey)
+                .build();
+    }
+
+    // 4xx bodies carry the provider's "error" status and message, so they are returned like a success;
+    // only 5xx responses fail the call and count towards BvnValidationClient's circuit breaker.
+    @Override
+    public Mono<String> validate(String bvn) {
+        return webClient.get()
+                .uri("/{bvn}", bvn)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchangeToMono(response -> response.statusCode().is5xxServerError()
+                        ? response.createException().<String>flatMap(Mono::error)
+                        : response.bodyToMono(String.class));
+    }
+}
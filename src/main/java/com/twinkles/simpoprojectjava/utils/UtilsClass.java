@@ -1,48 +1,99 @@
 package com.twinkles.simpoprojectjava.utils;
 
 import com.twinkles.simpoprojectjava.dtos.requests.CastVoteRequest;
-import com.twinkles.simpoprojectjava.exceptions.SimpoProjectException;
+import com.twinkles.simpoprojectjava.dtos.requests.CreateAccountRequest;
+import com.twinkles.simpoprojectjava.dtos.responses.ValidateBVNResponse;
+import com.twinkles.simpoprojectjava.exceptions.ValidationErrors;
 import com.twinkles.simpoprojectjava.model.AppUser;
 import com.twinkles.simpoprojectjava.model.Candidate;
+import com.twinkles.simpoprojectjava.model.Constituency;
+import com.twinkles.simpoprojectjava.model.Gender;
 import com.twinkles.simpoprojectjava.model.Party;
 import com.twinkles.simpoprojectjava.model.VoteCategory;
-import com.twinkles.simpoprojectjava.repository.AppUserRepository;
+import com.twinkles.simpoprojectjava.model.VoterCredentials;
 import com.twinkles.simpoprojectjava.repository.CandidateRepository;
+import com.twinkles.simpoprojectjava.service.VoterCredentialCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
-import java.util.EnumSet;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.regex.Pattern;
 
 @Component
 @RequiredArgsConstructor
 public class UtilsClass {
-    private final AppUserRepository appUserRepository;
+    private static final Pattern BCRYPT_HASH = Pattern.compile("\\$2[abxy]?\\$\\d\\d\\$[./A-Za-z0-9]{53}");
+
+    private final VoterCredentialCache voterCredentialCache;
     private final CandidateRepository candidateRepository;
+    private final PasswordEncoder passwordEncoder;
 
 
     public  Candidate checkCandidateValidity(CastVoteRequest castVoteRequest) {
-        if(!partyIsValid(castVoteRequest)) {
-            throw new SimpoProjectException("Incorrect party name", 400);
+        return checkCandidateValidity(castVoteRequest.getVoteCategory(), castVoteRequest.getParty());
+    }
+
+    public Candidate checkCandidateValidity(VoteCategory voteCategory, Party party) {
+        if(voteCategory == null) {
+            throw ValidationErrors.INVALID_VOTE_CATEGORY;
+        }
+        if(party == null) {
+            throw ValidationErrors.INVALID_PARTY;
         }
-        Candidate candidate = candidateRepository.findCandidateByVoteCategoryAndParty(VoteCategory.valueOf(castVoteRequest.getVoteCategory()), Party.valueOf(castVoteRequest.getParty()));
+        Candidate candidate = candidateRepository.findCandidateByVoteCategoryAndParty(voteCategory, party);
         if(candidate == null){
-            throw new SimpoProjectException("No candidate found!", 400);
+            throw ValidationErrors.NO_CANDIDATE;
         }
         return candidate;
     }
 
-    public AppUser validateUserCredentials(CastVoteRequest castVoteRequest) {
-        AppUser appUser = appUserRepository.findUserByBVN(castVoteRequest.getBVN());
-        if(appUser == null || !appUser.getPassword().equals(castVoteRequest.getPassword())){
-            throw new SimpoProjectException("Incorrect BVN or Password", 400);
+    public VoterCredentials validateUserCredentials(CastVoteRequest castVoteRequest) {
+        return validateUserCredentials(castVoteRequest.getBVN(), castVoteRequest.getPassword());
+    }
+
+    public VoterCredentials validateUserCredentials(String bvn, String password) {
+        return checkPassword(bvn == null ? null : voterCredentialCache.get(bvn), password);
+    }
+
+    public VoterCredentials checkPassword(VoterCredentials voterCredentials, String password) {
+        if(voterCredentials == null || password == null || !passwordMatches(password, voterCredentials.getPassword())){
+            throw ValidationErrors.INVALID_CREDENTIALS;
         }
-        return appUser;
+        return voterCredentials;
+    }
+
+    public AppUser buildAppUser(CreateAccountRequest createAccountRequest, ValidateBVNResponse validateBVNResponse, String username) {
+        return AppUser.builder()
+                .BVN(validateBVNResponse.getData().getBvn())
+                .date_of_birth(validateBVNResponse.getData().getDate_of_birth())
+                .email(validateBVNResponse.getData().getEmail())
+                .first_name(validateBVNResponse.getData().getFirst_name())
+                .last_name(validateBVNResponse.getData().getLast_name())
+                .middle_name(validateBVNResponse.getData().getMiddle_name())
+                .gender(Gender.valueOf(validateBVNResponse.getData().getGender()))
+                .password(passwordEncoder.encode(createAccountRequest.getPassword()))
+                .phoneNumber(validateBVNResponse.getData().getPhone_number())
+                .nationality(validateBVNResponse.getData().getNationality())
+                .address(validateBVNResponse.getData().getAddress())
+                .state(Constituency.normalise(validateBVNResponse.getData().getState_of_residence()))
+                .lga(Constituency.normalise(validateBVNResponse.getData().getLga_of_residence()))
+                .username(username)
+                .build();
     }
 
-    private static boolean partyIsValid(CastVoteRequest castVoteRequest) {
-        return EnumSet.allOf(Party.class)
-                .stream()
-                .anyMatch(party -> party.getName().equals(castVoteRequest.getParty().toUpperCase()));
+    public static boolean isHashed(String storedPassword) {
+        return storedPassword != null && BCRYPT_HASH.matcher(storedPassword).matches();
+    }
+
+    // accounts created before hashing still hold plaintext until their next login rehashes them
+    private boolean passwordMatches(String password, String storedPassword) {
+        if (isHashed(storedPassword)) {
+            return passwordEncoder.matches(password, storedPassword);
+        }
+        return storedPassword != null && MessageDigest.isEqual(
+                password.getBytes(StandardCharsets.UTF_8), storedPassword.getBytes(StandardCharsets.UTF_8));
     }
 
 }
@@ -0,0 +1,7 @@
+-- KEYS[1] voted markers for a category (BVN -> party), KEYS[2] tally for the category (party -> count)
+-- ARGV[1] BVN, ARGV[2] party
+if redis.call('HSETNX', KEYS[1], ARGV[1], ARGV[2]) == 1 then
+    redis.call('HINCRBY', KEYS[2], ARGV[2], 1)
+    return 1
+end
+return 0
@@ -0,0 +1,78 @@
+package com.twinkles.simpoprojectjava.config;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import de.flapdoodle.embed.mongo.MongodStarter;
+import de.flapdoodle.embed.mongo.config.MongodConfig;
+import de.flapdoodle.embed.mongo.config.Net;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.process.runtime.Network;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MongoIndexConfigTest {
+    private static MongodExecutable mongodExecutable;
+    private static MongoClient mongoClient;
+    private static MongoTemplate mongoTemplate;
+
+    @BeforeAll
+    static void startMongo() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        mongodExecutable = MongodStarter.getDefaultInstance().prepare(MongodConfig.builder()
+                .version(Version.Main.V5_0)
+                .net(new Net("localhost", port, Network.localhostIsIPv6()))
+                .build());
+        mongodExecutable.start();
+        mongoClient = MongoClients.create("mongodb://localhost:" + port);
+        mongoTemplate = new MongoTemplate(mongoClient, "vote-right-index-test");
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongoClient.close();
+        mongodExecutable.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.getDb().drop();
+    }
+
+    @Test
+    void documentsWithoutABvnDoNotCollide() {
+        new MongoIndexConfig(mongoTemplate).createIndexes();
+
+        mongoTemplate.insert(new Document("party", "APC"), "AppUser");
+        mongoTemplate.insert(new Document("party", "PDP"), "AppUser");
+        mongoTemplate.insert(new Document("BVN", "12345678901").append("username", "voter1"), "AppUser");
+        assertThrows(DuplicateKeyException.class,
+                () -> mongoTemplate.insert(new Document("BVN", "12345678901").append("username", "voter2"), "AppUser"));
+    }
+
+    @Test
+    void fullIndexesFromEarlierReleasesAreRebuiltAsPartial() {
+        mongoTemplate.indexOps("AppUser").ensureIndex(new Index("BVN", Sort.Direction.ASC).named("bvn").unique());
+        mongoTemplate.indexOps("AppUser").ensureIndex(new Index("username", Sort.Direction.ASC).named("username").unique());
+        mongoTemplate.insert(new Document("party", "APC"), "AppUser");
+
+        new MongoIndexConfig(mongoTemplate).createIndexes();
+
+        mongoTemplate.insert(new Document("party", "PDP"), "AppUser");
+    }
+}
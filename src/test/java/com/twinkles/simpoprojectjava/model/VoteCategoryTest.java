@@ -0,0 +1,34 @@
+package com.twinkles.simpoprojectjava.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.twinkles.simpoprojectjava.dtos.requests.CastVoteRequest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class VoteCategoryTest {
+
+    @Test
+    void namesAreResolvedCaseInsensitively() {
+        assertEquals(VoteCategory.HOUSE_OF_ASSEMBLY, VoteCategory.fromName("house_of_assembly"));
+        assertEquals(VoteCategory.SENATE, VoteCategory.fromName("Senate"));
+        assertEquals(Party.NNPP, Party.fromName("nnpp"));
+        assertNull(VoteCategory.fromName("mayor"));
+        assertNull(Party.fromName(null));
+    }
+
+    @Test
+    void castVoteRequestCarriesParsedEnums() throws Exception {
+        CastVoteRequest castVoteRequest = new ObjectMapper().readValue(
+                "{\"party\":\"apc\",\"voteCategory\":\"presidency\",\"bvn\":\"12345678901\",\"password\":\"secret\"}",
+                CastVoteRequest.class);
+
+        assertEquals(Party.APC, castVoteRequest.getParty());
+        assertEquals(VoteCategory.PRESIDENCY, castVoteRequest.getVoteCategory());
+
+        CastVoteRequest unknownParty = new ObjectMapper().readValue(
+                "{\"party\":\"xyz\",\"voteCategory\":\"presidency\"}", CastVoteRequest.class);
+        assertNull(unknownParty.getParty());
+    }
+}
@@ -0,0 +1,79 @@
+package com.twinkles.simpoprojectjava.repository;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.twinkles.simpoprojectjava.config.MongoIndexConfig;
+import com.twinkles.simpoprojectjava.model.VoterCredentials;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Seeds a scratch database with voters and measures indexed BVN lookups.
+// Run with -Dvote.bench.mongo-uri=mongodb://localhost:27017 [-Dvote.bench.voters=10000000] [-Dvote.bench.max-p99-us=2000]
+@EnabledIfSystemProperty(named = "vote.bench.mongo-uri", matches = ".+")
+public class AppUserLookupBenchmarkTest {
+    private static final long FIRST_BVN = 10_000_000_000L;
+
+    @Test
+    void bvnLookupLatency() {
+        long voters = Long.getLong("vote.bench.voters", 10_000_000L);
+        int lookups = Integer.getInteger("vote.bench.lookups", 100_000);
+        long maxP99Micros = Long.getLong("vote.bench.max-p99-us", 2_000L);
+        try (MongoClient mongoClient = MongoClients.create(System.getProperty("vote.bench.mongo-uri"))) {
+            MongoTemplate mongoTemplate = new MongoTemplate(mongoClient, "vote-right-benchmark");
+            mongoTemplate.dropCollection("AppUser");
+            new MongoIndexConfig(mongoTemplate).createIndexes();
+            seed(mongoTemplate, voters);
+            AppUserRepositoryCustomImpl repository = new AppUserRepositoryCustomImpl(mongoTemplate);
+
+            for (int i = 0; i < 10_000; i++) {
+                repository.findCredentialsByBVN(randomBvn(voters));
+            }
+            long[] latencies = new long[lookups];
+            for (int i = 0; i < lookups; i++) {
+                long start = System.nanoTime();
+                VoterCredentials voterCredentials = repository.findCredentialsByBVN(randomBvn(voters));
+                latencies[i] = System.nanoTime() - start;
+                assertNotNull(voterCredentials);
+            }
+            Arrays.sort(latencies);
+            long p99Micros = latencies[(int) (lookups * 0.99)] / 1_000;
+            assertTrue(p99Micros <= maxP99Micros, "p99 BVN lookup over " + voters + " voters took " + p99Micros + " us");
+            mongoTemplate.getDb().drop();
+        }
+    }
+
+    private static void seed(MongoTemplate mongoTemplate, long voters) {
+        List<Document> batch = new ArrayList<>(10_000);
+        for (long i = 0; i < voters; i++) {
+            batch.add(new Document("BVN", String.valueOf(FIRST_BVN + i))
+                    .append("username", "voter" + i)
+                    .append("password", "password")
+                    .append("first_name", "Voter")
+                    .append("last_name", "Number" + i)
+                    .append("address", "1 Polling Unit Road")
+                    .append("votedCategories", 0));
+            if (batch.size() == 10_000) {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "AppUser").insert(batch).execute();
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "AppUser").insert(batch).execute();
+        }
+    }
+
+    private static String randomBvn(long voters) {
+        return String.valueOf(FIRST_BVN + ThreadLocalRandom.current().nextLong(voters));
+    }
+}
@@ -0,0 +1,122 @@
+package com.twinkles.simpoprojectjava.repository;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.twinkles.simpoprojectjava.model.AppUser;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import de.flapdoodle.embed.mongo.MongodStarter;
+import de.flapdoodle.embed.mongo.config.MongodConfig;
+import de.flapdoodle.embed.mongo.config.Net;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.process.runtime.Network;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs the votedCategories queries against a real mongod: $bit leaves the mask stored as a 64-bit integer.
+public class AppUserRepositoryCustomImplTest {
+    private static final String BVN = "12345678901";
+
+    private static MongodExecutable mongodExecutable;
+    private static MongoClient mongoClient;
+    private static com.mongodb.reactivestreams.client.MongoClient reactiveMongoClient;
+    private static MongoTemplate mongoTemplate;
+    private AppUserRepositoryCustomImpl repository;
+    private ReactiveAppUserRepositoryCustomImpl reactiveRepository;
+
+    @BeforeAll
+    static void startMongo() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        mongodExecutable = MongodStarter.getDefaultInstance().prepare(MongodConfig.builder()
+                .version(Version.Main.V5_0)
+                .net(new Net("localhost", port, Network.localhostIsIPv6()))
+                .build());
+        mongodExecutable.start();
+        mongoClient = MongoClients.create("mongodb://localhost:" + port);
+        reactiveMongoClient = com.mongodb.reactivestreams.client.MongoClients.create("mongodb://localhost:" + port);
+        mongoTemplate = new MongoTemplate(mongoClient, "vote-right-test");
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        reactiveMongoClient.close();
+        mongoClient.close();
+        mongodExecutable.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection("AppUser");
+        mongoTemplate.insert(new Document("BVN", BVN).append("username", "voter1").append("password", "hash")
+                .append("votedCategories", 0), "AppUser");
+        repository = new AppUserRepositoryCustomImpl(mongoTemplate);
+        reactiveRepository = new ReactiveAppUserRepositoryCustomImpl(new ReactiveMongoTemplate(reactiveMongoClient, "vote-right-test"));
+    }
+
+    @Test
+    void voterCanVoteAgainAfterTheMaskIsStoredAsLong() {
+        assertEquals(0, repository.markVoted(BVN, VoteCategory.PRESIDENCY.mask()));
+        assertEquals(VoteCategory.PRESIDENCY.mask(), repository.markVoted(BVN, VoteCategory.SENATE.mask()));
+
+        int both = VoteCategory.PRESIDENCY.mask() | VoteCategory.SENATE.mask();
+        assertEquals(both, repository.findCredentialsByBVN(BVN).getVotedCategories());
+        assertEquals(both, reactiveRepository.findCredentialsByBVN(BVN).block().getVotedCategories());
+        assertEquals(both, reactiveRepository.markVoted(BVN, VoteCategory.SENATE.mask()).block());
+    }
+
+    @Test
+    void singleCategoryUpdatesReadBack() {
+        assertTrue(repository.markVoted(BVN, VoteCategory.GOVERNORSHIP));
+        assertFalse(repository.markVoted(BVN, VoteCategory.GOVERNORSHIP));
+        assertEquals(VoteCategory.GOVERNORSHIP.mask(), repository.markVoted(BVN, VoteCategory.SENATE.mask()));
+
+        List<int[]> batches = new ArrayList<>();
+        assertEquals(1, repository.forEachVotedCategoriesBatch(10, batches::add));
+        assertEquals(VoteCategory.GOVERNORSHIP.mask() | VoteCategory.SENATE.mask(), batches.get(0)[0]);
+        assertEquals(VoteCategory.GOVERNORSHIP.mask() | VoteCategory.SENATE.mask(),
+                mongoTemplate.findOne(Query.query(Criteria.where("BVN").is(BVN)), AppUser.class).getVotedCategories());
+    }
+
+    @Test
+    void legacyCandidatesAreMovedOutOfAppUserOnce() {
+        mongoTemplate.dropCollection("Candidate");
+        ObjectId apc = new ObjectId();
+        ObjectId pdp = new ObjectId();
+        mongoTemplate.insert(new Document("_id", apc).append("fullName", "A").append("voteCategory", "PRESIDENCY")
+                .append("party", "APC").append("voteCount", 5L), "AppUser");
+        mongoTemplate.insert(new Document("_id", pdp).append("fullName", "B").append("voteCategory", "PRESIDENCY")
+                .append("party", "PDP").append("voteCount", 3L), "AppUser");
+        // an earlier run copied this one and crashed before removing it; it has been counting since
+        mongoTemplate.insert(new Document("_id", pdp).append("fullName", "B").append("voteCategory", "PRESIDENCY")
+                .append("party", "PDP").append("voteCount", 9L), "Candidate");
+
+        assertEquals(2, repository.moveLegacyCandidates());
+        assertEquals(0, repository.moveLegacyCandidates());
+
+        assertEquals(1, mongoTemplate.count(new Query(), "AppUser"));
+        assertEquals(5L, mongoTemplate.findById(apc, Document.class, "Candidate").get("voteCount"));
+        assertEquals(9L, mongoTemplate.findById(pdp, Document.class, "Candidate").get("voteCount"));
+        assertEquals(1, repository.forEachVotedCategoriesBatch(10, batch -> {
+        }));
+    }
+}
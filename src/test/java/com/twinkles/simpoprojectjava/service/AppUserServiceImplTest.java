@@ -0,0 +1,126 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.twinkles.simpoprojectjava.config.IngestionMode;
+import com.twinkles.simpoprojectjava.config.TallyMode;
+import com.twinkles.simpoprojectjava.dtos.requests.BallotRequest;
+import com.twinkles.simpoprojectjava.dtos.responses.BallotResponse;
+import com.twinkles.simpoprojectjava.exceptions.SimpoProjectException;
+import com.twinkles.simpoprojectjava.exceptions.ValidationErrors;
+import com.twinkles.simpoprojectjava.model.Candidate;
+import com.twinkles.simpoprojectjava.model.Constituency;
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.model.VoterCredentials;
+import com.twinkles.simpoprojectjava.repository.AppUserRepository;
+import com.twinkles.simpoprojectjava.utils.UtilsClass;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AppUserServiceImplTest {
+    private static final String BVN = "12345678901";
+    private static final Constituency IKEJA = Constituency.of("Lagos", "Ikeja");
+
+    private final AppUserRepository appUserRepository = Mockito.mock(AppUserRepository.class);
+    private final UtilsClass utilsClass = Mockito.mock(UtilsClass.class);
+    private final VoteTallyEngine voteTallyEngine = Mockito.mock(VoteTallyEngine.class);
+    private final VoterCredentialCache voterCredentialCache = Mockito.mock(VoterCredentialCache.class);
+    private AppUserServiceImpl appUserService;
+
+    @BeforeEach
+    void setUp() {
+        appUserService = new AppUserServiceImpl(null, appUserRepository, utilsClass, voteTallyEngine, null, null, null,
+                voterCredentialCache, null, null, null, null, new VoteMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(appUserService, "ingestionMode", IngestionMode.DIRECT);
+        ReflectionTestUtils.setField(appUserService, "tallyMode", TallyMode.LOCAL);
+        when(utilsClass.validateUserCredentials(BVN, "secret"))
+                .thenReturn(new VoterCredentials(BVN, "hash", VoteCategory.SENATE.mask(), IKEJA));
+        when(utilsClass.checkCandidateValidity(any(VoteCategory.class), any(Party.class))).thenAnswer(invocation ->
+                Candidate.builder().voteCategory(invocation.getArgument(0)).party(invocation.getArgument(1)).build());
+    }
+
+    @Test
+    void ballotIsAppliedInOneUpdateAndOnlyNewCategoriesAreTallied() {
+        // another request claimed GOVERNORSHIP between login and this ballot
+        when(appUserRepository.markVoted(eq(BVN), anyInt())).thenReturn(VoteCategory.SENATE.mask() | VoteCategory.GOVERNORSHIP.mask());
+        Map<VoteCategory, Party> votes = new EnumMap<>(VoteCategory.class);
+        votes.put(VoteCategory.PRESIDENCY, Party.APC);
+        votes.put(VoteCategory.GOVERNORSHIP, Party.PDP);
+        votes.put(VoteCategory.SENATE, Party.LP);
+
+        BallotResponse ballotResponse = appUserService.castBallot(new BallotRequest(BVN, "secret", votes), null);
+
+        assertEquals(List.of("PRESIDENCY"), ballotResponse.getAccepted());
+        assertEquals(List.of("GOVERNORSHIP", "SENATE"), ballotResponse.getAlreadyVoted());
+        verify(appUserRepository, times(1)).markVoted(BVN, VoteCategory.PRESIDENCY.mask() | VoteCategory.GOVERNORSHIP.mask());
+        verify(voteTallyEngine).record(BVN, IKEJA, VoteCategory.PRESIDENCY, Party.APC);
+        verify(voteTallyEngine, never()).record(BVN, IKEJA, VoteCategory.GOVERNORSHIP, Party.PDP);
+        verify(voteTallyEngine, never()).record(BVN, IKEJA, VoteCategory.SENATE, Party.LP);
+    }
+
+    @Test
+    void ballotWithOnlyCategoriesAlreadyVotedSkipsTheDatabase() {
+        BallotResponse ballotResponse = appUserService.castBallot(new BallotRequest(BVN, "secret", Map.of(VoteCategory.SENATE, Party.LP)), null);
+
+        assertEquals(List.of("SENATE"), ballotResponse.getAlreadyVoted());
+        verify(appUserRepository, never()).markVoted(anyString(), anyInt());
+    }
+
+    @Test
+    void ballotWithTheSameCategoryTwiceIsRejected() throws Exception {
+        BallotRequest ballotRequest = new ObjectMapper().readValue(
+                "{\"bvn\":\"" + BVN + "\",\"password\":\"secret\",\"votes\":{\"presidency\":\"APC\",\"PRESIDENCY\":\"PDP\"}}",
+                BallotRequest.class);
+
+        SimpoProjectException exception = assertThrows(SimpoProjectException.class, () -> appUserService.castBallot(ballotRequest, null));
+        assertEquals("Ballot has more than one vote for PRESIDENCY", exception.getMessage());
+        verify(appUserRepository, never()).markVoted(anyString(), anyInt());
+    }
+
+    @Test
+    void unknownPartyIsRejectedWithoutTouchingTheDatabase() {
+        Map<VoteCategory, Party> votes = new EnumMap<>(VoteCategory.class);
+        votes.put(VoteCategory.PRESIDENCY, null);
+        when(utilsClass.checkCandidateValidity(VoteCategory.PRESIDENCY, null)).thenThrow(ValidationErrors.INVALID_PARTY);
+
+        SimpoProjectException exception = assertThrows(SimpoProjectException.class,
+                () -> appUserService.castBallot(new BallotRequest(BVN, "secret", votes), null));
+        assertSame(ValidationErrors.INVALID_PARTY, exception);
+        verify(appUserRepository, never()).markVoted(anyString(), anyInt());
+    }
+
+    @Test
+    void redisTalliedVoteIsStillCountedAgainstItsConstituency() {
+        RedisVoteCounter redisVoteCounter = Mockito.mock(RedisVoteCounter.class);
+        when(redisVoteCounter.castVote(BVN, VoteCategory.PRESIDENCY, Party.APC)).thenReturn(true);
+        appUserService = new AppUserServiceImpl(null, appUserRepository, utilsClass, voteTallyEngine, null, null, redisVoteCounter,
+                voterCredentialCache, null, null, null, null, new VoteMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(appUserService, "ingestionMode", IngestionMode.DIRECT);
+        ReflectionTestUtils.setField(appUserService, "tallyMode", TallyMode.REDIS);
+
+        BallotResponse ballotResponse = appUserService.castBallot(new BallotRequest(BVN, "secret", Map.of(VoteCategory.PRESIDENCY, Party.APC)), null);
+
+        assertEquals(List.of("PRESIDENCY"), ballotResponse.getAccepted());
+        verify(voteTallyEngine).recordConstituency(IKEJA, VoteCategory.PRESIDENCY, Party.APC);
+        verify(voteTallyEngine, never()).record(anyString(), any(), any(), any());
+    }
+}
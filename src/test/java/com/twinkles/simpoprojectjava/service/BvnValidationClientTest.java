@@ -0,0 +1,152 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.twinkles.simpoprojectjava.dtos.responses.ValidateBVNResponse;
+import com.twinkles.simpoprojectjava.exceptions.SimpoProjectException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BvnValidationClientTest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final AtomicInteger providerCalls = new AtomicInteger();
+    private BvnValidationClient bvnValidationClient;
+
+    @AfterEach
+    void tearDown() {
+        bvnValidationClient.shutdown();
+    }
+
+    @Test
+    void repeatedValidationIsServedFromCache() {
+        bvnValidationClient = newClient(stubProvider(0), 2_000, 5);
+
+        ValidateBVNResponse first = bvnValidationClient.validate("12345678901").join();
+        ValidateBVNResponse second = bvnValidationClient.validate("12345678901").join();
+
+        assertEquals("success", first.getStatus());
+        assertEquals("Ada", second.getData().getFirst_name());
+        assertEquals(1, providerCalls.get());
+    }
+
+    @Test
+    void slowProviderTimesOutAndOpensTheCircuit() {
+        bvnValidationClient = newClient(stubProvider(500), 50, 2);
+
+        for (int i = 0; i < 2; i++) {
+            CompletionException exception = assertThrows(CompletionException.class,
+                    () -> bvnValidationClient.validate(String.valueOf(System.nanoTime())).join());
+            assertInstanceOf(SimpoProjectException.class, exception.getCause());
+        }
+        assertTrue(bvnValidationClient.isOpen());
+
+        int callsBefore = providerCalls.get();
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> bvnValidationClient.validate("99999999999").join());
+        assertEquals(503, ((SimpoProjectException) exception.getCause()).getStatusCode());
+        assertEquals(callsBefore, providerCalls.get());
+    }
+
+    @Test
+    void throughputUnderProviderSlowness() {
+        int providerLatencyMs = 50;
+        int registrations = 400;
+        bvnValidationClient = newClient(stubProvider(providerLatencyMs), 2_000, 100);
+
+        long start = System.nanoTime();
+        List<CompletableFuture<ValidateBVNResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < registrations; i++) {
+            responses.add(bvnValidationClient.validate(String.valueOf(10_000_000_000L + i)));
+        }
+        CompletableFuture.allOf(responses.toArray(new CompletableFuture[0])).join();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(registrations, providerCalls.get());
+        // 32 pooled calls at a time; one at a time would take registrations * providerLatencyMs
+        assertTrue(elapsedMs < (long) registrations * providerLatencyMs / 4, "took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void halfOpenCircuitLetsOneTrialThroughAndClosesWhenItSucceeds() throws InterruptedException {
+        AtomicBoolean failing = new AtomicBoolean(true);
+        CountDownLatch trialGate = new CountDownLatch(1);
+        BvnProvider stub = stubProvider(0);
+        bvnValidationClient = newClient(bvn -> {
+            if (failing.get()) {
+                providerCalls.incrementAndGet();
+                throw new IOException("provider down");
+            }
+            trialGate.await();
+            return stub.validate(bvn);
+        }, 2_000, 1, 50);
+
+        assertThrows(CompletionException.class, () -> bvnValidationClient.validate("10000000001").join());
+        assertTrue(bvnValidationClient.isOpen());
+        Thread.sleep(100);
+        failing.set(false);
+
+        CompletableFuture<ValidateBVNResponse> trial = bvnValidationClient.validate("10000000002");
+        CompletionException rejected = assertThrows(CompletionException.class,
+                () -> bvnValidationClient.validate("10000000003").join());
+        assertEquals(503, ((SimpoProjectException) rejected.getCause()).getStatusCode());
+        assertTrue(bvnValidationClient.isOpen());
+
+        trialGate.countDown();
+        assertEquals("success", trial.join().getStatus());
+        assertFalse(bvnValidationClient.isOpen());
+        assertEquals("success", bvnValidationClient.validate("10000000004").join().getStatus());
+        assertEquals(3, providerCalls.get());
+    }
+
+    @Test
+    void failedTrialOpensTheCircuitAgain() throws InterruptedException {
+        bvnValidationClient = newClient(bvn -> {
+            providerCalls.incrementAndGet();
+            throw new IOException("provider down");
+        }, 2_000, 1, 50);
+
+        assertThrows(CompletionException.class, () -> bvnValidationClient.validate("10000000001").join());
+        Thread.sleep(100);
+        assertThrows(CompletionException.class, () -> bvnValidationClient.validate("10000000002").join());
+
+        assertTrue(bvnValidationClient.isOpen());
+        assertThrows(CompletionException.class, () -> bvnValidationClient.validate("10000000003").join());
+        assertEquals(2, providerCalls.get());
+    }
+
+    private BvnValidationClient newClient(BvnProvider bvnProvider, long timeoutMs, int failureThreshold) {
+        return newClient(bvnProvider, timeoutMs, failureThreshold, 60_000);
+    }
+
+    private BvnValidationClient newClient(BvnProvider bvnProvider, long timeoutMs, int failureThreshold, long openMs) {
+        return new BvnValidationClient(bvnProvider, new VoteMetrics(new SimpleMeterRegistry()), OBJECT_MAPPER, 32, 1024, timeoutMs, 60, failureThreshold, openMs);
+    }
+
+    private BvnProvider stubProvider(long latencyMs) {
+        return bvn -> {
+            providerCalls.incrementAndGet();
+            Thread.sleep(latencyMs);
+            return "{\"status\":\"success\",\"message\":\"BVN details fetched\",\"data\":{\"bvn\":\"" + bvn
+                    + "\",\"first_name\":\"Ada\",\"last_name\":\"Obi\",\"gender\":\"FEMALE\",\"state_of_residence\":\"Lagos\"}}";
+        };
+    }
+}
@@ -0,0 +1,111 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.dtos.requests.ViewResultResponse;
+import com.twinkles.simpoprojectjava.model.Constituency;
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.RegionalTally;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.repository.RegionalTallyRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConstituencyTallyTest {
+    private static final Constituency IKEJA = Constituency.of("Lagos", "Ikeja");
+    private static final Constituency SURULERE = Constituency.of("lagos ", "Surulere");
+    private static final Constituency UYO = Constituency.of("Akwa Ibom", "Uyo");
+
+    private final List<RegionalTally> persisted = new ArrayList<>();
+    private final RegionalTallyRepository regionalTallyRepository = Mockito.mock(RegionalTallyRepository.class);
+    private final ConstituencyTally constituencyTally = new ConstituencyTally(regionalTallyRepository);
+
+    @Test
+    void flushedVotesRollUpIntoLgaAndStateResults() {
+        appliesEverything();
+        constituencyTally.record(IKEJA, VoteCategory.PRESIDENCY, Party.APC);
+        constituencyTally.record(IKEJA, VoteCategory.PRESIDENCY, Party.PDP);
+        constituencyTally.record(SURULERE, VoteCategory.PRESIDENCY, Party.APC);
+        constituencyTally.record(UYO, VoteCategory.PRESIDENCY, Party.LP);
+        constituencyTally.flush();
+
+        ViewResultResponse lagos = constituencyTally.result(VoteCategory.PRESIDENCY, "LAGOS");
+        assertEquals(3, lagos.getTotalVotes());
+        assertEquals(2L, lagos.getCounts().get("APC"));
+        assertEquals(2, constituencyTally.result(VoteCategory.PRESIDENCY, "Lagos", "ikeja").getTotalVotes());
+        assertEquals(1, constituencyTally.result(VoteCategory.PRESIDENCY, "Akwa Ibom").getTotalVotes());
+        assertEquals(0, constituencyTally.result(VoteCategory.SENATE, "Lagos").getTotalVotes());
+        assertEquals(0, constituencyTally.pendingCount(IKEJA, VoteCategory.PRESIDENCY, Party.APC));
+        assertEquals(4, persisted.stream().mapToLong(RegionalTally::getVoteCount).sum());
+    }
+
+    @Test
+    void deltasPastAFailedWriteAreRetriedOnTheNextFlush() {
+        when(regionalTallyRepository.incrementVoteCounts(any())).thenReturn(0).thenAnswer(invocation -> {
+            List<RegionalTally> deltas = invocation.getArgument(0);
+            persisted.addAll(deltas);
+            return deltas.size();
+        });
+        constituencyTally.record(IKEJA, VoteCategory.SENATE, Party.APC);
+        constituencyTally.record(UYO, VoteCategory.SENATE, Party.PDP);
+        constituencyTally.flush();
+
+        assertEquals(0, constituencyTally.result(VoteCategory.SENATE, "Lagos").getTotalVotes());
+        assertEquals(1, constituencyTally.pendingCount(IKEJA, VoteCategory.SENATE, Party.APC));
+
+        constituencyTally.flush();
+        assertEquals(1, constituencyTally.result(VoteCategory.SENATE, "Lagos").getTotalVotes());
+        assertEquals(1, constituencyTally.result(VoteCategory.SENATE, "Akwa Ibom", "Uyo").getTotalVotes());
+        assertEquals(2, persisted.size());
+    }
+
+    @Test
+    void writeWithNoReplyIsNotRetried() {
+        // some prefix of the ordered bulk may have landed; retrying all of it would count those votes twice
+        when(regionalTallyRepository.incrementVoteCounts(any())).thenThrow(new DataAccessResourceFailureException("socket closed"));
+        constituencyTally.record(IKEJA, VoteCategory.SENATE, Party.APC);
+        constituencyTally.flush();
+
+        assertEquals(0, constituencyTally.pendingCount(IKEJA, VoteCategory.SENATE, Party.APC));
+        constituencyTally.flush();
+        verify(regionalTallyRepository, times(1)).incrementVoteCounts(any());
+    }
+
+    @Test
+    void reloadRebuildsStateTotalsFromStoredLgaTallies() {
+        when(regionalTallyRepository.findByVoteCategory(VoteCategory.GOVERNORSHIP)).thenReturn(List.of(
+                tally(IKEJA, Party.APC, 7), tally(SURULERE, Party.APC, 3), tally(SURULERE, Party.LP, 10)));
+        constituencyTally.reload(VoteCategory.GOVERNORSHIP);
+
+        ViewResultResponse lagos = constituencyTally.result(VoteCategory.GOVERNORSHIP, "Lagos");
+        assertEquals(20, lagos.getTotalVotes());
+        assertEquals("50.00", lagos.getResult().get("APC"));
+        assertEquals(13, constituencyTally.result(VoteCategory.GOVERNORSHIP, "Lagos", "Surulere").getTotalVotes());
+    }
+
+    private void appliesEverything() {
+        when(regionalTallyRepository.incrementVoteCounts(any())).thenAnswer(invocation -> {
+            List<RegionalTally> deltas = invocation.getArgument(0);
+            persisted.addAll(deltas);
+            return deltas.size();
+        });
+    }
+
+    private static RegionalTally tally(Constituency constituency, Party party, long voteCount) {
+        return RegionalTally.builder()
+                .voteCategory(VoteCategory.GOVERNORSHIP)
+                .state(constituency.getState())
+                .lga(constituency.getLga())
+                .party(party)
+                .voteCount(voteCount)
+                .build();
+    }
+}
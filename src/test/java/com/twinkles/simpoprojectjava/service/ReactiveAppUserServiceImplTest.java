@@ -0,0 +1,125 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.config.IngestionMode;
+import com.twinkles.simpoprojectjava.config.TallyMode;
+import com.twinkles.simpoprojectjava.dtos.requests.BallotRequest;
+import com.twinkles.simpoprojectjava.dtos.requests.CastVoteRequest;
+import com.twinkles.simpoprojectjava.dtos.responses.BallotResponse;
+import com.twinkles.simpoprojectjava.exceptions.SimpoProjectException;
+import com.twinkles.simpoprojectjava.exceptions.ValidationErrors;
+import com.twinkles.simpoprojectjava.model.Candidate;
+import com.twinkles.simpoprojectjava.model.Constituency;
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.Vote;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.model.VoterCredentials;
+import com.twinkles.simpoprojectjava.repository.ReactiveAppUserRepository;
+import com.twinkles.simpoprojectjava.repository.ReactiveCandidateRepository;
+import com.twinkles.simpoprojectjava.utils.UtilsClass;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.concurrent.SettableListenableFuture;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReactiveAppUserServiceImplTest {
+    private static final String BVN = "12345678901";
+    private static final VoterCredentials VOTER = new VoterCredentials(BVN, "hash", VoteCategory.SENATE.mask());
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Vote> kafkaTemplate = Mockito.mock(KafkaTemplate.class);
+    private final ReactiveAppUserRepository reactiveAppUserRepository = Mockito.mock(ReactiveAppUserRepository.class);
+    private final ReactiveCandidateRepository reactiveCandidateRepository = Mockito.mock(ReactiveCandidateRepository.class);
+    private final UtilsClass utilsClass = Mockito.mock(UtilsClass.class);
+    private final VoteTallyEngine voteTallyEngine = Mockito.mock(VoteTallyEngine.class);
+    private final VoterCredentialCache voterCredentialCache = Mockito.mock(VoterCredentialCache.class);
+    private ReactiveAppUserServiceImpl reactiveAppUserService;
+
+    @BeforeEach
+    void setUp() {
+        reactiveAppUserService = new ReactiveAppUserServiceImpl(kafkaTemplate, reactiveAppUserRepository,
+                reactiveCandidateRepository, utilsClass, voteTallyEngine, null, null, null, voterCredentialCache,
+                null, null, null, null, new VoteMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(reactiveAppUserService, "ingestionMode", IngestionMode.DIRECT);
+        ReflectionTestUtils.setField(reactiveAppUserService, "tallyMode", TallyMode.LOCAL);
+        ReflectionTestUtils.setField(reactiveAppUserService, "voteTopic", "vote-casting-topic");
+        ReflectionTestUtils.setField(reactiveAppUserService, "publishTimeoutMs", 1_000L);
+        when(voterCredentialCache.getIfPresent(BVN)).thenReturn(VOTER);
+        when(utilsClass.checkPassword(VOTER, "secret")).thenReturn(VOTER);
+        when(reactiveCandidateRepository.findCandidateByVoteCategoryAndParty(any(VoteCategory.class), any(Party.class)))
+                .thenAnswer(invocation -> Mono.just(Candidate.builder()
+                        .voteCategory(invocation.getArgument(0)).party(invocation.getArgument(1)).build()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        reactiveAppUserService.shutdown();
+    }
+
+    @Test
+    void ballotIsAppliedInOneUpdateAndOnlyNewCategoriesAreTallied() {
+        // another request claimed GOVERNORSHIP between login and this ballot
+        when(reactiveAppUserRepository.markVoted(eq(BVN), anyInt()))
+                .thenReturn(Mono.just(VoteCategory.SENATE.mask() | VoteCategory.GOVERNORSHIP.mask()));
+        Map<VoteCategory, Party> votes = new EnumMap<>(VoteCategory.class);
+        votes.put(VoteCategory.PRESIDENCY, Party.APC);
+        votes.put(VoteCategory.GOVERNORSHIP, Party.PDP);
+        votes.put(VoteCategory.SENATE, Party.LP);
+
+        BallotResponse ballotResponse = reactiveAppUserService.castBallot(new BallotRequest(BVN, "secret", votes), null).block();
+
+        assertEquals(List.of("PRESIDENCY"), ballotResponse.getAccepted());
+        assertEquals(List.of("GOVERNORSHIP", "SENATE"), ballotResponse.getAlreadyVoted());
+        verify(reactiveAppUserRepository, times(1)).markVoted(BVN, VoteCategory.PRESIDENCY.mask() | VoteCategory.GOVERNORSHIP.mask());
+        verify(voteTallyEngine).record(BVN, Constituency.UNKNOWN, VoteCategory.PRESIDENCY, Party.APC);
+        verify(voteTallyEngine, never()).record(BVN, Constituency.UNKNOWN, VoteCategory.GOVERNORSHIP, Party.PDP);
+    }
+
+    @Test
+    void votesGoToKafkaWhenMongoIsUnavailable() {
+        when(reactiveAppUserRepository.markVoted(eq(BVN), anyInt()))
+                .thenReturn(Mono.error(new DataAccessResourceFailureException("no primary")));
+        SettableListenableFuture<SendResult<String, Vote>> sent = new SettableListenableFuture<>();
+        sent.set(null);
+        when(kafkaTemplate.send(eq("vote-casting-topic"), eq(BVN), any(Vote.class))).thenReturn(sent);
+
+        reactiveAppUserService.castVote(VoteCategory.PRESIDENCY,
+                new CastVoteRequest(Party.APC, VoteCategory.PRESIDENCY, BVN, "secret"), null).block();
+
+        verify(kafkaTemplate).send(eq("vote-casting-topic"), eq(BVN), any(Vote.class));
+        verify(voteTallyEngine, never()).record(any(), any(), any(), any());
+        verify(voterCredentialCache).markVoted(BVN, VoteCategory.PRESIDENCY);
+    }
+
+    @Test
+    void repeatVoteIsRejectedWithoutTouchingTheDatabase() {
+        SimpoProjectException exception = assertThrows(SimpoProjectException.class, () -> reactiveAppUserService
+                .castVote(VoteCategory.SENATE, new CastVoteRequest(Party.LP, VoteCategory.SENATE, BVN, "secret"), null)
+                .block());
+
+        assertSame(ValidationErrors.ALREADY_VOTED, exception);
+        verify(reactiveAppUserRepository, never()).markVoted(anyString(), anyInt());
+    }
+}
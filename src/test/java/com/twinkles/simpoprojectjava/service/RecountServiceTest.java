@@ -0,0 +1,135 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.dtos.responses.RecountReport;
+import com.twinkles.simpoprojectjava.model.Candidate;
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.repository.AppUserRepository;
+import com.twinkles.simpoprojectjava.repository.CandidateRepository;
+import com.twinkles.simpoprojectjava.repository.VoteRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RecountServiceTest {
+    private static final int PARTIES = Party.values().length;
+    private static final int VOTERS = 100_000;
+
+    private final AppUserRepository appUserRepository = Mockito.mock(AppUserRepository.class);
+    private final VoteRepository voteRepository = Mockito.mock(VoteRepository.class);
+    private final CandidateRepository candidateRepository = Mockito.mock(CandidateRepository.class);
+    private final VoteTallyEngine voteTallyEngine = Mockito.mock(VoteTallyEngine.class);
+    private final RecountService recountService =
+            new RecountService(appUserRepository, voteRepository, candidateRepository, voteTallyEngine, 4096, 4);
+
+    // every voter votes PRESIDENCY; every third voter also votes SENATE; parties rotate by voter
+    private final int[] votedCategories = new int[VOTERS];
+    private final List<Integer> votes = new ArrayList<>();
+    private final long[] expected = new long[VoteCategory.values().length * PARTIES];
+
+    RecountServiceTest() {
+        for (int voter = 0; voter < VOTERS; voter++) {
+            Party party = Party.values()[voter % PARTIES];
+            votedCategories[voter] = VoteCategory.PRESIDENCY.mask();
+            vote(VoteCategory.PRESIDENCY, party);
+            if (voter % 3 == 0) {
+                votedCategories[voter] |= VoteCategory.SENATE.mask();
+                vote(VoteCategory.SENATE, party);
+            }
+        }
+    }
+
+    @Test
+    void matchingTalliesAreConsistent() {
+        stream(votedCategories, votes.stream().mapToInt(Integer::intValue).toArray());
+        when(candidateRepository.findAll()).thenReturn(candidates(expected));
+
+        RecountReport recountReport = recountService.recount();
+
+        assertTrue(recountReport.isConsistent());
+        assertEquals(VOTERS, recountReport.getVotersScanned());
+        assertEquals(votes.size(), recountReport.getVoteRecordsScanned());
+        verify(voteTallyEngine).flush();
+    }
+
+    @Test
+    void mismatchedTalliesAreReportedPerCategoryAndPerCandidate() {
+        stream(votedCategories, votes.stream().mapToInt(Integer::intValue).toArray());
+        long[] stored = expected.clone();
+        stored[VoteCategory.SENATE.ordinal() * PARTIES + Party.LP.ordinal()] += 7;
+        when(candidateRepository.findAll()).thenReturn(candidates(stored));
+
+        RecountReport recountReport = recountService.recount();
+
+        assertFalse(recountReport.isConsistent());
+        assertEquals(2, recountReport.getDiscrepancies().size());
+        RecountReport.Discrepancy voterFlags = recountReport.getDiscrepancies().get(0);
+        assertEquals(RecountService.VOTER_FLAGS, voterFlags.getSource());
+        assertEquals(VoteCategory.SENATE, voterFlags.getVoteCategory());
+        assertNull(voterFlags.getParty());
+        assertEquals(voterFlags.getCounted() + 7, voterFlags.getStored());
+        RecountReport.Discrepancy voteRecords = recountReport.getDiscrepancies().get(1);
+        assertEquals(RecountService.VOTE_RECORDS, voteRecords.getSource());
+        assertEquals(Party.LP, voteRecords.getParty());
+        assertEquals(voteRecords.getCounted() + 7, voteRecords.getStored());
+    }
+
+    @Test
+    void perCandidateComparisonIsSkippedWithoutVoteRecords() {
+        stream(votedCategories, new int[0]);
+        long[] stored = expected.clone();
+        // same category totals, split differently between parties
+        stored[Party.APC.ordinal()] += 1;
+        stored[Party.PDP.ordinal()] -= 1;
+        when(candidateRepository.findAll()).thenReturn(candidates(stored));
+
+        RecountReport recountReport = recountService.recount();
+
+        assertTrue(recountReport.isConsistent());
+        assertEquals(0, recountReport.getVoteRecordsScanned());
+    }
+
+    private void vote(VoteCategory voteCategory, Party party) {
+        int index = voteCategory.ordinal() * PARTIES + party.ordinal();
+        votes.add(index);
+        expected[index]++;
+    }
+
+    private void stream(int[] voterMasks, int[] voteIndexes) {
+        when(appUserRepository.forEachVotedCategoriesBatch(anyInt(), any())).thenAnswer(invocation ->
+                feed(voterMasks, invocation.getArgument(0), invocation.getArgument(1)));
+        when(voteRepository.forEachVoteBatch(anyInt(), any())).thenAnswer(invocation ->
+                feed(voteIndexes, invocation.getArgument(0), invocation.getArgument(1)));
+    }
+
+    private static long feed(int[] values, int batchSize, Consumer<int[]> batchConsumer) {
+        for (int from = 0; from < values.length; from += batchSize) {
+            batchConsumer.accept(Arrays.copyOfRange(values, from, Math.min(from + batchSize, values.length)));
+        }
+        return values.length;
+    }
+
+    private static List<Candidate> candidates(long[] voteCounts) {
+        List<Candidate> candidates = new ArrayList<>();
+        for (VoteCategory voteCategory : VoteCategory.values()) {
+            for (Party party : Party.values()) {
+                candidates.add(Candidate.builder().voteCategory(voteCategory).party(party)
+                        .voteCount(voteCounts[voteCategory.ordinal() * PARTIES + party.ordinal()]).build());
+            }
+        }
+        return candidates;
+    }
+}
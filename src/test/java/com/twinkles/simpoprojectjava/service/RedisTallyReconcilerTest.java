@@ -0,0 +1,67 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.config.IngestionMode;
+import com.twinkles.simpoprojectjava.model.Candidate;
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.repository.CandidateRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RedisTallyReconcilerTest {
+    private final RedisVoteCounter redisVoteCounter = Mockito.mock(RedisVoteCounter.class);
+    private final CandidateRepository candidateRepository = Mockito.mock(CandidateRepository.class);
+    private final ResultsView resultsView = new ResultsView();
+    private final RedisTallyReconciler reconciler = new RedisTallyReconciler(redisVoteCounter, candidateRepository, resultsView);
+
+    @Test
+    void emptiedRedisNeverLowersStoredCounts() {
+        when(redisVoteCounter.counts(any())).thenReturn(new long[Party.values().length]);
+        for (VoteCategory voteCategory : VoteCategory.values()) {
+            when(candidateRepository.findCandidateByVoteCategory(voteCategory)).thenReturn(candidates(voteCategory, 40));
+        }
+
+        reconciler.checkpoint();
+
+        verify(candidateRepository, never()).raiseVoteCount(any(), any(), anyLong());
+        assertEquals(40, resultsView.get(VoteCategory.PRESIDENCY).getTotalVotes());
+    }
+
+    @Test
+    void higherRedisCountsAreCheckpointed() {
+        long[] counts = new long[Party.values().length];
+        counts[Party.APC.ordinal()] = 55;
+        when(redisVoteCounter.counts(any())).thenReturn(counts);
+        when(candidateRepository.findCandidateByVoteCategory(any())).thenAnswer(invocation -> candidates(invocation.getArgument(0), 40));
+
+        reconciler.checkpoint();
+
+        verify(candidateRepository).raiseVoteCount(VoteCategory.SENATE, Party.APC, 55);
+        assertEquals(55, resultsView.get(VoteCategory.SENATE).getTotalVotes());
+    }
+
+    @Test
+    void queuedIngestionIsRejectedAtStartup() {
+        ReflectionTestUtils.setField(reconciler, "ingestionMode", IngestionMode.LEDGER);
+
+        assertThrows(IllegalStateException.class, reconciler::checkIngestionMode);
+    }
+
+    private static List<Candidate> candidates(VoteCategory voteCategory, long apcVotes) {
+        List<Candidate> candidates = new ArrayList<>();
+        candidates.add(Candidate.builder().voteCategory(voteCategory).party(Party.APC).voteCount(apcVotes).build());
+        return candidates;
+    }
+}
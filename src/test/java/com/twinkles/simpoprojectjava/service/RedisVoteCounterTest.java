@@ -0,0 +1,107 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RedisVoteCounterTest {
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+    private RedisVoteCounter redisVoteCounter;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.flushAll();
+            return null;
+        });
+        redisVoteCounter = new RedisVoteCounter(redisTemplate, TallyShards.uniform(1));
+    }
+
+    @Test
+    void voterIsCountedOncePerCategory() {
+        assertTrue(redisVoteCounter.castVote("12345678901", VoteCategory.SENATE, Party.APC));
+        assertFalse(redisVoteCounter.castVote("12345678901", VoteCategory.SENATE, Party.PDP));
+        assertTrue(redisVoteCounter.castVote("12345678901", VoteCategory.PRESIDENCY, Party.PDP));
+
+        assertEquals(1, redisVoteCounter.counts(VoteCategory.SENATE)[Party.APC.ordinal()]);
+        assertEquals(0, redisVoteCounter.counts(VoteCategory.SENATE)[Party.PDP.ordinal()]);
+        assertEquals(1, redisVoteCounter.counts(VoteCategory.PRESIDENCY)[Party.PDP.ordinal()]);
+    }
+
+    @Test
+    void concurrentDuplicateVotesAreCountedExactlyOnce() throws InterruptedException {
+        int voters = 2_000;
+        int attemptsPerVoter = 4;
+        LongAdder accepted = new LongAdder();
+        ExecutorService executorService = Executors.newFixedThreadPool(16);
+        for (int attempt = 0; attempt < attemptsPerVoter; attempt++) {
+            for (int voter = 0; voter < voters; voter++) {
+                String bvn = String.valueOf(10_000_000_000L + voter);
+                executorService.execute(() -> {
+                    if (redisVoteCounter.castVote(bvn, VoteCategory.GOVERNORSHIP, Party.LP)) {
+                        accepted.increment();
+                    }
+                });
+            }
+        }
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(2, TimeUnit.MINUTES));
+
+        assertEquals(voters, accepted.sum());
+        assertEquals(voters, redisVoteCounter.counts(VoteCategory.GOVERNORSHIP)[Party.LP.ordinal()]);
+    }
+
+    @Test
+    void shardedTallySumsShardsAndStillRejectsDuplicates() {
+        RedisVoteCounter shardedCounter = new RedisVoteCounter(redisTemplate, TallyShards.uniform(8));
+        int voters = 500;
+        for (int voter = 0; voter < voters; voter++) {
+            String bvn = String.format("%011d", voter);
+            assertTrue(shardedCounter.castVote(bvn, VoteCategory.PRESIDENCY, Party.APC));
+            assertFalse(shardedCounter.castVote(bvn, VoteCategory.PRESIDENCY, Party.LP));
+        }
+
+        assertEquals(voters, shardedCounter.counts(VoteCategory.PRESIDENCY)[Party.APC.ordinal()]);
+        assertEquals(0, shardedCounter.counts(VoteCategory.PRESIDENCY)[Party.LP.ordinal()]);
+    }
+}
@@ -0,0 +1,76 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.dtos.requests.ViewResultResponse;
+import com.twinkles.simpoprojectjava.model.Candidate;
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResultsViewTest {
+    private final ResultsView resultsView = new ResultsView();
+
+    @Test
+    void percentagesAreShareOfTotalVotes() {
+        resultsView.reload(VoteCategory.PRESIDENCY, List.of(
+                candidate(Party.APC, 1), candidate(Party.PDP, 2), candidate(Party.LP, 0)));
+
+        ViewResultResponse response = resultsView.get(VoteCategory.PRESIDENCY);
+        assertEquals(3, response.getTotalVotes());
+        assertEquals("33.33", response.getResult().get("APC"));
+        assertEquals("66.67", response.getResult().get("PDP"));
+        assertEquals("0.00", response.getResult().get("LP"));
+        assertEquals(2L, response.getCounts().get("PDP"));
+        assertFalse(response.getResult().containsKey("NNPP"));
+    }
+
+    @Test
+    void deltasPublishANewVersion() {
+        resultsView.reload(VoteCategory.SENATE, List.of(candidate(Party.APC, 10)));
+        ViewResultResponse before = resultsView.get(VoteCategory.SENATE);
+        long[] deltas = new long[Party.values().length];
+        deltas[Party.APC.ordinal()] = 5;
+
+        resultsView.apply(VoteCategory.SENATE, deltas);
+
+        ViewResultResponse after = resultsView.get(VoteCategory.SENATE);
+        assertEquals(15L, after.getCounts().get("APC"));
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertEquals(10L, before.getCounts().get("APC"));
+        assertSame(after, resultsView.get(VoteCategory.SENATE));
+    }
+
+    @Test
+    void streamStartsWithCurrentSnapshotAndCoalescesBursts() throws InterruptedException {
+        ResultsView streamingView = new ResultsView(200);
+        streamingView.reload(VoteCategory.GOVERNORSHIP, List.of(candidate(Party.PDP, 1)));
+        List<ViewResultResponse> received = new CopyOnWriteArrayList<>();
+        Disposable subscription = streamingView.stream(VoteCategory.GOVERNORSHIP).subscribe(received::add);
+        long[] deltas = new long[Party.values().length];
+        deltas[Party.PDP.ordinal()] = 1;
+        for (int i = 0; i < 100; i++) {
+            streamingView.apply(VoteCategory.GOVERNORSHIP, deltas);
+        }
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (received.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        subscription.dispose();
+
+        assertEquals(1L, received.get(0).getCounts().get("PDP"));
+        assertTrue(received.size() < 100);
+        assertEquals(101L, received.get(received.size() - 1).getCounts().get("PDP"));
+    }
+
+    private static Candidate candidate(Party party, long votes) {
+        return Candidate.builder().party(party).voteCategory(VoteCategory.PRESIDENCY).voteCount(votes).build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import io.lettuce.core.cluster.SlotHash;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TallyShardsTest {
+
+    @Test
+    void singleShardKeepsUnshardedKeys() {
+        TallyShards tallyShards = TallyShards.uniform(1);
+
+        assertEquals(List.of("vote:{SENATE}:voted", "vote:{SENATE}:tally"),
+                tallyShards.scriptKeys(VoteCategory.SENATE, "12345678901"));
+        assertEquals(List.of("vote:{SENATE}:tally"), tallyShards.tallyKeys(VoteCategory.SENATE));
+    }
+
+    @Test
+    void shardCountsComeFromPerCategoryProperties() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("vote.tally.default-shards", "2")
+                .withProperty("vote.tally.shards.PRESIDENCY", "16");
+        TallyShards tallyShards = new TallyShards(environment);
+
+        assertEquals(16, tallyShards.shardCount(VoteCategory.PRESIDENCY));
+        assertEquals(2, tallyShards.shardCount(VoteCategory.SENATE));
+        assertEquals(16, tallyShards.tallyKeys(VoteCategory.PRESIDENCY).size());
+    }
+
+    @Test
+    void voterAlwaysMapsToTheSameShard() {
+        TallyShards tallyShards = TallyShards.uniform(16);
+
+        for (int voter = 0; voter < 1_000; voter++) {
+            String bvn = String.format("%011d", voter);
+            assertEquals(tallyShards.scriptKeys(VoteCategory.PRESIDENCY, bvn),
+                    tallyShards.scriptKeys(VoteCategory.PRESIDENCY, bvn));
+        }
+    }
+
+    @Test
+    void sequentialBvnsSpreadEvenlyAcrossShards() {
+        int shards = 16;
+        int voters = 160_000;
+        TallyShards tallyShards = TallyShards.uniform(shards);
+        int[] perShard = new int[shards];
+        for (int voter = 0; voter < voters; voter++) {
+            perShard[tallyShards.shard(VoteCategory.PRESIDENCY, String.format("%011d", 22_000_000_000L + voter))]++;
+        }
+
+        int expected = voters / shards;
+        for (int count : perShard) {
+            assertTrue(Math.abs(count - expected) < expected / 10, "uneven shard: " + count);
+        }
+    }
+
+    @Test
+    void eachShardKeepsItsKeysOnOneSlotAndShardsUseDifferentSlots() {
+        TallyShards tallyShards = TallyShards.uniform(8);
+        Set<Integer> slots = new HashSet<>();
+        for (int shard = 0; shard < 8; shard++) {
+            int votedSlot = SlotHash.getSlot(TallyShards.votedKey(VoteCategory.PRESIDENCY, shard));
+            assertEquals(votedSlot, SlotHash.getSlot(TallyShards.tallyKey(VoteCategory.PRESIDENCY, shard)));
+            slots.add(votedSlot);
+        }
+
+        assertTrue(slots.size() > 1);
+    }
+
+    @Test
+    void zeroShardsIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> TallyShards.uniform(0));
+    }
+}
@@ -0,0 +1,96 @@
+package com.twinkles.simpoprojectjava.service;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UsernameAllocatorTest {
+    private static final int BLOCK_SIZE = 100;
+
+    private final MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+    private final AtomicLong storedSequence = new AtomicLong();
+
+    UsernameAllocatorTest() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(UsernameAllocator.SEQUENCE_COLLECTION)))
+                .thenAnswer(invocation -> new Document("value", storedSequence.addAndGet(BLOCK_SIZE)));
+    }
+
+    @Test
+    void sameFirstNameNeverCollides() {
+        UsernameAllocator usernameAllocator = new UsernameAllocator(mongoTemplate, BLOCK_SIZE);
+
+        assertEquals("ada0", usernameAllocator.allocate("Ada"));
+        assertEquals("ada1", usernameAllocator.allocate("Ada"));
+        assertEquals("voter2", usernameAllocator.allocate("O'"));
+        assertEquals("maryjane3", usernameAllocator.allocate("Mary-Jane"));
+        assertEquals("ed4", usernameAllocator.allocate("Ed"));
+    }
+
+    @Test
+    void concurrentAllocationsAcrossNodesAreUnique() throws Exception {
+        int threads = 16;
+        int perThread = 5_000;
+        // two allocators stand in for two application nodes sharing the Sequence collection
+        UsernameAllocator[] nodes = {new UsernameAllocator(mongoTemplate, BLOCK_SIZE), new UsernameAllocator(mongoTemplate, BLOCK_SIZE)};
+        Set<String> usernames = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            UsernameAllocator node = nodes[t % nodes.length];
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    assertTrue(usernames.add(node.allocate("Ada")));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(threads * perThread, usernames.size());
+        // one round trip per block, plus at most one partly used block per node
+        verify(mongoTemplate, Mockito.atMost(threads * perThread / BLOCK_SIZE + nodes.length))
+                .findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                        eq(Document.class), eq(UsernameAllocator.SEQUENCE_COLLECTION));
+    }
+
+    @Test
+    void onlyOneLeasePerBlock() {
+        UsernameAllocator usernameAllocator = new UsernameAllocator(mongoTemplate, BLOCK_SIZE);
+        for (int i = 0; i < BLOCK_SIZE * 3; i++) {
+            usernameAllocator.allocate("Ada");
+        }
+
+        verify(mongoTemplate, times(3)).findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Document.class), eq(UsernameAllocator.SEQUENCE_COLLECTION));
+    }
+}
@@ -0,0 +1,117 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.config.KafkaConfig;
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.Vote;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(classes = {KafkaConfig.class, VoteCastingListener.class, VoteMetrics.class, SimpleMeterRegistry.class}, properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "vote.kafka.partitions=3",
+        "vote.kafka.retry-interval-ms=10",
+        "vote.kafka.retry-max-interval-ms=50",
+        "vote.kafka.retry-attempts=1"
+})
+@EmbeddedKafka(partitions = 3, topics = {"vote-casting-topic", "vote-casting-topic.DLT"})
+public class VoteCastingListenerTest {
+    @Autowired
+    private KafkaTemplate<String, Vote> kafkaTemplate;
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafkaBroker;
+
+    @MockBean
+    private VoteLedger voteLedger;
+
+    @Test
+    void votesAreAppliedInBatchesAndUnreadableRecordsAreDeadLettered() throws Exception {
+        List<Vote> applied = new ArrayList<>();
+        when(voteLedger.apply(anyList())).thenAnswer(invocation -> {
+            List<Vote> votes = invocation.getArgument(0);
+            synchronized (applied) {
+                applied.addAll(votes);
+            }
+            return votes;
+        });
+
+        kafkaTemplate.send("vote-casting-topic", "11111111111", vote("11111111111", Party.APC)).get();
+        kafkaTemplate.send("vote-casting-topic", "22222222222", vote("22222222222", Party.LP)).get();
+        KafkaTemplate<String, String> rawTemplate = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+                KafkaTestUtils.producerProps(embeddedKafkaBroker), new StringSerializer(), new StringSerializer()));
+        rawTemplate.send(new ProducerRecord<>("vote-casting-topic", "33333333333", "not a vote")).get();
+
+        Map<String, Object> consumerProps = KafkaTestUtils.consumerProps("dlt-reader", "false", embeddedKafkaBroker);
+        consumerProps.put("auto.offset.reset", "earliest");
+        try (Consumer<String, String> dltConsumer = new DefaultKafkaConsumerFactory<>(consumerProps,
+                new StringDeserializer(), new StringDeserializer()).createConsumer()) {
+            embeddedKafkaBroker.consumeFromAnEmbeddedTopic(dltConsumer, "vote-casting-topic.DLT");
+            ConsumerRecord<String, String> deadLetter = KafkaTestUtils.getSingleRecord(dltConsumer,
+                    "vote-casting-topic.DLT", 30_000L);
+            assertEquals("33333333333", deadLetter.key());
+            assertEquals("not a vote", deadLetter.value());
+        }
+
+        verify(voteLedger, timeout(30_000).atLeastOnce()).apply(anyList());
+        synchronized (applied) {
+            assertEquals(2, applied.stream().map(Vote::getBVN).distinct().count());
+        }
+    }
+
+    @Test
+    void batchIsRetriedWhileMongoIsDownInsteadOfBeingDeadLettered() throws Exception {
+        AtomicInteger failures = new AtomicInteger();
+        List<Vote> applied = new ArrayList<>();
+        when(voteLedger.apply(anyList())).thenAnswer(invocation -> {
+            if (failures.incrementAndGet() <= 10) {
+                throw new DataAccessResourceFailureException("Mongo is down");
+            }
+            List<Vote> votes = invocation.getArgument(0);
+            synchronized (applied) {
+                applied.addAll(votes);
+            }
+            return votes;
+        });
+
+        kafkaTemplate.send("vote-casting-topic", "44444444444", vote("44444444444", Party.PDP)).get();
+
+        verify(voteLedger, timeout(30_000).atLeast(11)).apply(anyList());
+        synchronized (applied) {
+            assertTrue(applied.stream().anyMatch(vote -> vote.getBVN().equals("44444444444")));
+        }
+    }
+
+    private static Vote vote(String bvn, Party party) {
+        return Vote.builder().BVN(bvn).voteCategory(VoteCategory.GOVERNORSHIP).party(party).build();
+    }
+}
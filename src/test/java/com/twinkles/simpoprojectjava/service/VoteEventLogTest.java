@@ -0,0 +1,118 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VoteEventLogTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void loggedAndFlushedVotesAreReplayedAfterRestart() throws IOException {
+        VoteEventLog voteEventLog = new VoteEventLog(directory, 8, VoteEventLog.Durability.SYNC);
+        for (int voter = 0; voter < 20; voter++) {
+            voteEventLog.appendVote(String.valueOf(voter), VoteCategory.PRESIDENCY, Party.APC);
+        }
+        voteEventLog.appendFlush(VoteCategory.PRESIDENCY, Party.APC, 15);
+        voteEventLog.sync();
+
+        // no snapshot: recovery has to replay every segment
+        VoteEventLog.Recovery recovery = VoteEventLog.replay(directory);
+
+        assertEquals(21, recovery.getSequence());
+        assertEquals(21, recovery.getReplayedRecords());
+        assertEquals(20, recovery.getLoggedVotes(VoteCategory.PRESIDENCY, Party.APC));
+        assertEquals(15, recovery.getFlushedVotes(VoteCategory.PRESIDENCY, Party.APC));
+    }
+
+    @Test
+    void snapshotRemovesCoveredSegmentsAndRecoveryReplaysOnlyTheTail() throws IOException {
+        VoteEventLog voteEventLog = new VoteEventLog(directory, 8, VoteEventLog.Durability.WRITE);
+        for (int voter = 0; voter < 30; voter++) {
+            voteEventLog.appendVote(String.valueOf(voter), VoteCategory.SENATE, Party.LP);
+        }
+        voteEventLog.snapshot();
+        voteEventLog.appendVote("30", VoteCategory.SENATE, Party.LP);
+        voteEventLog.appendVote("31", VoteCategory.SENATE, Party.PDP);
+        voteEventLog.sync();
+
+        assertEquals(1, segments().size());
+        VoteEventLog reopened = new VoteEventLog(directory, 8, VoteEventLog.Durability.WRITE);
+        VoteEventLog.Recovery recovery = VoteEventLog.replay(directory);
+
+        assertEquals(2, recovery.getReplayedRecords());
+        assertEquals(31, reopened.getLoggedVotes(VoteCategory.SENATE, Party.LP));
+        assertEquals(1, reopened.getLoggedVotes(VoteCategory.SENATE, Party.PDP));
+        assertEquals(32, reopened.getNextSequence());
+        reopened.close();
+    }
+
+    @Test
+    void replayStopsAtATornRecordAndTheNextAppendReplacesIt() throws IOException {
+        VoteEventLog voteEventLog = new VoteEventLog(directory, 16, VoteEventLog.Durability.SYNC);
+        for (int voter = 0; voter < 5; voter++) {
+            voteEventLog.appendVote(String.valueOf(voter), VoteCategory.GOVERNORSHIP, Party.APC);
+        }
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // half of a sixth record, plus a stray complete-looking one after it
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10}), 5L * VoteEventLog.RECORD_BYTES);
+            channel.write(ByteBuffer.wrap(new byte[VoteEventLog.RECORD_BYTES]).put(16, (byte) 1), 6L * VoteEventLog.RECORD_BYTES);
+        }
+
+        VoteEventLog reopened = new VoteEventLog(directory, 16, VoteEventLog.Durability.SYNC);
+        assertEquals(5, reopened.getNextSequence());
+        reopened.appendVote("5", VoteCategory.GOVERNORSHIP, Party.APC);
+
+        VoteEventLog.Recovery recovery = VoteEventLog.replay(directory);
+        assertEquals(6, recovery.getSequence());
+        assertEquals(6, recovery.getLoggedVotes(VoteCategory.GOVERNORSHIP, Party.APC));
+        reopened.close();
+    }
+
+    @Test
+    void concurrentSyncedAppendsAreAllDurable() throws IOException, InterruptedException {
+        VoteEventLog voteEventLog = new VoteEventLog(directory, 1024, VoteEventLog.Durability.SYNC);
+        int threads = 8;
+        int votesPerThread = 500;
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            executorService.execute(() -> {
+                for (int i = 0; i < votesPerThread; i++) {
+                    voteEventLog.appendVote(thread + ":" + i, VoteCategory.HOUSE_OF_ASSEMBLY, Party.PDP);
+                }
+            });
+        }
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(1, TimeUnit.MINUTES));
+
+        VoteEventLog.Recovery recovery = VoteEventLog.replay(directory);
+        assertEquals((long) threads * votesPerThread, recovery.getLoggedVotes(VoteCategory.HOUSE_OF_ASSEMBLY, Party.PDP));
+        voteEventLog.close();
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".log")).sorted().collect(Collectors.toList());
+        }
+    }
+}
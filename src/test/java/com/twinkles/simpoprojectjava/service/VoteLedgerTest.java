@@ -0,0 +1,253 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.config.IngestionMode;
+import com.twinkles.simpoprojectjava.exceptions.SimpoProjectException;
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.Vote;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.repository.AppUserRepository;
+import com.twinkles.simpoprojectjava.repository.CandidateRepository;
+import com.twinkles.simpoprojectjava.repository.RegionalTallyRepository;
+import com.twinkles.simpoprojectjava.repository.VoteRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+public class VoteLedgerTest {
+    private final Set<String> storedVotes = ConcurrentHashMap.newKeySet();
+    private final Map<String, Integer> votedCategories = new ConcurrentHashMap<>();
+    private VoteRepository voteRepository;
+    private AppUserRepository appUserRepository;
+    private VoteTallyEngine voteTallyEngine;
+    private VoteLedger voteLedger;
+
+    @BeforeEach
+    void setUp() {
+        voteRepository = Mockito.mock(VoteRepository.class);
+        appUserRepository = Mockito.mock(AppUserRepository.class);
+        voteTallyEngine = new VoteTallyEngine(Mockito.mock(CandidateRepository.class), new ResultsView(),
+                new ConstituencyTally(Mockito.mock(RegionalTallyRepository.class)));
+        // stands in for the unique (BVN, voteCategory) index
+        when(voteRepository.insertNew(anyList())).thenAnswer(invocation -> {
+            List<Vote> votes = invocation.getArgument(0);
+            List<Vote> inserted = new ArrayList<>();
+            for (Vote vote : votes) {
+                if (storedVotes.add(vote.getBVN() + ":" + vote.getVoteCategory())) {
+                    inserted.add(vote);
+                }
+            }
+            return inserted;
+        });
+        when(appUserRepository.markVoted(anyString(), anyInt())).thenAnswer(this::markVoted);
+    }
+
+    // stands in for the findAndModify $bit on AppUser.votedCategories: returns the mask before the update
+    private int markVoted(InvocationOnMock invocation) {
+        int[] previous = new int[1];
+        votedCategories.compute(invocation.getArgument(0), (bvn, mask) -> {
+            previous[0] = mask == null ? 0 : mask;
+            return previous[0] | invocation.<Integer>getArgument(1);
+        });
+        return previous[0];
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (voteLedger != null) {
+            voteLedger.stop();
+        }
+    }
+
+    @Test
+    void secondVoteInSameCategoryIsRejectedAfterFlush() {
+        voteLedger = newLedger(VoteLedger.Durability.FLUSH, 1024);
+        voteLedger.start();
+
+        assertTrue(voteLedger.record(vote("12345678901", Party.APC)));
+        assertFalse(voteLedger.record(vote("12345678901", Party.PDP)));
+        assertEquals(1, voteTallyEngine.pendingCount(VoteCategory.PRESIDENCY, Party.APC));
+        assertEquals(0, voteTallyEngine.pendingCount(VoteCategory.PRESIDENCY, Party.PDP));
+    }
+
+    @Test
+    void voteAlreadyClaimedOnTheDirectPathIsNotCountedAgain() {
+        voteLedger = newLedger(VoteLedger.Durability.FLUSH, 1024);
+        // the DIRECT findAndModify applied before the error that sent this vote to Kafka
+        votedCategories.put("12345678901", VoteCategory.PRESIDENCY.mask());
+
+        assertTrue(voteLedger.apply(List.of(vote("12345678901", Party.APC))).isEmpty());
+        assertEquals(0, voteTallyEngine.pendingCount(VoteCategory.PRESIDENCY, Party.APC));
+    }
+
+    @Test
+    void replayedBatchIsCountedOnce() {
+        voteLedger = newLedger(VoteLedger.Durability.FLUSH, 1024);
+        List<Vote> batch = List.of(vote("12345678901", Party.APC), vote("12345678902", Party.PDP));
+
+        assertEquals(2, voteLedger.apply(batch).size());
+        assertEquals(0, voteLedger.apply(batch).size());
+        assertEquals(1, voteTallyEngine.pendingCount(VoteCategory.PRESIDENCY, Party.APC));
+        assertEquals(1, voteTallyEngine.pendingCount(VoteCategory.PRESIDENCY, Party.PDP));
+    }
+
+    @Test
+    void votersOfOneBatchAreClaimedConcurrently() {
+        CountDownLatch bothInFlight = new CountDownLatch(2);
+        when(appUserRepository.markVoted(anyString(), anyInt())).thenAnswer(invocation -> {
+            bothInFlight.countDown();
+            // sequential claims would each wait here for the full timeout and fail
+            if (!bothInFlight.await(5, TimeUnit.SECONDS)) {
+                throw new DataAccessResourceFailureException("voters were claimed one at a time");
+            }
+            return markVoted(invocation);
+        });
+        voteLedger = newLedger(VoteLedger.Durability.FLUSH, 1024);
+
+        assertEquals(2, voteLedger.apply(List.of(vote("12345678901", Party.APC), vote("12345678902", Party.PDP))).size());
+    }
+
+    @Test
+    void fullBufferPushesBackOnCallers() {
+        voteLedger = newLedger(VoteLedger.Durability.ENQUEUE, 1);
+
+        voteLedger.enqueue(vote("1", Party.APC));
+        SimpoProjectException exception = assertThrows(SimpoProjectException.class, () -> voteLedger.enqueue(vote("2", Party.APC)));
+        assertEquals(503, exception.getStatusCode());
+    }
+
+    @Test
+    void tryEnqueueRejectsAFullBufferWithoutWaiting() {
+        voteLedger = new VoteLedger(voteRepository, appUserRepository, voteTallyEngine, IngestionMode.LEDGER,
+                VoteLedger.Durability.ENQUEUE, 1, 1000, 5, 60_000, 5000, 4);
+
+        voteLedger.tryEnqueue(vote("1", Party.APC));
+        long start = System.nanoTime();
+        SimpoProjectException exception = assertThrows(SimpoProjectException.class, () -> voteLedger.tryEnqueue(vote("2", Party.APC)));
+        assertEquals(503, exception.getStatusCode());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+    }
+
+    @Test
+    void coalescesConcurrentVotesIntoBatches() throws InterruptedException {
+        voteLedger = newLedger(VoteLedger.Durability.FLUSH, 65_536);
+        voteLedger.start();
+        int threads = 16;
+        int votesPerThread = 250;
+        AtomicInteger voters = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executorService.execute(() -> {
+                for (int i = 0; i < votesPerThread; i++) {
+                    voteLedger.record(vote(String.valueOf(voters.incrementAndGet()), Party.LP));
+                }
+            });
+        }
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(2, TimeUnit.MINUTES));
+
+        long total = (long) threads * votesPerThread;
+        assertEquals(total, voteLedger.getAcceptedVotes());
+        assertEquals(total, voteTallyEngine.pendingCount(VoteCategory.PRESIDENCY, Party.LP));
+        assertTrue(voteLedger.getFlushedBatches() < total);
+    }
+
+    @Test
+    void failedVoterUpdateIsRetriedBeforeTheCallerSeesIt() {
+        when(appUserRepository.markVoted(anyString(), anyInt()))
+                .thenThrow(new DataAccessResourceFailureException("primary stepped down"))
+                .thenAnswer(this::markVoted);
+        voteLedger = newLedger(VoteLedger.Durability.FLUSH, 1024);
+        voteLedger.start();
+
+        assertTrue(voteLedger.record(vote("12345678901", Party.APC)));
+        assertEquals(1, voteTallyEngine.pendingCount(VoteCategory.PRESIDENCY, Party.APC));
+    }
+
+    @Test
+    void voteThatFailedEveryAttemptCanBeCastAgain() {
+        when(appUserRepository.markVoted(anyString(), anyInt()))
+                .thenThrow(new DataAccessResourceFailureException("no primary"))
+                .thenThrow(new DataAccessResourceFailureException("no primary"))
+                .thenThrow(new DataAccessResourceFailureException("no primary"))
+                .thenAnswer(this::markVoted);
+        voteLedger = newLedger(VoteLedger.Durability.FLUSH, 1024);
+        voteLedger.start();
+
+        assertThrows(SimpoProjectException.class, () -> voteLedger.record(vote("12345678901", Party.APC)));
+        assertTrue(voteLedger.record(vote("12345678901", Party.APC)));
+        assertEquals(1, voteTallyEngine.pendingCount(VoteCategory.PRESIDENCY, Party.APC));
+    }
+
+    @Test
+    void interruptedFlusherFailsQueuedVotesAndStops() throws Exception {
+        CountDownLatch inFlush = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(voteRepository.insertNew(anyList())).thenAnswer(invocation -> {
+            inFlush.countDown();
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    release.await();
+                    break;
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return invocation.getArgument(0);
+        });
+        voteLedger = newLedger(VoteLedger.Durability.FLUSH, 1024);
+        voteLedger.start();
+        CompletableFuture<Boolean> flushing = voteLedger.enqueue(vote("1", Party.APC));
+        assertTrue(inFlush.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = voteLedger.enqueue(vote("2", Party.APC));
+
+        Thread flusher = (Thread) ReflectionTestUtils.getField(voteLedger, "flusher");
+        flusher.interrupt();
+        release.countDown();
+        flusher.join(5_000);
+
+        assertFalse(flusher.isAlive());
+        assertTrue(flushing.get(5, TimeUnit.SECONDS));
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertEquals(503, ((SimpoProjectException) exception.getCause()).getStatusCode());
+        assertEquals(503, assertThrows(SimpoProjectException.class, () -> voteLedger.enqueue(vote("3", Party.APC))).getStatusCode());
+    }
+
+    private VoteLedger newLedger(VoteLedger.Durability durability, int capacity) {
+        return new VoteLedger(voteRepository, appUserRepository, voteTallyEngine, IngestionMode.LEDGER,
+                durability, capacity, 1000, 5, 10, 5000, 4);
+    }
+
+    private static Vote vote(String bvn, Party party) {
+        return Vote.builder().BVN(bvn).voteCategory(VoteCategory.PRESIDENCY).party(party).build();
+    }
+}
@@ -0,0 +1,39 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.exceptions.SimpoProjectException;
+import com.twinkles.simpoprojectjava.exceptions.ValidationErrors;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class VoteMetricsTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VoteMetrics voteMetrics = new VoteMetrics(meterRegistry);
+
+    @Test
+    void votesAreTimedPerCategoryAndOutcome() {
+        long start = System.nanoTime();
+        voteMetrics.voteAccepted(VoteCategory.SENATE, start);
+        voteMetrics.voteAccepted(VoteCategory.SENATE, start);
+        voteMetrics.voteRejected(VoteCategory.GOVERNORSHIP, start, ValidationErrors.ALREADY_VOTED);
+
+        assertEquals(2, meterRegistry.get("vote.cast").tags("category", "SENATE", "outcome", "accepted").timer().count());
+        assertEquals(1, meterRegistry.get("vote.cast").tags("category", "GOVERNORSHIP", "outcome", "rejected").timer().count());
+        assertEquals(0, meterRegistry.get("vote.cast").tags("category", "SENATE", "outcome", "rejected").timer().count());
+    }
+
+    @Test
+    void rejectionsAreCountedByReason() {
+        long start = System.nanoTime();
+        voteMetrics.ballotRejected(start, ValidationErrors.INVALID_CREDENTIALS);
+        voteMetrics.ballotRejected(start, new SimpoProjectException("Invalid or expired session", 401));
+        voteMetrics.ballotRejected(start, new SimpoProjectException("BVN validation timed out", 503));
+
+        assertEquals(1, meterRegistry.get("vote.rejected").tag("reason", "invalid_credentials").counter().count());
+        assertEquals(1, meterRegistry.get("vote.rejected").tag("reason", "invalid_session").counter().count());
+        assertEquals(1, meterRegistry.get("vote.rejected").tag("reason", "overloaded").counter().count());
+        assertEquals(3, meterRegistry.get("vote.ballot").tag("outcome", "rejected").timer().count());
+    }
+}
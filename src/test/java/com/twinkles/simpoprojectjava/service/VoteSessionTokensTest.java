@@ -0,0 +1,69 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.exceptions.SimpoProjectException;
+import com.twinkles.simpoprojectjava.model.Constituency;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.model.VoterCredentials;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VoteSessionTokensTest {
+    private static final Instant NOW = Instant.parse("2023-02-25T08:00:00Z");
+
+    private final VoteSessionTokens voteSessionTokens =
+            new VoteSessionTokens("test-secret", Duration.ofMinutes(30), Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    void issuedTokenCarriesBvnAndVotedCategories() {
+        String token = voteSessionTokens.issue(new VoterCredentials("12345678901", "hash", VoteCategory.SENATE.mask()));
+
+        VoterCredentials session = voteSessionTokens.verify(token);
+
+        assertEquals("12345678901", session.getBVN());
+        assertTrue(session.hasVotedFor(VoteCategory.SENATE));
+    }
+
+    @Test
+    void issuedTokenCarriesConstituency() {
+        Constituency constituency = Constituency.of("Akwa Ibom", "Uyo.Central");
+        String token = voteSessionTokens.issue(new VoterCredentials("12345678901", "hash", 0, constituency));
+
+        assertEquals(constituency, voteSessionTokens.verify(token).getConstituency());
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        String token = voteSessionTokens.issue(new VoterCredentials("12345678901", "hash", 0));
+        String forged = voteSessionTokens.issue(new VoterCredentials("12345678902", "hash", 0));
+        String spliced = forged.substring(0, forged.indexOf('.')) + token.substring(token.indexOf('.'));
+
+        assertThrows(SimpoProjectException.class, () -> voteSessionTokens.verify(spliced));
+        assertThrows(SimpoProjectException.class, () -> voteSessionTokens.verify("garbage"));
+        assertThrows(SimpoProjectException.class, () -> voteSessionTokens.verify(null));
+    }
+
+    @Test
+    void tokenFromAnotherKeyIsRejected() {
+        VoteSessionTokens otherNode = new VoteSessionTokens("other-secret", Duration.ofMinutes(30), Clock.fixed(NOW, ZoneOffset.UTC));
+        String token = otherNode.issue(new VoterCredentials("12345678901", "hash", 0));
+
+        assertThrows(SimpoProjectException.class, () -> voteSessionTokens.verify(token));
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String token = voteSessionTokens.issue(new VoterCredentials("12345678901", "hash", 0));
+        VoteSessionTokens later = new VoteSessionTokens("test-secret", Duration.ofMinutes(30),
+                Clock.fixed(NOW.plus(Duration.ofMinutes(31)), ZoneOffset.UTC));
+
+        assertThrows(SimpoProjectException.class, () -> later.verify(token));
+    }
+}
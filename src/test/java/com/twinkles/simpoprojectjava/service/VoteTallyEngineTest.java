@@ -0,0 +1,222 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.model.Constituency;
+import com.twinkles.simpoprojectjava.model.Party;
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.repository.CandidateRepository;
+import com.twinkles.simpoprojectjava.repository.RegionalTallyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+public class VoteTallyEngineTest {
+    private static final VoteCategory[] CATEGORIES = VoteCategory.values();
+    private static final Party[] PARTIES = Party.values();
+
+    private final Map<String, Long> persisted = new ConcurrentHashMap<>();
+    private final Map<String, Long> flushMarkers = new ConcurrentHashMap<>();
+    private CandidateRepository candidateRepository;
+    private RegionalTallyRepository regionalTallyRepository;
+    private VoteTallyEngine voteTallyEngine;
+
+    @BeforeEach
+    void setUp() {
+        candidateRepository = Mockito.mock(CandidateRepository.class);
+        when(candidateRepository.incrementVoteCount(any(), any(), anyLong(), anyString(), anyLong())).thenAnswer(this::incrementIfMarkerMatches);
+        when(candidateRepository.flushedVoteCount(any(), any(), anyString())).thenAnswer(invocation ->
+                flushMarkers.getOrDefault(invocation.getArgument(0) + ":" + invocation.getArgument(1) + ":" + invocation.getArgument(2), -1L));
+        when(candidateRepository.startFlushedVoteCount(any(), any(), anyString(), anyLong())).thenAnswer(invocation ->
+                flushMarkers.computeIfAbsent(invocation.getArgument(0) + ":" + invocation.getArgument(1) + ":" + invocation.getArgument(2),
+                        marker -> invocation.getArgument(3)));
+        regionalTallyRepository = Mockito.mock(RegionalTallyRepository.class);
+        when(regionalTallyRepository.incrementVoteCounts(any())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+        voteTallyEngine = new VoteTallyEngine(candidateRepository, new ResultsView(), new ConstituencyTally(regionalTallyRepository));
+    }
+
+    // stands in for the Candidate.flushedBy marker of each vote event log or, without one, each process
+    private boolean incrementIfMarkerMatches(InvocationOnMock invocation) {
+        String key = invocation.getArgument(0) + ":" + invocation.getArgument(1);
+        String marker = key + ":" + invocation.getArgument(3);
+        long delta = invocation.getArgument(2);
+        long flushedBefore = invocation.getArgument(4);
+        if (flushMarkers.getOrDefault(marker, 0L) != flushedBefore) {
+            return false;
+        }
+        flushMarkers.put(marker, flushedBefore + delta);
+        persisted.merge(key, delta, Long::sum);
+        return true;
+    }
+
+    @Test
+    void noVoteIsLostUnderParallelVotingAndFlushing() throws InterruptedException {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int votesPerThread = 20_000;
+        AtomicBoolean voting = new AtomicBoolean(true);
+        Thread flusher = new Thread(() -> {
+            while (voting.get()) {
+                voteTallyEngine.flush();
+            }
+        });
+        flusher.start();
+        runVotes(threads, votesPerThread);
+        voting.set(false);
+        flusher.join();
+        voteTallyEngine.flush();
+
+        long total = persisted.values().stream().mapToLong(Long::longValue).sum();
+        assertEquals((long) threads * votesPerThread, total);
+        for (VoteCategory voteCategory : CATEGORIES) {
+            for (Party party : PARTIES) {
+                assertEquals(expectedVotes(threads, votesPerThread, voteCategory, party),
+                        persisted.getOrDefault(voteCategory + ":" + party, 0L));
+                assertEquals(0, voteTallyEngine.pendingCount(voteCategory, party));
+            }
+        }
+    }
+
+    @Test
+    void votesPendingAtShutdownAreFlushedAfterRestart(@TempDir Path directory) throws IOException {
+        VoteEventLog voteEventLog = new VoteEventLog(directory, 1024, VoteEventLog.Durability.SYNC);
+        ReflectionTestUtils.setField(voteTallyEngine, "voteEventLog", voteEventLog);
+        voteTallyEngine.record("12345678901", Constituency.UNKNOWN, VoteCategory.PRESIDENCY, Party.APC);
+        voteTallyEngine.flush();
+        voteTallyEngine.record("12345678902", Constituency.UNKNOWN, VoteCategory.PRESIDENCY, Party.APC);
+        voteTallyEngine.record("12345678903", Constituency.UNKNOWN, VoteCategory.SENATE, Party.LP);
+        // the node stops before the next flush
+        voteEventLog.close();
+
+        VoteTallyEngine restarted = new VoteTallyEngine(candidateRepository, new ResultsView(), new ConstituencyTally(regionalTallyRepository));
+        VoteEventLog reopened = new VoteEventLog(directory, 1024, VoteEventLog.Durability.SYNC);
+        ReflectionTestUtils.setField(restarted, "voteEventLog", reopened);
+        restarted.recover();
+        restarted.flush();
+        reopened.close();
+
+        assertEquals(2L, persisted.get(VoteCategory.PRESIDENCY + ":" + Party.APC));
+        assertEquals(1L, persisted.get(VoteCategory.SENATE + ":" + Party.LP));
+        // recovered votes have no constituency but still count towards a state
+        assertEquals(1L, restarted.regionalResult(VoteCategory.PRESIDENCY, Constituency.UNKNOWN_PLACE, null).getTotalVotes());
+    }
+
+    @Test
+    void flushLoggedButNotAppliedBeforeACrashIsAppliedOnceAfterRestart(@TempDir Path directory) throws IOException {
+        VoteEventLog voteEventLog = new VoteEventLog(directory, 1024, VoteEventLog.Durability.SYNC);
+        ReflectionTestUtils.setField(voteTallyEngine, "voteEventLog", voteEventLog);
+        voteTallyEngine.recover();
+        voteTallyEngine.record("12345678901", Constituency.UNKNOWN, VoteCategory.PRESIDENCY, Party.APC);
+        voteTallyEngine.flush();
+        voteTallyEngine.record("12345678902", Constituency.UNKNOWN, VoteCategory.PRESIDENCY, Party.APC);
+        // the node dies after logging the second flush and before its $inc
+        voteEventLog.appendFlush(VoteCategory.PRESIDENCY, Party.APC, 1);
+        voteEventLog.close();
+
+        VoteTallyEngine restarted = new VoteTallyEngine(candidateRepository, new ResultsView(), new ConstituencyTally(regionalTallyRepository));
+        VoteEventLog reopened = new VoteEventLog(directory, 1024, VoteEventLog.Durability.SYNC);
+        ReflectionTestUtils.setField(restarted, "voteEventLog", reopened);
+        restarted.recover();
+        restarted.flush();
+        restarted.flush();
+        reopened.close();
+
+        assertEquals(2L, persisted.get(VoteCategory.PRESIDENCY + ":" + Party.APC));
+    }
+
+    @Test
+    void failedIncThatLandedIsNotAppliedAgain(@TempDir Path directory) throws IOException {
+        VoteEventLog voteEventLog = new VoteEventLog(directory, 1024, VoteEventLog.Durability.SYNC);
+        ReflectionTestUtils.setField(voteTallyEngine, "voteEventLog", voteEventLog);
+        voteTallyEngine.recover();
+        when(candidateRepository.incrementVoteCount(any(), any(), anyLong(), anyString(), anyLong()))
+                .thenAnswer(invocation -> {
+                    incrementIfMarkerMatches(invocation);
+                    throw new DataAccessResourceFailureException("connection reset after the write");
+                })
+                .thenAnswer(this::incrementIfMarkerMatches);
+        voteTallyEngine.record("12345678901", Constituency.UNKNOWN, VoteCategory.SENATE, Party.LP);
+
+        voteTallyEngine.flush();
+        voteTallyEngine.flush();
+        voteEventLog.close();
+
+        assertEquals(1L, persisted.get(VoteCategory.SENATE + ":" + Party.LP));
+        assertEquals(0, voteTallyEngine.pendingCount(VoteCategory.SENATE, Party.LP));
+        assertEquals(0, voteEventLog.unflushed()[VoteCategory.SENATE.ordinal() * PARTIES.length + Party.LP.ordinal()]);
+    }
+
+    @Test
+    void failedIncIsSettledByTheProcessMarkerWithoutAnEventLog() {
+        when(candidateRepository.incrementVoteCount(any(), any(), anyLong(), anyString(), anyLong()))
+                .thenAnswer(invocation -> {
+                    incrementIfMarkerMatches(invocation);
+                    throw new DataAccessResourceFailureException("connection reset after the write");
+                })
+                .thenThrow(new DataAccessResourceFailureException("no primary"))
+                .thenAnswer(this::incrementIfMarkerMatches);
+        voteTallyEngine.record("12345678901", Constituency.UNKNOWN, VoteCategory.SENATE, Party.LP);
+        voteTallyEngine.flush();
+        voteTallyEngine.flush();
+        assertEquals(1L, persisted.get(VoteCategory.SENATE + ":" + Party.LP));
+
+        voteTallyEngine.record("12345678902", Constituency.UNKNOWN, VoteCategory.SENATE, Party.LP);
+        // this $inc fails without reaching Mongo, so the marker check re-queues it
+        voteTallyEngine.flush();
+        voteTallyEngine.flush();
+        voteTallyEngine.flush();
+
+        assertEquals(2L, persisted.get(VoteCategory.SENATE + ":" + Party.LP));
+        assertEquals(0, voteTallyEngine.pendingCount(VoteCategory.SENATE, Party.LP));
+    }
+
+    private void runVotes(int threads, int votesPerThread) throws InterruptedException {
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            executorService.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < votesPerThread; i++) {
+                    voteTallyEngine.record("12345678901", Constituency.UNKNOWN, CATEGORIES[i % CATEGORIES.length], PARTIES[i % PARTIES.length]);
+                }
+            });
+        }
+        start.countDown();
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(2, TimeUnit.MINUTES));
+    }
+
+    private static long expectedVotes(int threads, int votesPerThread, VoteCategory voteCategory, Party party) {
+        long perThread = 0;
+        for (int i = 0; i < votesPerThread; i++) {
+            if (CATEGORIES[i % CATEGORIES.length] == voteCategory && PARTIES[i % PARTIES.length] == party) {
+                perThread++;
+            }
+        }
+        return perThread * threads;
+    }
+}
@@ -0,0 +1,53 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.twinkles.simpoprojectjava.model.VoteCategory;
+import com.twinkles.simpoprojectjava.model.VoterCredentials;
+import com.twinkles.simpoprojectjava.repository.AppUserRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class VoterCredentialCacheTest {
+    private final AppUserRepository appUserRepository = Mockito.mock(AppUserRepository.class);
+    private final VoterCredentialCache voterCredentialCache = new VoterCredentialCache(appUserRepository, 100, 5);
+
+    @Test
+    void repeatedLookupsHitTheCache() {
+        when(appUserRepository.findCredentialsByBVN("12345678901")).thenReturn(new VoterCredentials("12345678901", "secret", 0));
+
+        voterCredentialCache.get("12345678901");
+        voterCredentialCache.get("12345678901");
+        voterCredentialCache.get("12345678901");
+
+        verify(appUserRepository, times(1)).findCredentialsByBVN("12345678901");
+        assertEquals(2, voterCredentialCache.stats().hitCount());
+        assertEquals(1, voterCredentialCache.stats().missCount());
+    }
+
+    @Test
+    void recordedVoteIsVisibleWithoutReloading() {
+        when(appUserRepository.findCredentialsByBVN("12345678901")).thenReturn(new VoterCredentials("12345678901", "secret", 0));
+        assertFalse(voterCredentialCache.get("12345678901").hasVotedFor(VoteCategory.SENATE));
+
+        voterCredentialCache.markVoted("12345678901", VoteCategory.SENATE);
+
+        VoterCredentials voterCredentials = voterCredentialCache.get("12345678901");
+        assertTrue(voterCredentials.hasVotedFor(VoteCategory.SENATE));
+        assertFalse(voterCredentials.hasVotedFor(VoteCategory.PRESIDENCY));
+        verify(appUserRepository, times(1)).findCredentialsByBVN("12345678901");
+    }
+
+    @Test
+    void unknownVotersAreNotCached() {
+        assertNull(voterCredentialCache.get("00000000000"));
+        assertNull(voterCredentialCache.get("00000000000"));
+        verify(appUserRepository, times(2)).findCredentialsByBVN("00000000000");
+    }
+}
@@ -0,0 +1,77 @@
+package com.twinkles.simpoprojectjava.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.twinkles.simpoprojectjava.dtos.responses.BulkImportResponse;
+import com.twinkles.simpoprojectjava.model.AppUser;
+import com.twinkles.simpoprojectjava.repository.AppUserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+public class VoterImportServiceTest {
+    private final AppUserRepository appUserRepository = Mockito.mock(AppUserRepository.class);
+    private final UsernameAllocator usernameAllocator = Mockito.mock(UsernameAllocator.class);
+    private final AtomicLong sequence = new AtomicLong();
+    private final VoterImportService voterImportService =
+            new VoterImportService(appUserRepository, usernameAllocator, new BCryptPasswordEncoder(4), new ObjectMapper(), 2, 16);
+    private final List<AppUser> inserted = new ArrayList<>();
+
+    @BeforeEach
+    void allocateUsernames() {
+        when(usernameAllocator.allocate(anyString())).thenAnswer(invocation -> invocation.getArgument(0) + "" + sequence.incrementAndGet());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ndjsonRollIsBatchedAndDeduplicated() {
+        when(appUserRepository.insertNew(anyList())).thenAnswer(invocation -> {
+            List<AppUser> batch = invocation.getArgument(0);
+            inserted.addAll(batch);
+            return batch.size();
+        });
+        String roll = "{\"bvn\":\"12345678901\",\"password\":\"a\",\"first_name\":\"Ada\",\"gender\":\"female\"}\n"
+                + "{\"bvn\":\"12345678902\",\"password\":\"b\",\"first_name\":\"Bola\"}\n"
+                + "{\"bvn\":\"12345678901\",\"password\":\"c\",\"first_name\":\"Ada\"}\n"
+                + "{\"bvn\":\"not-a-bvn\",\"password\":\"d\",\"first_name\":\"Chi\"}\n"
+                + "{\"bvn\":\"12345678903\",\"password\":\"e\",\"first_name\":\"Dayo\"}\n";
+
+        BulkImportResponse response = voterImportService.importVoters(stream(roll), VoterImportService.Format.NDJSON);
+
+        assertEquals(5, response.getRowsRead());
+        assertEquals(3, response.getImported());
+        assertEquals(1, response.getDuplicatesInFile());
+        assertEquals(1, response.getInvalid());
+        assertEquals(3, inserted.stream().map(AppUser::getUsername).distinct().count());
+    }
+
+    @Test
+    void csvRowsRejectedByTheDatabaseAreCounted() {
+        when(appUserRepository.insertNew(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size() - 1);
+        String roll = "bvn,password,first_name,last_name\n"
+                + "12345678901,a,Ada,Obi\n"
+                + "12345678902,b,Bola,Ade\n"
+                + "12345678903,c,Chi,Eze\n";
+
+        BulkImportResponse response = voterImportService.importVoters(stream(roll), VoterImportService.Format.CSV);
+
+        assertEquals(3, response.getRowsRead());
+        assertEquals(1, response.getImported());
+        assertEquals(2, response.getDuplicatesInDatabase());
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}